@@ -3,6 +3,7 @@ package com.cryptorate;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * CryptoRate 加密货币追踪系统 - 启动类
@@ -13,6 +14,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  */
 @SpringBootApplication
 @MapperScan("com.cryptorate.mapper")  // 扫描 MyBatis Mapper 接口
+@EnableScheduling  // 启用汇率同步、每日简报、分区维护等定时任务
 public class CryptoRateApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,331 @@
+package com.cryptorate.alert;
+
+import com.cryptorate.common.DaemonThreads;
+import com.cryptorate.config.AlertDispatchConfig;
+import com.cryptorate.dto.AiAlertRequest;
+import com.cryptorate.entity.AlertDeadLetter;
+import com.cryptorate.mapper.AlertDeadLetterMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 告警异步分发器
+ *
+ * <p>
+ * 将"发现异动"与"投递告警"解耦：同步流程只负责把一轮告警交给 {@link #submit}，立即返回；
+ * 投递由后台线程完成，Python AI 服务变慢不会再拖住汇率同步。
+ * </p>
+ *
+ * <h3>处理流程：</h3>
+ * <ol>
+ * <li><b>合并</b>：同一轮中发往同一 Webhook 的多条告警合并为一条消息</li>
+ * <li><b>有界队列</b>：队列满时新消息直接写入死信，不阻塞调用方</li>
+ * <li><b>投递</b>：固定数量的工作线程从队列取出消息调用 Python {@code /ai/alert}</li>
+ * <li><b>重试</b>：失败后按指数退避 + 随机抖动重新入队，超过最大次数写入 alert_dead_letter 表</li>
+ * </ol>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class AlertDispatcher {
+
+    /** Python AI 告警分析接口地址 */
+    private static final String AI_ALERT_URL = "http://127.0.0.1:8000/ai/alert";
+
+    /** 死信中错误信息的最大长度，与表字段一致 */
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final RestTemplate restTemplate;
+    private final AlertDeadLetterMapper deadLetterMapper;
+    private final ObjectMapper objectMapper;
+    private final AlertDispatchConfig config;
+
+    private final BlockingQueue<Delivery> queue;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retryScheduler;
+
+    /** 退避等待中的重试，关闭时写入死信 */
+    private final Set<PendingRetry> pendingRetries = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running = true;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder latencyTotalMs = new LongAdder();
+    private final LongAdder sendTotalMs = new LongAdder();
+    private final AtomicLong latencyMaxMs = new AtomicLong();
+
+    @Autowired
+    public AlertDispatcher(RestTemplate restTemplate,
+            AlertDeadLetterMapper deadLetterMapper,
+            ObjectMapper objectMapper,
+            AlertDispatchConfig config) {
+        this.restTemplate = restTemplate;
+        this.deadLetterMapper = deadLetterMapper;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity()));
+        this.workers = Executors.newFixedThreadPool(Math.max(1, config.getWorkers()), DaemonThreads.named("alert-dispatch-"));
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(DaemonThreads.named("alert-retry-"));
+    }
+
+    /**
+     * 启动投递线程
+     */
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < Math.max(1, config.getWorkers()); i++) {
+            workers.execute(this::workLoop);
+        }
+        log.info("[AlertDispatch] 已启动 {} 个投递线程，队列容量 {}", config.getWorkers(), config.getQueueCapacity());
+    }
+
+    /**
+     * 提交一轮告警（非阻塞）
+     *
+     * <p>发往同一 Webhook 的告警合并为一条消息后入队。</p>
+     *
+     * @param alerts 本轮触发的告警
+     */
+    public void submit(Collection<AiAlertRequest> alerts) {
+        if (alerts == null || alerts.isEmpty()) {
+            return;
+        }
+        Map<String, List<AiAlertRequest>> byWebhook = new LinkedHashMap<>();
+        for (AiAlertRequest alert : alerts) {
+            String key = alert.getWebhookUrl() != null ? alert.getWebhookUrl() : "";
+            byWebhook.computeIfAbsent(key, k -> new ArrayList<>()).add(alert);
+        }
+
+        long now = System.currentTimeMillis();
+        for (List<AiAlertRequest> group : byWebhook.values()) {
+            submitted.add(group.size());
+            merged.add(group.size() - 1);
+            enqueue(new Delivery(merge(group), 0, now));
+        }
+    }
+
+    /**
+     * @return 队列深度、投递计数与延迟统计
+     */
+    public Map<String, Object> getStats() {
+        long done = delivered.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", config.getQueueCapacity());
+        stats.put("submitted", submitted.sum());
+        stats.put("merged", merged.sum());
+        stats.put("delivered", done);
+        stats.put("retried", retried.sum());
+        stats.put("deadLettered", deadLettered.sum());
+        stats.put("avgLatencyMs", done > 0 ? latencyTotalMs.sum() / done : 0);
+        stats.put("maxLatencyMs", latencyMaxMs.get());
+        stats.put("avgSendMs", done > 0 ? sendTotalMs.sum() / done : 0);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        // 尚未投递的消息（含退避等待中的重试）写入死信，避免随进程退出丢失
+        List<Delivery> remaining = new ArrayList<>();
+        retryScheduler.shutdownNow();
+        for (PendingRetry retry : pendingRetries) {
+            if (pendingRetries.remove(retry)) {
+                remaining.add(retry.delivery);
+            }
+        }
+        workers.shutdownNow();
+        queue.drainTo(remaining);
+        for (Delivery delivery : remaining) {
+            deadLetter(delivery, "服务关闭时仍未投递");
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                Delivery delivery = queue.poll(1, TimeUnit.SECONDS);
+                if (delivery != null) {
+                    deliver(delivery);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("[AlertDispatch] 投递线程异常: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void deliver(Delivery delivery) {
+        long start = System.currentTimeMillis();
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            restTemplate.postForEntity(AI_ALERT_URL, new HttpEntity<>(delivery.request(), headers), String.class);
+
+            long end = System.currentTimeMillis();
+            long latency = end - delivery.enqueuedAt();
+            delivered.increment();
+            sendTotalMs.add(end - start);
+            latencyTotalMs.add(latency);
+            latencyMaxMs.accumulateAndGet(latency, Math::max);
+            log.info("[AlertDispatch] 告警已投递: {}（第 {} 次尝试，排队至完成 {} ms）",
+                    delivery.request().getSymbol(), delivery.attempt() + 1, latency);
+        } catch (Exception e) {
+            int attempts = delivery.attempt() + 1;
+            if (attempts >= config.getMaxAttempts() || !running) {
+                log.error("[AlertDispatch] 告警 {} 投递 {} 次均失败，写入死信: {}",
+                        delivery.request().getSymbol(), attempts, e.getMessage());
+                deadLetter(delivery.retry(), e.getMessage());
+                return;
+            }
+            long delay = backoff(delivery.attempt());
+            retried.increment();
+            log.warn("[AlertDispatch] 告警 {} 第 {} 次投递失败，{} ms 后重试: {}",
+                    delivery.request().getSymbol(), attempts, delay, e.getMessage());
+            PendingRetry retry = new PendingRetry(delivery.retry());
+            pendingRetries.add(retry);
+            retryScheduler.schedule(retry, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void enqueue(Delivery delivery) {
+        if (!running) {
+            deadLetter(delivery, "服务关闭时仍未投递");
+            return;
+        }
+        if (!queue.offer(delivery)) {
+            log.warn("[AlertDispatch] 告警队列已满（{}），消息写入死信", config.getQueueCapacity());
+            deadLetter(delivery, "告警队列已满");
+        }
+    }
+
+    /** 指数退避 + 随机抖动：在 [上限/2, 上限] 之间随机取值，避免重试集中到同一时刻 */
+    private long backoff(int attempt) {
+        long cap = Math.min(config.getMaxBackoffMs(), config.getBaseBackoffMs() << Math.min(attempt, 20));
+        return cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+    }
+
+    private void deadLetter(Delivery delivery, String error) {
+        deadLettered.increment();
+        try {
+            String reason = error != null && error.length() > MAX_ERROR_LENGTH
+                    ? error.substring(0, MAX_ERROR_LENGTH) : error;
+            deadLetterMapper.insert(AlertDeadLetter.builder()
+                    .webhookUrl(delivery.request().getWebhookUrl())
+                    .payload(objectMapper.writeValueAsString(delivery.request()))
+                    .attempts(delivery.attempt())
+                    .lastError(reason)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (Exception e) {
+            log.error("[AlertDispatch] 写入告警死信失败，消息丢弃: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把同一 Webhook 的多条告警合并为一条消息
+     *
+     * <p>以涨跌幅绝对值最大的一条作为主告警，原因中逐条列出所有币种。</p>
+     */
+    private static AiAlertRequest merge(List<AiAlertRequest> group) {
+        if (group.size() == 1) {
+            return group.get(0);
+        }
+        AiAlertRequest strongest = group.get(0);
+        Set<String> symbols = new LinkedHashSet<>();
+        StringBuilder reason = new StringBuilder("本轮共 ").append(group.size()).append(" 条告警：");
+        for (AiAlertRequest alert : group) {
+            symbols.add(alert.getSymbol());
+            if (abs(alert.getChange()).compareTo(abs(strongest.getChange())) > 0) {
+                strongest = alert;
+            }
+            reason.append('\n').append(alert.getSymbol())
+                    .append(" 当前价 ").append(alert.getPrice() != null ? alert.getPrice().toPlainString() : "-")
+                    .append("：").append(alert.getReason() != null ? alert.getReason() : "");
+        }
+        return AiAlertRequest.builder()
+                .symbol(String.join(",", symbols))
+                .price(strongest.getPrice())
+                .change(strongest.getChange())
+                .reason(reason.toString())
+                .webhookUrl(strongest.getWebhookUrl())
+                .build();
+    }
+
+    private static BigDecimal abs(BigDecimal value) {
+        return value != null ? value.abs() : BigDecimal.ZERO;
+    }
+
+    /**
+     * 退避等待中的重试任务
+     *
+     * <p>登记在 {@link #pendingRetries} 中，到期执行与关闭时写入死信以"从集合中移除成功"为准，
+     * 每条消息只会被其中一方处理。</p>
+     */
+    private final class PendingRetry implements Runnable {
+
+        private final Delivery delivery;
+
+        PendingRetry(Delivery delivery) {
+            this.delivery = delivery;
+        }
+
+        @Override
+        public void run() {
+            if (pendingRetries.remove(this)) {
+                enqueue(delivery);
+            }
+        }
+    }
+
+    /**
+     * 一条待投递消息
+     *
+     * @param request    合并后的告警请求
+     * @param attempt    已失败的投递次数
+     * @param enqueuedAt 首次入队时间（毫秒），用于统计端到端延迟
+     */
+    private record Delivery(AiAlertRequest request, int attempt, long enqueuedAt) {
+
+        Delivery retry() {
+            return new Delivery(request, attempt + 1, enqueuedAt);
+        }
+    }
+}
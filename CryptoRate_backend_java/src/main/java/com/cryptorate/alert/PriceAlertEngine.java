@@ -0,0 +1,414 @@
+package com.cryptorate.alert;
+
+import com.cryptorate.cache.SymbolRegistry;
+import com.cryptorate.dto.AiAlertRequest;
+import com.cryptorate.entity.PriceAlert;
+import com.cryptorate.entity.User;
+import com.cryptorate.event.AlertRuleChangedEvent;
+import com.cryptorate.event.PriceAlertFiredEvent;
+import com.cryptorate.ingest.RateColumns;
+import com.cryptorate.mapper.PriceAlertMapper;
+import com.cryptorate.mapper.UserMapper;
+import com.cryptorate.service.FeishuAlertService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 内存价格告警引擎
+ *
+ * <p>
+ * 将全部 ACTIVE 状态的 crypto_price_alert 规则常驻内存，按币种 ID 为下标，每个币种维护两棵按阈值排序的树：
+ * </p>
+ * <ul>
+ * <li>PRICE_ABOVE：当前价 &gt;= 阈值即触发，取 {@code headMap(price, true)}</li>
+ * <li>PRICE_BELOW：当前价 &lt;= 阈值即触发，取 {@code tailMap(price, true)}</li>
+ * </ul>
+ * <p>
+ * 每次同步只做一次范围扫描即可找到被触发的规则，无需逐条比较，也无需按币种查询数据库。
+ * 冷却状态保存在内存中，每个周期结束后合并为一条 UPDATE 批量回写。
+ * </p>
+ *
+ * <p>
+ * 币种 ID 只查询不登记：规则的币种尚无行情（字典中没有 ID）时暂不建立索引，
+ * 等该币种的行情入库、字典登记了 ID 后，在下一次评估时补建。
+ * </p>
+ *
+ * <p>
+ * 规则的增删改通过 {@link AlertRuleChangedEvent} 同步到索引；触发的告警除了推送到飞书，
+ * 还会发布 {@link PriceAlertFiredEvent}，由 WebSocket 通道推送给在线的用户。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class PriceAlertEngine {
+
+    private static final String TYPE_PRICE_ABOVE = "PRICE_ABOVE";
+    private static final String TYPE_PRICE_BELOW = "PRICE_BELOW";
+    private static final String STATUS_ACTIVE = "ACTIVE";
+    private static final String STATUS_DISABLED = "DISABLED";
+
+    /** 未设置冷却时间时的默认值（分钟），与 AlertRuleServiceImpl 保持一致 */
+    private static final int DEFAULT_COOLDOWN_MINUTES = 60;
+
+    private final PriceAlertMapper alertMapper;
+    private final UserMapper userMapper;
+    private final FeishuAlertService feishuAlertService;
+    private final SymbolRegistry symbolRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** 规则ID -> 规则 */
+    private final Map<Long, PriceAlert> rulesById = new HashMap<>();
+
+    /** 币种 ID -> 该币种的阈值索引（无规则的币种为 null） */
+    private SymbolRules[] rulesBySymbol = new SymbolRules[0];
+
+    /** 有规则的币种数量 */
+    private int indexedSymbols;
+
+    /** 规则ID -> 币种尚无 ID 的规则（等待该币种的行情入库后补建索引） */
+    private final Map<Long, PriceAlert> unresolved = new HashMap<>();
+
+    /** 上一次尝试补建索引时的字典大小，字典未增长时无需重试 */
+    private int resolvedRegistrySize;
+
+    /** 规则ID -> 最近一次触发时间（内存冷却状态） */
+    private final Map<Long, LocalDateTime> lastTriggered = new HashMap<>();
+
+    /** 尚未回写数据库的触发记录 */
+    private final Map<Long, LocalDateTime> pendingTriggers = new HashMap<>();
+
+    @Autowired
+    public PriceAlertEngine(PriceAlertMapper alertMapper,
+            UserMapper userMapper,
+            FeishuAlertService feishuAlertService,
+            SymbolRegistry symbolRegistry,
+            ApplicationEventPublisher eventPublisher) {
+        this.alertMapper = alertMapper;
+        this.userMapper = userMapper;
+        this.feishuAlertService = feishuAlertService;
+        this.symbolRegistry = symbolRegistry;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 启动时加载全部活跃规则
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("[AlertEngine] 启动时加载告警规则失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库全量重建索引
+     */
+    public synchronized void reload() {
+        List<PriceAlert> rules = alertMapper.selectAllActive();
+        rulesById.clear();
+        rulesBySymbol = new SymbolRules[symbolRegistry.size()];
+        indexedSymbols = 0;
+        unresolved.clear();
+        resolvedRegistrySize = symbolRegistry.size();
+        lastTriggered.clear();
+        if (rules != null) {
+            rules.forEach(this::index);
+        }
+        log.info("[AlertEngine] 已加载 {} 条活跃告警规则，覆盖 {} 个币种，{} 条规则的币种尚无行情",
+                rulesById.size(), indexedSymbols, unresolved.size());
+    }
+
+    /**
+     * 监听规则变更，保持索引与数据库一致
+     */
+    @EventListener
+    public void onRuleChanged(AlertRuleChangedEvent event) {
+        Long id = event.getAlertId();
+        if (id == null) {
+            return;
+        }
+        PriceAlert latest = event.getAction() == AlertRuleChangedEvent.Action.DELETED
+                ? null
+                : alertMapper.selectById(id);
+
+        synchronized (this) {
+            LocalDateTime triggeredAt = lastTriggered.get(id);
+            unindex(id);
+            if (latest != null && STATUS_ACTIVE.equals(latest.getStatus())) {
+                index(latest);
+                // 保留尚未回写数据库的内存冷却状态
+                if (triggeredAt != null && (latest.getLastTriggeredAt() == null
+                        || triggeredAt.isAfter(latest.getLastTriggeredAt()))) {
+                    lastTriggered.put(id, triggeredAt);
+                }
+            } else {
+                pendingTriggers.remove(id);
+            }
+        }
+        log.debug("[AlertEngine] 规则 {} 已同步 ({})", id, event.getAction());
+    }
+
+    /**
+     * 用最新一批汇率评估所有规则，发送告警并批量回写冷却状态
+     *
+     * <p>只为存在规则的币种把价格还原为 BigDecimal，其余行只做一次 ID 查表。</p>
+     *
+     * @param rates 本次采样的列式汇率
+     * @return 本次触发的规则数
+     */
+    public int evaluate(RateColumns rates) {
+        if (rates == null || rates.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Fired> fired = new ArrayList<>();
+
+        synchronized (this) {
+            resolvePending();
+            if (indexedSymbols == 0) {
+                return 0;
+            }
+            List<PriceAlert> candidates = new ArrayList<>();
+            for (int row = 0; row < rates.size(); row++) {
+                int symbolId = rates.symbolId(row);
+                SymbolRules rules = symbolId < rulesBySymbol.length ? rulesBySymbol[symbolId] : null;
+                if (rules == null) continue;
+
+                BigDecimal price = rates.price(row);
+                candidates.clear();
+                rules.collectTriggered(price, candidates);
+                for (PriceAlert rule : candidates) {
+                    if (isCoolingDown(rule, now)) {
+                        continue;
+                    }
+                    lastTriggered.put(rule.getId(), now);
+                    pendingTriggers.put(rule.getId(), now);
+                    fired.add(new Fired(rule, price, now));
+                }
+            }
+        }
+
+        if (!fired.isEmpty()) {
+            log.info("[AlertEngine] 本轮共触发 {} 条价格告警", fired.size());
+            dispatch(fired);
+        }
+        flush();
+        return fired.size();
+    }
+
+    /**
+     * 将内存中的触发时间批量回写数据库（同一时刻触发的规则合并为一条 UPDATE）
+     */
+    public void flush() {
+        Map<LocalDateTime, List<Long>> byTime = new HashMap<>();
+        synchronized (this) {
+            if (pendingTriggers.isEmpty()) {
+                return;
+            }
+            pendingTriggers.forEach((id, time) -> byTime.computeIfAbsent(time, t -> new ArrayList<>()).add(id));
+            pendingTriggers.clear();
+        }
+
+        for (Map.Entry<LocalDateTime, List<Long>> entry : byTime.entrySet()) {
+            try {
+                alertMapper.batchUpdateLastTriggered(entry.getValue(), entry.getKey());
+            } catch (Exception e) {
+                log.error("[AlertEngine] 回写 {} 条告警触发时间失败，将在下次重试: {}", entry.getValue().size(), e.getMessage());
+                synchronized (this) {
+                    for (Long id : entry.getValue()) {
+                        if (rulesById.containsKey(id)) {
+                            pendingTriggers.putIfAbsent(id, entry.getKey());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /** 按用户组装告警（一次查询批量加载用户 Webhook） */
+    private void dispatch(List<Fired> fired) {
+        Set<Long> userIds = new HashSet<>();
+        fired.forEach(f -> userIds.add(f.rule().getUserId()));
+
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userMapper.selectByIds(userIds)) {
+            users.put(user.getId(), user);
+        }
+
+        List<AiAlertRequest> alerts = new ArrayList<>(fired.size());
+        for (Fired f : fired) {
+            PriceAlert rule = f.rule();
+            User user = users.get(rule.getUserId());
+            if (user == null || STATUS_DISABLED.equals(user.getStatus())) {
+                continue;
+            }
+            boolean above = TYPE_PRICE_ABOVE.equals(rule.getAlertType());
+            String reason = String.format("价格告警：当前价 %s 已%s目标价 %s",
+                    f.price().toPlainString(),
+                    above ? "高于" : "低于",
+                    rule.getTargetValue().toPlainString());
+            log.info("🚀 触发告警！规则 ID: {}, 用户: {}, 当前价: {}, 目标价: {}",
+                    rule.getId(), user.getUsername(), f.price(), rule.getTargetValue());
+            alerts.add(feishuAlertService.buildPriceAlert(rule.getSymbol(), f.price(), rule.getTargetValue(),
+                    reason, user.getFeishuWebhook()));
+            try {
+                eventPublisher.publishEvent(new PriceAlertFiredEvent(rule.getId(), rule.getUserId(), rule.getSymbol(),
+                        rule.getAlertType(), rule.getTargetValue(), f.price(), reason, f.triggeredAt()));
+            } catch (Exception e) {
+                log.warn("[AlertEngine] 发布告警事件失败，规则 ID: {}: {}", rule.getId(), e.getMessage());
+            }
+        }
+        // 异步投递，同一用户 Webhook 的多条告警合并为一条消息
+        feishuAlertService.sendPriceAlerts(alerts);
+    }
+
+    private boolean isCoolingDown(PriceAlert rule, LocalDateTime now) {
+        LocalDateTime last = lastTriggered.get(rule.getId());
+        if (last == null) {
+            return false;
+        }
+        int cooldown = rule.getCooldownMinutes() != null ? rule.getCooldownMinutes() : DEFAULT_COOLDOWN_MINUTES;
+        return Duration.between(last, now).toMinutes() < cooldown;
+    }
+
+    private void index(PriceAlert rule) {
+        if (rule.getId() == null || rule.getSymbol() == null || rule.getTargetValue() == null) {
+            return;
+        }
+        String type = rule.getAlertType();
+        if (!TYPE_PRICE_ABOVE.equals(type) && !TYPE_PRICE_BELOW.equals(type)) {
+            // DROP_PERCENT 等类型不适用阈值索引
+            return;
+        }
+        rulesById.put(rule.getId(), rule);
+        if (rule.getLastTriggeredAt() != null) {
+            lastTriggered.put(rule.getId(), rule.getLastTriggeredAt());
+        }
+        int symbolId = symbolRegistry.find(rule.getSymbol());
+        if (symbolId < 0) {
+            // 币种尚无行情，既没有价格也无从触发，等行情入库后再建立索引
+            unresolved.put(rule.getId(), rule);
+            return;
+        }
+        addToSymbol(rule, symbolId);
+    }
+
+    private void addToSymbol(PriceAlert rule, int symbolId) {
+        if (symbolId >= rulesBySymbol.length) {
+            rulesBySymbol = Arrays.copyOf(rulesBySymbol, Math.max(symbolId + 1, symbolRegistry.size()));
+        }
+        if (rulesBySymbol[symbolId] == null) {
+            rulesBySymbol[symbolId] = new SymbolRules();
+            indexedSymbols++;
+        }
+        rulesBySymbol[symbolId].add(rule);
+    }
+
+    /** 字典增长后，为币种已登记 ID 的待定规则补建索引 */
+    private void resolvePending() {
+        int registrySize = symbolRegistry.size();
+        if (unresolved.isEmpty() || registrySize == resolvedRegistrySize) {
+            return;
+        }
+        resolvedRegistrySize = registrySize;
+        Iterator<PriceAlert> it = unresolved.values().iterator();
+        while (it.hasNext()) {
+            PriceAlert rule = it.next();
+            int symbolId = symbolRegistry.find(rule.getSymbol());
+            if (symbolId >= 0) {
+                it.remove();
+                addToSymbol(rule, symbolId);
+                log.debug("[AlertEngine] 币种 {} 已有行情，规则 {} 已加入索引", rule.getSymbol(), rule.getId());
+            }
+        }
+    }
+
+    private void unindex(Long id) {
+        PriceAlert rule = rulesById.remove(id);
+        lastTriggered.remove(id);
+        if (rule == null || unresolved.remove(id) != null) {
+            return;
+        }
+        int symbolId = symbolRegistry.find(rule.getSymbol());
+        SymbolRules rules = symbolId >= 0 && symbolId < rulesBySymbol.length ? rulesBySymbol[symbolId] : null;
+        if (rules != null) {
+            rules.remove(rule);
+            if (rules.isEmpty()) {
+                rulesBySymbol[symbolId] = null;
+                indexedSymbols--;
+            }
+        }
+    }
+
+    /** 单个币种的阈值索引 */
+    private static final class SymbolRules {
+
+        /** PRICE_ABOVE：阈值 -> 规则 */
+        private final TreeMap<BigDecimal, List<PriceAlert>> above = new TreeMap<>();
+
+        /** PRICE_BELOW：阈值 -> 规则 */
+        private final TreeMap<BigDecimal, List<PriceAlert>> below = new TreeMap<>();
+
+        void add(PriceAlert rule) {
+            treeOf(rule).computeIfAbsent(rule.getTargetValue(), k -> new ArrayList<>(1)).add(rule);
+        }
+
+        void remove(PriceAlert rule) {
+            TreeMap<BigDecimal, List<PriceAlert>> tree = treeOf(rule);
+            List<PriceAlert> bucket = tree.get(rule.getTargetValue());
+            if (bucket != null) {
+                bucket.removeIf(r -> r.getId().equals(rule.getId()));
+                if (bucket.isEmpty()) {
+                    tree.remove(rule.getTargetValue());
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return above.isEmpty() && below.isEmpty();
+        }
+
+        /** 范围扫描：阈值 &lt;= 价格的 ABOVE 规则 + 阈值 &gt;= 价格的 BELOW 规则 */
+        void collectTriggered(BigDecimal price, List<PriceAlert> out) {
+            above.headMap(price, true).values().forEach(out::addAll);
+            below.tailMap(price, true).values().forEach(out::addAll);
+        }
+
+        private TreeMap<BigDecimal, List<PriceAlert>> treeOf(PriceAlert rule) {
+            return TYPE_PRICE_ABOVE.equals(rule.getAlertType()) ? above : below;
+        }
+    }
+
+    /** 一条被触发的规则及触发时的价格与时间 */
+    private record Fired(PriceAlert rule, BigDecimal price, LocalDateTime triggeredAt) {
+    }
+}
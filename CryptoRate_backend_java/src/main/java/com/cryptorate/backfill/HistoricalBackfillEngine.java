@@ -0,0 +1,235 @@
+package com.cryptorate.backfill;
+
+import com.cryptorate.common.DaemonThreads;
+import com.cryptorate.common.TokenBucket;
+import com.cryptorate.config.CoinlayerConfig;
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.mapper.BackfillProgressMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.ToIntFunction;
+
+/**
+ * 历史汇率回补引擎
+ *
+ * <p>
+ * 将按日期逐个串行请求的回补流程改造为三段流水线：
+ * </p>
+ * <ol>
+ * <li><b>限流</b>：所有请求共享一个令牌桶，速率取自 {@code coinlayer.history-requests-per-second}</li>
+ * <li><b>并发抓取</b>：固定大小的线程池并发请求各日期，在途请求数有上限，抓取结果不会无限堆积</li>
+ * <li><b>合并写入</b>：调用线程把多个日期的结果合并成大批次写入，每批写完后登记进度</li>
+ * </ol>
+ * <p>
+ * 进度保存在 backfill_progress 表中，中断后再次执行会跳过已完成的日期；
+ * 抓取或写入失败的日期不会登记，下次执行时自动重试。今天及之后的日期数据尚不完整，
+ * 写入后也不登记为完成。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class HistoricalBackfillEngine {
+
+    private static final ThreadFactory THREAD_FACTORY = DaemonThreads.named("history-backfill-");
+
+    private final BackfillProgressMapper progressMapper;
+    private final TokenBucket rateLimiter;
+    private final int concurrency;
+    private final int batchSize;
+
+    @Autowired
+    public HistoricalBackfillEngine(BackfillProgressMapper progressMapper, CoinlayerConfig coinlayerConfig) {
+        this.progressMapper = progressMapper;
+        this.rateLimiter = new TokenBucket(coinlayerConfig.getHistoryRequestsPerSecond(),
+                coinlayerConfig.getHistoryBurst());
+        this.concurrency = Math.max(1, coinlayerConfig.getHistoryConcurrency());
+        this.batchSize = Math.max(1, coinlayerConfig.getHistoryBatchSize());
+    }
+
+    /**
+     * 执行一次回补
+     *
+     * @param jobKey  任务标识，相同标识共享进度
+     * @param dates   需要回补的日期
+     * @param fetcher 抓取单个日期数据的函数（在工作线程中调用）
+     * @param writer  写入一批数据并返回写入行数的函数（在调用线程中调用）
+     * @return 回补结果
+     */
+    public Result run(String jobKey, List<LocalDate> dates, DateFetcher fetcher,
+            ToIntFunction<List<RateHistory>> writer) {
+        Set<LocalDate> completed = new HashSet<>(progressMapper.selectCompletedDates(jobKey));
+        List<LocalDate> pending = dates.stream()
+                .filter(date -> !completed.contains(date))
+                .sorted()
+                .toList();
+        int skipped = dates.size() - pending.size();
+        log.info("[Backfill] 任务 {} 共 {} 个日期，已完成 {} 个，待回补 {} 个",
+                jobKey, dates.size(), skipped, pending.size());
+        if (pending.isEmpty()) {
+            return new Result(dates.size(), skipped, 0, 0);
+        }
+
+        long startMillis = System.currentTimeMillis();
+        Batch batch = new Batch(jobKey, writer);
+        int failed = 0;
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(concurrency, pending.size()), THREAD_FACTORY);
+        CompletionService<DateResult> completion = new ExecutorCompletionService<>(pool);
+        // 在途请求上限：抓取快于写入时让抓取等待，避免结果在内存中堆积
+        int maxInFlight = concurrency * 2;
+        int next = 0;
+        int inFlight = 0;
+        try {
+            while (next < pending.size() || inFlight > 0) {
+                while (inFlight < maxInFlight && next < pending.size()) {
+                    LocalDate date = pending.get(next++);
+                    completion.submit(() -> {
+                        rateLimiter.acquire();
+                        try {
+                            return new DateResult(date, fetcher.fetch(date), null);
+                        } catch (Exception e) {
+                            return new DateResult(date, null, e);
+                        }
+                    });
+                    inFlight++;
+                }
+
+                DateResult result = completion.take().get();
+                inFlight--;
+                if (result.error() != null) {
+                    failed++;
+                    log.error("[Backfill] 抓取 {} 失败，下次执行时重试: {}", result.date(), result.error().getMessage());
+                    continue;
+                }
+
+                batch.add(result);
+                if (batch.size() >= batchSize) {
+                    failed += batch.flush();
+                }
+            }
+            failed += batch.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[Backfill] 任务 {} 被中断，已完成的日期下次执行时跳过", jobKey);
+        } catch (ExecutionException e) {
+            // 任务内部已捕获抓取异常，只有限流等待被中断时才会走到这里
+            log.warn("[Backfill] 任务 {} 异常终止: {}", jobKey, e.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        log.info("[Backfill] 任务 {} 结束：写入 {} 条，完成 {} 个日期，失败 {} 个，耗时 {} ms",
+                jobKey, batch.rows, batch.dates, failed, System.currentTimeMillis() - startMillis);
+        return new Result(dates.size(), skipped, failed, batch.rows);
+    }
+
+    /**
+     * 抓取单个日期的数据
+     */
+    @FunctionalInterface
+    public interface DateFetcher {
+
+        /**
+         * @param date 目标日期
+         * @return 该日期的汇率记录（可为空列表）
+         * @throws Exception 抓取失败，该日期不会登记为完成
+         */
+        List<RateHistory> fetch(LocalDate date) throws Exception;
+    }
+
+    /**
+     * 回补结果
+     *
+     * @param totalDates 目标日期数
+     * @param skipped    之前已完成、本次跳过的日期数
+     * @param failed     本次失败的日期数
+     * @param rows       本次写入的行数
+     */
+    public record Result(int totalDates, int skipped, int failed, int rows) {
+    }
+
+    /** 单个日期的抓取结果，失败时 error 不为空 */
+    private record DateResult(LocalDate date, List<RateHistory> rows, Exception error) {
+    }
+
+    /** 跨日期合并的写入批次 */
+    private final class Batch {
+
+        private final String jobKey;
+        private final ToIntFunction<List<RateHistory>> writer;
+        private final List<RateHistory> buffer = new ArrayList<>();
+        private final List<LocalDate> bufferedDates = new ArrayList<>();
+
+        /** 累计写入行数 */
+        private int rows;
+
+        /** 累计完成日期数 */
+        private int dates;
+
+        Batch(String jobKey, ToIntFunction<List<RateHistory>> writer) {
+            this.jobKey = jobKey;
+            this.writer = writer;
+        }
+
+        void add(DateResult result) {
+            if (result.rows() != null) {
+                buffer.addAll(result.rows());
+            }
+            bufferedDates.add(result.date());
+        }
+
+        int size() {
+            return buffer.size();
+        }
+
+        /**
+         * 写入缓冲区并登记进度
+         *
+         * @return 写入失败的日期数
+         */
+        int flush() {
+            if (bufferedDates.isEmpty()) {
+                return 0;
+            }
+            try {
+                if (!buffer.isEmpty()) {
+                    rows += writer.applyAsInt(new ArrayList<>(buffer));
+                }
+                // 今天及之后的数据尚不完整，不登记为完成，下次执行时重新抓取
+                LocalDate today = LocalDate.now();
+                List<LocalDate> finished = bufferedDates.stream()
+                        .filter(date -> date.isBefore(today))
+                        .toList();
+                if (!finished.isEmpty()) {
+                    progressMapper.batchMarkCompleted(jobKey, finished);
+                }
+                dates += finished.size();
+                log.debug("[Backfill] 写入 {} 条，覆盖 {} 个日期", buffer.size(), bufferedDates.size());
+                return 0;
+            } catch (Exception e) {
+                log.error("[Backfill] 写入 {} 个日期的数据失败，下次执行时重试: {}", bufferedDates.size(), e.getMessage());
+                return bufferedDates.size();
+            } finally {
+                buffer.clear();
+                bufferedDates.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package com.cryptorate.briefing;
+
+import com.cryptorate.common.DaemonThreads;
+import com.cryptorate.common.TokenBucket;
+import com.cryptorate.config.BriefingConfig;
+import com.cryptorate.entity.DailyBriefingRun;
+import com.cryptorate.entity.User;
+import com.cryptorate.mapper.DailyBriefingMapper;
+import com.cryptorate.mapper.UserMapper;
+import com.cryptorate.service.FeishuAlertService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * AI 每日简报并发推送
+ *
+ * <p>
+ * 替代逐个用户串行调用 {@code sendMarketBriefing}：订阅用户增多后，串行推送的总耗时随用户数线性增长，
+ * 单个 Webhook 超时会拖住后面所有用户；推送中途重启则要么整批重发、要么剩余用户收不到。
+ * </p>
+ *
+ * <h3>实现要点：</h3>
+ * <ul>
+ * <li><b>一次序列化</b>：简报内容与生成时间对所有用户相同，卡片消息体只构造并序列化为字节数组一次，
+ * 每个请求直接写出同一份字节</li>
+ * <li><b>并发与配额</b>：固定大小的线程池并发投递；同一 Webhook 主机共享一个限流器
+ * （并发信号量 + {@link TokenBucket}），不会因为并发推送触发飞书的频率限制</li>
+ * <li><b>重试</b>：HTTP 429 / 5xx、网络异常以及飞书返回的限流错误码按指数退避重试，
+ * 其余错误（如 Webhook 失效、签名校验失败）直接记为失败</li>
+ * <li><b>可续推</b>：当天的简报内容保存在 daily_briefing_run，每个用户的投递结果登记在 daily_briefing_delivery；
+ * 重启后用同一份内容继续推送，已投递成功的用户不会重复收到</li>
+ * <li><b>统计</b>：记录每个用户从本批次开始到投递完成（成功或最终失败）的耗时分布，可通过 {@link #getStats()} 查看</li>
+ * <li><b>单次执行</b>：同一时刻只允许一次推送，已有推送进行中时新的调用立即返回 ALREADY_RUNNING，不排队等待；
+ * 管理端通过 {@link #start} 在后台线程执行，请求立即返回</li>
+ * </ul>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class DailyBriefingFanout {
+
+    /** 完成耗时直方图的桶上界（秒） */
+    private static final long[] COMPLETION_BUCKETS_SECONDS = {1, 5, 10, 30, 60, 120, 300, 600, 1800, 3600};
+
+    /** 飞书自定义机器人的限流错误码，稍后重试即可成功 */
+    private static final Set<Integer> FEISHU_RETRYABLE_CODES = Set.of(9499, 11232);
+
+    /** 错误信息的最大长度，与表字段一致 */
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final DailyBriefingMapper briefingMapper;
+    private final UserMapper userMapper;
+    private final FeishuAlertService feishuAlertService;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final BriefingConfig config;
+
+    private final ExecutorService workers;
+
+    /** 执行 {@link #start} 提交的推送，与投递线程池分开，避免等待投递时占用投递线程 */
+    private final ExecutorService coordinator;
+
+    /** 是否有推送正在进行 */
+    private final AtomicBoolean inProgress = new AtomicBoolean();
+
+    /** 正在推送的简报日期 */
+    private volatile LocalDate runningDate;
+
+    /** Webhook 主机 -> 限流器 */
+    private final Map<String, HostLimiter> hostLimiters = new ConcurrentHashMap<>();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+
+    /** 最近一次执行的完成耗时直方图，每次执行重新创建 */
+    private volatile AtomicLongArray completion = new AtomicLongArray(COMPLETION_BUCKETS_SECONDS.length + 1);
+
+    private volatile LocalDate lastDate;
+    private volatile long lastRunAt;
+    private volatile long lastDurationMs;
+    private volatile int lastUsers;
+    private volatile int lastSkipped;
+    private volatile int lastPayloadBytes;
+    private final AtomicInteger lastSent = new AtomicInteger();
+    private final AtomicInteger lastFailed = new AtomicInteger();
+    private final AtomicLong lastMaxCompletionMs = new AtomicLong();
+
+    @Autowired
+    public DailyBriefingFanout(DailyBriefingMapper briefingMapper, UserMapper userMapper,
+            FeishuAlertService feishuAlertService, RestTemplate restTemplate, ObjectMapper objectMapper,
+            BriefingConfig config) {
+        this.briefingMapper = briefingMapper;
+        this.userMapper = userMapper;
+        this.feishuAlertService = feishuAlertService;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, config.getWorkers()), DaemonThreads.named("briefing-"));
+        this.coordinator = Executors.newSingleThreadExecutor(DaemonThreads.named("briefing-run-"));
+    }
+
+    /**
+     * 推送指定日期的简报
+     *
+     * <p>当天尚未生成时通过 {@code contentLoader} 获取内容并登记批次；已登记时沿用已保存的内容，
+     * 只推送尚未投递成功的用户。</p>
+     *
+     * @param date          简报日期
+     * @param contentLoader 简报内容来源（仅在当天首次执行时调用）
+     * @param force         为 true 时即使当天已完成也重新推送投递失败的用户
+     * @return 本次执行结果；已有推送进行中时立即返回 ALREADY_RUNNING
+     */
+    public Map<String, Object> run(LocalDate date, Supplier<String> contentLoader, boolean force) {
+        if (!inProgress.compareAndSet(false, true)) {
+            return alreadyRunning(date);
+        }
+        runningDate = date;
+        try {
+            return execute(date, contentLoader, force);
+        } finally {
+            inProgress.set(false);
+        }
+    }
+
+    /**
+     * 在后台线程推送指定日期的简报，立即返回
+     *
+     * <p>执行过程与结果通过 {@link #getStats()} 查看。</p>
+     *
+     * @param date          简报日期
+     * @param contentLoader 简报内容来源（仅在当天首次执行时调用）
+     * @param force         为 true 时即使当天已完成也重新推送投递失败的用户
+     * @return STARTED，已有推送进行中时为 ALREADY_RUNNING
+     */
+    public Map<String, Object> start(LocalDate date, Supplier<String> contentLoader, boolean force) {
+        if (!inProgress.compareAndSet(false, true)) {
+            return alreadyRunning(date);
+        }
+        runningDate = date;
+        try {
+            coordinator.execute(() -> {
+                try {
+                    execute(date, contentLoader, force);
+                } catch (Exception e) {
+                    log.error("[每日简报] 后台推送 {} 的简报时发生异常", date, e);
+                } finally {
+                    inProgress.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inProgress.set(false);
+            throw e;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("date", date);
+        result.put("status", "STARTED");
+        return result;
+    }
+
+    private Map<String, Object> alreadyRunning(LocalDate date) {
+        log.info("[每日简报] {} 的简报正在推送中，忽略本次触发", runningDate);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("date", date);
+        result.put("status", "ALREADY_RUNNING");
+        result.put("runningDate", runningDate);
+        return result;
+    }
+
+    private Map<String, Object> execute(LocalDate date, Supplier<String> contentLoader, boolean force) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("date", date);
+
+        DailyBriefingRun run = briefingMapper.selectRun(date);
+        if (run != null && DailyBriefingRun.STATUS_COMPLETED.equals(run.getStatus()) && !force) {
+            log.info("[每日简报] {} 的简报已推送完成，跳过", date);
+            result.put("status", "SKIPPED");
+            return result;
+        }
+
+        List<User> users = userMapper.selectUsersWithDailyBriefingEnabled();
+        if (users.isEmpty()) {
+            log.info("[每日简报] 当前没有订阅用户，跳过执行");
+            result.put("status", "NO_SUBSCRIBERS");
+            return result;
+        }
+
+        if (run == null) {
+            run = createRun(date, contentLoader);
+            if (run == null) {
+                result.put("status", "NO_CONTENT");
+                return result;
+            }
+        }
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(
+                    feishuAlertService.buildMarketBriefingCard(run.getContent(), run.getStartedAt()));
+        } catch (Exception e) {
+            log.error("[每日简报] 序列化简报卡片失败: {}", e.getMessage(), e);
+            result.put("status", "ERROR");
+            result.put("error", e.getMessage());
+            return result;
+        }
+
+        Set<Long> delivered = new HashSet<>(briefingMapper.selectDeliveredUserIds(date));
+        List<User> pending = new ArrayList<>(users.size());
+        for (User user : users) {
+            if (!delivered.contains(user.getId())) {
+                pending.add(user);
+            }
+        }
+        int skipped = users.size() - pending.size();
+
+        beginStats(date, users.size(), skipped, payload.length);
+        run.setStatus(DailyBriefingRun.STATUS_RUNNING);
+        run.setUserTotal(users.size());
+        run.setDelivered(skipped);
+        run.setFailed(0);
+        run.setFinishedAt(null);
+        briefingMapper.updateRunProgress(run);
+        log.info("[每日简报] 开始推送 {} 的简报：订阅用户 {} 名，已投递 {} 名，本次推送 {} 名，消息体 {} 字节",
+                date, users.size(), skipped, pending.size(), payload.length);
+
+        long start = System.nanoTime();
+        try {
+            fanOut(date, pending, payload, start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[每日简报] 推送被中断，未完成的用户将在下次启动时继续推送");
+            result.put("status", "INTERRUPTED");
+            return result;
+        } finally {
+            lastDurationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+
+        run.setStatus(DailyBriefingRun.STATUS_COMPLETED);
+        run.setDelivered(skipped + lastSent.get());
+        run.setFailed(lastFailed.get());
+        run.setFinishedAt(LocalDateTime.now());
+        briefingMapper.updateRunProgress(run);
+
+        result.put("status", run.getStatus());
+        result.put("users", users.size());
+        result.put("skipped", skipped);
+        result.put("sent", lastSent.get());
+        result.put("failed", lastFailed.get());
+        result.put("durationMs", lastDurationMs);
+        log.info("[每日简报] 推送完成: {}", result);
+        return result;
+    }
+
+    /**
+     * @param date 简报日期
+     * @return 该日期的批次是否仍处于推送中（上次推送被重启打断）
+     */
+    public boolean isUnfinished(LocalDate date) {
+        DailyBriefingRun run = briefingMapper.selectRun(date);
+        return run != null && DailyBriefingRun.STATUS_RUNNING.equals(run.getStatus());
+    }
+
+    /**
+     * @return 累计统计与最近一次执行的完成耗时分布
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", inProgress.get());
+        stats.put("runs", runs.sum());
+        stats.put("sent", sent.sum());
+        stats.put("failed", failed.sum());
+        stats.put("retried", retried.sum());
+
+        Map<String, Object> last = new LinkedHashMap<>();
+        last.put("date", lastDate);
+        last.put("startedAt", lastRunAt);
+        last.put("durationMs", lastDurationMs);
+        last.put("users", lastUsers);
+        last.put("skipped", lastSkipped);
+        last.put("sent", lastSent.get());
+        last.put("failed", lastFailed.get());
+        last.put("payloadBytes", lastPayloadBytes);
+        last.put("maxCompletionMs", lastMaxCompletionMs.get());
+        AtomicLongArray buckets = completion;
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < COMPLETION_BUCKETS_SECONDS.length; i++) {
+            histogram.put("le" + COMPLETION_BUCKETS_SECONDS[i], buckets.get(i));
+        }
+        histogram.put("gt" + COMPLETION_BUCKETS_SECONDS[COMPLETION_BUCKETS_SECONDS.length - 1],
+                buckets.get(COMPLETION_BUCKETS_SECONDS.length));
+        last.put("completionSeconds", histogram);
+        stats.put("lastRun", last);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /** 获取简报内容并登记当天的批次；内容为空时返回 null */
+    private DailyBriefingRun createRun(LocalDate date, Supplier<String> contentLoader) {
+        String content = contentLoader.get();
+        if (content == null || content.isEmpty()) {
+            log.warn("[每日简报] 获取简报内容为空，任务取消");
+            return null;
+        }
+        DailyBriefingRun run = new DailyBriefingRun();
+        run.setBriefingDate(date);
+        run.setContent(content);
+        run.setStatus(DailyBriefingRun.STATUS_RUNNING);
+        run.setUserTotal(0);
+        run.setDelivered(0);
+        run.setFailed(0);
+        run.setStartedAt(LocalDateTime.now().withNano(0));
+        if (briefingMapper.insertRun(run) == 0) {
+            // 其他实例已登记当天的批次，沿用它的内容，保证所有用户收到同一份简报
+            return briefingMapper.selectRun(date);
+        }
+        return run;
+    }
+
+    private void fanOut(LocalDate date, List<User> pending, byte[] payload, long start) throws InterruptedException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<byte[]> entity = new HttpEntity<>(payload, headers);
+
+        CountDownLatch done = new CountDownLatch(pending.size());
+        for (User user : pending) {
+            workers.execute(() -> {
+                try {
+                    deliver(date, user, entity, start);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    /** 向单个用户投递（含重试），并登记结果 */
+    private void deliver(LocalDate date, User user, HttpEntity<byte[]> entity, long start) {
+        String webhook = user.getFeishuWebhook();
+        Attempt attempt;
+        int attempts = 0;
+        try {
+            HostLimiter limiter = limiterFor(webhook);
+            while (true) {
+                attempts++;
+                limiter.acquire();
+                try {
+                    attempt = send(webhook, entity);
+                } finally {
+                    limiter.release();
+                }
+                if (attempt.sent() || !attempt.retryable() || attempts >= config.getMaxAttempts()) {
+                    break;
+                }
+                retried.increment();
+                TimeUnit.MILLISECONDS.sleep(config.getRetryBackoffMs() << Math.min(attempts - 1, 10));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (IllegalArgumentException e) {
+            attempt = new Attempt(false, false, "Webhook 地址无效: " + e.getMessage());
+        }
+
+        recordCompletion(start);
+        if (attempt.sent()) {
+            sent.increment();
+            lastSent.incrementAndGet();
+        } else {
+            failed.increment();
+            lastFailed.incrementAndGet();
+            log.warn("[每日简报] 推送给用户 {} 失败（{} 次尝试）: {}", user.getUsername(), attempts, attempt.error());
+        }
+        try {
+            String error = attempt.error() != null && attempt.error().length() > MAX_ERROR_LENGTH
+                    ? attempt.error().substring(0, MAX_ERROR_LENGTH) : attempt.error();
+            briefingMapper.upsertDelivery(date, user.getId(), attempt.sent() ? "SENT" : "FAILED", attempts, error);
+        } catch (Exception e) {
+            log.error("[每日简报] 登记用户 {} 的投递结果失败: {}", user.getUsername(), e.getMessage());
+        }
+    }
+
+    /** 发送一次请求；飞书在 HTTP 200 的响应体中以 code（旧版为 StatusCode）表示业务结果 */
+    private Attempt send(String webhook, HttpEntity<byte[]> entity) {
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(webhook, HttpMethod.POST, entity, String.class);
+            int code = feishuCode(response.getBody());
+            if (code == 0) {
+                return new Attempt(true, false, null);
+            }
+            return new Attempt(false, FEISHU_RETRYABLE_CODES.contains(code),
+                    "飞书返回错误码 " + code + ": " + response.getBody());
+        } catch (HttpStatusCodeException e) {
+            int status = e.getStatusCode().value();
+            return new Attempt(false, status == 429 || status >= 500, "HTTP " + status);
+        } catch (ResourceAccessException e) {
+            return new Attempt(false, true, e.getMessage());
+        } catch (Exception e) {
+            return new Attempt(false, false, e.getMessage());
+        }
+    }
+
+    private int feishuCode(String body) {
+        if (body == null || body.isEmpty()) {
+            return 0;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            JsonNode code = node.has("code") ? node.get("code") : node.get("StatusCode");
+            return code != null ? code.asInt() : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private HostLimiter limiterFor(String webhook) {
+        String host = URI.create(webhook).getHost();
+        if (host == null) {
+            throw new IllegalArgumentException(webhook);
+        }
+        return hostLimiters.computeIfAbsent(host.toLowerCase(), h -> new HostLimiter(
+                new Semaphore(Math.max(1, config.getMaxConcurrentPerHost())),
+                new TokenBucket(config.getPermitsPerSecondPerHost(), Math.max(1, config.getMaxConcurrentPerHost()))));
+    }
+
+    private void beginStats(LocalDate date, int users, int skipped, int payloadBytes) {
+        runs.increment();
+        lastDate = date;
+        lastRunAt = System.currentTimeMillis();
+        lastDurationMs = 0;
+        lastUsers = users;
+        lastSkipped = skipped;
+        lastPayloadBytes = payloadBytes;
+        lastSent.set(0);
+        lastFailed.set(0);
+        lastMaxCompletionMs.set(0);
+        completion = new AtomicLongArray(COMPLETION_BUCKETS_SECONDS.length + 1);
+    }
+
+    private void recordCompletion(long start) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastMaxCompletionMs.accumulateAndGet(millis, Math::max);
+        int i = 0;
+        while (i < COMPLETION_BUCKETS_SECONDS.length && millis > TimeUnit.SECONDS.toMillis(COMPLETION_BUCKETS_SECONDS[i])) {
+            i++;
+        }
+        completion.incrementAndGet(i);
+    }
+
+    /**
+     * 同一 Webhook 主机的限流器
+     *
+     * @param concurrency 同时进行的请求数
+     * @param rate        每秒请求数
+     */
+    private record HostLimiter(Semaphore concurrency, TokenBucket rate) {
+
+        void acquire() throws InterruptedException {
+            rate.acquire();
+            concurrency.acquire();
+        }
+
+        void release() {
+            concurrency.release();
+        }
+    }
+
+    /**
+     * 一次投递的结果
+     *
+     * @param sent      是否成功
+     * @param retryable 失败时是否值得重试
+     * @param error     失败原因
+     */
+    private record Attempt(boolean sent, boolean retryable, String error) {
+    }
+}
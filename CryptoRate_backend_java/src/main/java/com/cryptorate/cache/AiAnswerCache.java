@@ -0,0 +1,256 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.config.AiCacheConfig;
+import com.cryptorate.dto.AiAskResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * AI 问答结果缓存
+ *
+ * <p>
+ * Python AI 服务每次问答都要走一遍检索与大模型生成，耗时以秒计；而「BTC 今天怎么样」这类热门问题
+ * 在两次汇率同步之间的答案并无差别。本类缓存成功的回答，并合并同时到达的相同问题。
+ * </p>
+ *
+ * <h3>实现要点：</h3>
+ * <ul>
+ * <li><b>键</b>：规范化后的问题文本 + 当前汇率快照版本号。规范化包括 NFKC（全角转半角）、转小写、
+ * 合并连续空白、去掉结尾的标点；发布新快照后旧回答自然失效</li>
+ * <li><b>淘汰</b>：超过有效期的回答在读取时丢弃，条目数超过上限时淘汰最久未使用的</li>
+ * <li><b>合并</b>：同一个键同时只向上游发起一次请求，其余请求等待并共享结果（失败结果也共享，但不缓存）</li>
+ * <li><b>统计</b>：命中、合并、上游调用次数与命中率，可通过 {@link #getStats()} 查看</li>
+ * </ul>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class AiAnswerCache {
+
+    /** 连续空白 */
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** 结尾的标点（NFKC 之后全角标点已转为半角，只剩中文句号等） */
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\s?!.。~…]+$");
+
+    private final LatestRateStore latestRateStore;
+    private final AiCacheConfig config;
+
+    /** 键 -> 回答（按访问顺序，超过上限时淘汰最久未使用的） */
+    private final LinkedHashMap<String, Entry> answers = new LinkedHashMap<>(64, 0.75f, true);
+
+    /** 键 -> 正在进行的上游请求 */
+    private final Map<String, CompletableFuture<AiAskResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    @Autowired
+    public AiAnswerCache(LatestRateStore latestRateStore, AiCacheConfig config) {
+        this.latestRateStore = latestRateStore;
+        this.config = config;
+    }
+
+    /**
+     * 计算问题的缓存键
+     *
+     * @param question 用户的问题
+     * @return 规范化的问题文本 + 当前快照版本号
+     */
+    public String key(String question) {
+        String text = Normalizer.normalize(question == null ? "" : question, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT);
+        text = WHITESPACE.matcher(text.trim()).replaceAll(" ");
+        text = TRAILING_PUNCTUATION.matcher(text).replaceAll("");
+        return latestRateStore.current().getVersion() + ":" + text;
+    }
+
+    /**
+     * 获取问题的回答，未命中时调用 {@code loader}；同一个键的并发请求只调用一次
+     *
+     * @param question 用户的问题
+     * @param loader   上游调用，返回 code 为 200 且回答非空时写入缓存
+     * @return 回答（每次返回新的对象）
+     */
+    public AiAskResponse get(String question, Supplier<AiAskResponse> loader) {
+        String key = key(question);
+        String cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return answer(cached);
+        }
+
+        CompletableFuture<AiAskResponse> flight = new CompletableFuture<>();
+        CompletableFuture<AiAskResponse> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return copy(await(existing));
+        }
+        try {
+            // 上一次请求可能在本次检查缓存之后、登记之前完成
+            cached = lookup(key);
+            if (cached != null) {
+                hits.increment();
+                AiAskResponse response = answer(cached);
+                flight.complete(response);
+                return response;
+            }
+            misses.increment();
+            AiAskResponse response = loader.get();
+            if (isSuccess(response)) {
+                put(key, response.getAnswer());
+            }
+            flight.complete(response);
+            return copy(response);
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 查询已缓存的回答（流式问答使用），计入命中与未命中
+     *
+     * @param key {@link #key(String)} 计算的缓存键
+     * @return 回答，未命中或已过期时返回 null
+     */
+    public String getIfPresent(String key) {
+        String cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * 写入回答
+     *
+     * @param key    {@link #key(String)} 计算的缓存键（应在发起上游请求前计算）
+     * @param answer 完整的回答
+     */
+    public void put(String key, String answer) {
+        if (answer == null || answer.isEmpty() || config.getTtlSeconds() <= 0) {
+            return;
+        }
+        synchronized (answers) {
+            answers.put(key, new Entry(answer, System.currentTimeMillis()));
+            int max = Math.max(1, config.getMaxEntries());
+            Iterator<Map.Entry<String, Entry>> it = answers.entrySet().iterator();
+            while (answers.size() > max && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        }
+        stores.increment();
+        log.debug("[AiAnswerCache] 已缓存回答: {}（{} 字）", key, answer.length());
+    }
+
+    /**
+     * @return 条目数、命中、合并、上游调用次数与命中率
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hit = hits.sum();
+        long merged = coalesced.sum();
+        long miss = misses.sum();
+        long total = hit + merged + miss;
+        synchronized (answers) {
+            stats.put("entries", answers.size());
+        }
+        stats.put("inFlight", inFlight.size());
+        stats.put("hits", hit);
+        stats.put("coalesced", merged);
+        stats.put("misses", miss);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hit / total);
+        stats.put("upstreamSavedRate", total == 0 ? 0.0 : (double) (hit + merged) / total);
+        stats.put("stores", stores.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expired", expired.sum());
+        return stats;
+    }
+
+    /** 查找未过期的回答 */
+    private String lookup(String key) {
+        long ttlMs = TimeUnit.SECONDS.toMillis(Math.max(0, config.getTtlSeconds()));
+        synchronized (answers) {
+            Entry entry = answers.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - entry.storedAt() >= ttlMs) {
+                answers.remove(key);
+                expired.increment();
+                return null;
+            }
+            return entry.answer();
+        }
+    }
+
+    private static AiAskResponse await(CompletableFuture<AiAskResponse> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isSuccess(AiAskResponse response) {
+        return response != null && response.getCode() != null && response.getCode() == 200
+                && response.getAnswer() != null && !response.getAnswer().isEmpty();
+    }
+
+    private static AiAskResponse answer(String answer) {
+        AiAskResponse response = new AiAskResponse();
+        response.setCode(200);
+        response.setAnswer(answer);
+        return response;
+    }
+
+    private static AiAskResponse copy(AiAskResponse response) {
+        if (response == null) {
+            return null;
+        }
+        AiAskResponse copy = new AiAskResponse();
+        copy.setCode(response.getCode());
+        copy.setAnswer(response.getAnswer());
+        return copy;
+    }
+
+    /**
+     * 一条缓存的回答
+     *
+     * @param answer   回答内容
+     * @param storedAt 写入时间（毫秒）
+     */
+    private record Entry(String answer, long storedAt) {
+    }
+}
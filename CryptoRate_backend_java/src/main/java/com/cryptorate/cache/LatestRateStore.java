@@ -0,0 +1,175 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.mapper.RateHistoryMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 最新汇率内存存储
+ *
+ * <p>
+ * 以不可变 {@link RateSnapshot} 的形式保存每个币种的最新汇率，替代每次请求都执行的
+ * {@code selectAllLatestRates}（对整张 rate_history 做 MAX(timestamp) 相关子查询）。
+ * </p>
+ *
+ * <h3>生命周期：</h3>
+ * <ol>
+ * <li>启动时从数据库重建一次快照</li>
+ * <li>每次写入 rate_history 成功后，由同步流程调用 {@link #publish} 合并新数据并原子替换快照</li>
+ * <li>读方通过 {@link #current()} 获取快照，按币种 ID 数组下标查询，不访问数据库</li>
+ * </ol>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class LatestRateStore {
+
+    private final RateHistoryMapper rateHistoryMapper;
+    private final SymbolRegistry symbolRegistry;
+
+    /** 当前快照，写入时整体替换 */
+    private volatile RateSnapshot snapshot;
+
+    /** 是否已成功从数据库加载过 */
+    private volatile boolean loaded = false;
+
+    @Autowired
+    public LatestRateStore(RateHistoryMapper rateHistoryMapper, SymbolRegistry symbolRegistry) {
+        this.rateHistoryMapper = rateHistoryMapper;
+        this.symbolRegistry = symbolRegistry;
+        this.snapshot = new RateSnapshot(0L, new RateHistory[0], symbolRegistry);
+    }
+
+    /**
+     * 启动时从数据库重建快照
+     *
+     * <p>数据库不可用时不阻止应用启动，首次读取时会再尝试加载。</p>
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            loadIfAbsent();
+        } catch (Exception e) {
+            log.warn("[LatestRateStore] 启动时加载最新汇率失败，将在首次读取时重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取当前快照
+     *
+     * @return 当前最新汇率快照（不会为 null）
+     */
+    public RateSnapshot current() {
+        if (!loaded) {
+            loadIfAbsent();
+        }
+        return snapshot;
+    }
+
+    /** 尚未加载时从数据库重建快照（双重检查，避免并发请求重复加载） */
+    private synchronized void loadIfAbsent() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    /**
+     * 从数据库全量重建快照
+     */
+    public synchronized void reload() {
+        List<RateHistory> latest = rateHistoryMapper.selectAllLatestRates();
+        RateHistory[] rates = new RateHistory[symbolRegistry.size()];
+        if (latest != null) {
+            for (RateHistory history : latest) {
+                rates = mergeNewer(rates, history);
+            }
+        }
+        snapshot = new RateSnapshot(snapshot.getVersion() + 1, rates, symbolRegistry);
+        loaded = true;
+        log.info("[LatestRateStore] 已从数据库加载 {} 个币种的最新汇率，版本: {}", snapshot.size(), snapshot.getVersion());
+    }
+
+    /**
+     * 发布新写入的汇率数据
+     *
+     * <p>
+     * 在当前快照基础上合并新记录（只保留时间戳更新的记录，历史回补的旧数据不会覆盖最新价），
+     * 然后原子替换为新版本快照。没有任何币种的最新价发生变化时（例如只回补了历史数据）不产生新版本，
+     * 直接返回当前快照，以快照版本为键的各类缓存不会因此失效。
+     * </p>
+     *
+     * @param histories 刚写入数据库的汇率记录
+     * @return 发布后的快照；没有变化时为当前快照
+     */
+    public synchronized RateSnapshot publish(Collection<RateHistory> histories) {
+        if (histories == null || histories.isEmpty()) {
+            return snapshot;
+        }
+        RateHistory[] rates = snapshot.copyForUpdate(symbolRegistry.size());
+        boolean changed = false;
+        for (RateHistory history : histories) {
+            RateHistory before = slot(rates, history);
+            rates = mergeNewer(rates, history);
+            changed |= isChange(before, slot(rates, history));
+        }
+        if (!changed) {
+            return snapshot;
+        }
+        snapshot = new RateSnapshot(snapshot.getVersion() + 1, rates, symbolRegistry);
+        log.debug("[LatestRateStore] 发布最新汇率快照，版本: {}, 币种数: {}", snapshot.getVersion(), snapshot.size());
+        return snapshot;
+    }
+
+    /**
+     * 仅当新记录时间戳不早于已有记录时才覆盖，遇到新币种时登记并按需扩容
+     *
+     * @return 合并后的数组（扩容时为新数组）
+     */
+    private RateHistory[] mergeNewer(RateHistory[] rates, RateHistory history) {
+        if (history == null || history.getSymbol() == null || history.getTimestamp() == null) {
+            return rates;
+        }
+        int id = symbolRegistry.intern(history.getSymbol());
+        if (id >= rates.length) {
+            rates = Arrays.copyOf(rates, Math.max(id + 1, symbolRegistry.size()));
+        }
+        RateHistory existing = rates[id];
+        if (existing == null || existing.getTimestamp() <= history.getTimestamp()) {
+            rates[id] = history;
+        }
+        return rates;
+    }
+
+    /** 记录所属币种在数组中的当前值（无效记录或越界时为 null） */
+    private RateHistory slot(RateHistory[] rates, RateHistory history) {
+        if (history == null || history.getSymbol() == null) {
+            return null;
+        }
+        int id = symbolRegistry.find(history.getSymbol());
+        return id >= 0 && id < rates.length ? rates[id] : null;
+    }
+
+    /** 合并后的值相对合并前是否有实际变化（同一时间戳、同一价格的重复写入不算变化） */
+    private static boolean isChange(RateHistory before, RateHistory after) {
+        if (before == after) {
+            return false;
+        }
+        if (before == null || after == null) {
+            return true;
+        }
+        return !before.getTimestamp().equals(after.getTimestamp())
+                || before.getRate() == null || after.getRate() == null
+                || before.getRate().compareTo(after.getRate()) != 0;
+    }
+}
+
@@ -0,0 +1,223 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.common.DaemonThreads;
+import com.cryptorate.config.CoinlayerConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coinlayer 实时汇率缓存
+ *
+ * <p>
+ * 位于 {@code getRealTimeRates} 之前，避免每个 HTTP 请求都去调用一次 Coinlayer {@code /live}。
+ * </p>
+ *
+ * <h3>缓存策略：</h3>
+ * <ul>
+ * <li><b>TTL</b>：数据在 {@code coinlayer.live-cache-ttl-seconds} 内视为新鲜，直接返回</li>
+ * <li><b>Stale-While-Revalidate</b>：过期但未超过 {@code coinlayer.live-cache-max-stale-seconds} 时，
+ * 立即返回旧数据，同时在后台刷新</li>
+ * <li><b>Single-Flight</b>：同一时刻最多只有一个上游请求，并发调用方共享同一次结果</li>
+ * <li><b>失败冷却</b>：上游请求失败后的 min(TTL, 30 秒) 内不再调用 Coinlayer：有旧数据时继续返回旧数据，
+ * 没有时直接抛出上次的异常，避免上游异常期间每个请求都消耗调用额度</li>
+ * </ul>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class LiveRateCache {
+
+    /** 失败冷却时间上限 */
+    private static final long MAX_FAILURE_BACKOFF_MILLIS = 30_000L;
+
+    private final long ttlMillis;
+    private final long maxStaleMillis;
+    private final long failureBackoffMillis;
+
+    /** 最近一次上游失败，成功后清空 */
+    private volatile Failure lastFailure;
+
+    /** 当前缓存条目，整体替换 */
+    private volatile Entry entry;
+
+    /** 正在进行中的上游请求（single-flight） */
+    private final AtomicReference<CompletableFuture<Map<String, BigDecimal>>> inFlight = new AtomicReference<>();
+
+    /** 后台刷新线程（单线程即可，single-flight 保证不会堆积） */
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(DaemonThreads.named("live-rate-refresher-"));
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+
+    @Autowired
+    public LiveRateCache(CoinlayerConfig coinlayerConfig) {
+        this.ttlMillis = coinlayerConfig.getLiveCacheTtlSeconds() * 1000L;
+        this.maxStaleMillis = Math.max(coinlayerConfig.getLiveCacheMaxStaleSeconds(),
+                coinlayerConfig.getLiveCacheTtlSeconds()) * 1000L;
+        this.failureBackoffMillis = Math.min(ttlMillis, MAX_FAILURE_BACKOFF_MILLIS);
+    }
+
+    /**
+     * 读取实时汇率
+     *
+     * @param loader 实际调用 Coinlayer 的加载函数
+     * @return 只读的汇率映射
+     */
+    public Map<String, BigDecimal> get(Supplier<Map<String, BigDecimal>> loader) {
+        Entry current = entry;
+        if (current != null) {
+            long age = System.currentTimeMillis() - current.fetchedAt;
+            if (age < ttlMillis) {
+                hits.increment();
+                return current.rates;
+            }
+            if (age < maxStaleMillis) {
+                staleHits.increment();
+                if (recentFailure() != null) {
+                    suppressed.increment();
+                } else {
+                    refreshAsync(loader);
+                }
+                return current.rates;
+            }
+        }
+        Failure failure = recentFailure();
+        if (failure != null) {
+            suppressed.increment();
+            throw failure.error;
+        }
+        return await(loader);
+    }
+
+    /**
+     * 写入一份刚从上游获取的数据（例如定时同步拿到的结果），顺便刷新缓存
+     *
+     * @param rates 汇率映射
+     * @return 缓存中保存的只读映射
+     */
+    public Map<String, BigDecimal> put(Map<String, BigDecimal> rates) {
+        Map<String, BigDecimal> copy = Collections.unmodifiableMap(new LinkedHashMap<>(rates));
+        entry = new Entry(copy, System.currentTimeMillis());
+        lastFailure = null;
+        return copy;
+    }
+
+    /**
+     * @return 缓存命中统计
+     */
+    public Map<String, Object> getStats() {
+        Entry current = entry;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("refreshFailures", refreshFailures.sum());
+        stats.put("suppressed", suppressed.sum());
+        Failure failure = lastFailure;
+        stats.put("lastFailureAt", failure != null ? failure.failedAt : null);
+        stats.put("lastError", failure != null ? failure.error.getMessage() : null);
+        stats.put("ageMs", current != null ? System.currentTimeMillis() - current.fetchedAt : null);
+        stats.put("size", current != null ? current.rates.size() : 0);
+        return stats;
+    }
+
+    /** 没有可用数据时同步等待：发起新请求或加入正在进行的请求 */
+    private Map<String, BigDecimal> await(Supplier<Map<String, BigDecimal>> loader) {
+        while (true) {
+            CompletableFuture<Map<String, BigDecimal>> running = inFlight.get();
+            if (running != null) {
+                coalesced.increment();
+                return join(running);
+            }
+            CompletableFuture<Map<String, BigDecimal>> created = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, created)) {
+                misses.increment();
+                load(loader, created);
+                return join(created);
+            }
+        }
+    }
+
+    /** 后台刷新，已有请求在途时直接跳过 */
+    private void refreshAsync(Supplier<Map<String, BigDecimal>> loader) {
+        CompletableFuture<Map<String, BigDecimal>> created = new CompletableFuture<>();
+        if (!inFlight.compareAndSet(null, created)) {
+            return;
+        }
+        created.whenComplete((rates, e) -> {
+            if (e != null) {
+                refreshFailures.increment();
+                log.warn("[LiveRateCache] 后台刷新实时汇率失败，继续使用旧数据: {}", e.getMessage());
+            }
+        });
+        refresher.execute(() -> load(loader, created));
+    }
+
+    private void load(Supplier<Map<String, BigDecimal>> loader, CompletableFuture<Map<String, BigDecimal>> future) {
+        try {
+            future.complete(put(loader.get()));
+        } catch (Throwable e) {
+            RuntimeException error = e instanceof RuntimeException runtime ? runtime
+                    : new IllegalStateException(e.getMessage(), e);
+            lastFailure = new Failure(error, System.currentTimeMillis());
+            future.completeExceptionally(error);
+        } finally {
+            inFlight.compareAndSet(future, null);
+        }
+    }
+
+    /** @return 冷却期内的最近一次失败，没有时返回 null */
+    private Failure recentFailure() {
+        Failure failure = lastFailure;
+        if (failure != null && System.currentTimeMillis() - failure.failedAt < failureBackoffMillis) {
+            return failure;
+        }
+        return null;
+    }
+
+    private Map<String, BigDecimal> join(CompletableFuture<Map<String, BigDecimal>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /** 缓存条目：数据 + 获取时间 */
+    private record Entry(Map<String, BigDecimal> rates, long fetchedAt) {
+    }
+
+    /** 上游失败：异常 + 失败时间 */
+    private record Failure(RuntimeException error, long failedAt) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.dto.AssetDTO;
+import com.cryptorate.dto.PortfolioDTO;
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.entity.UserAsset;
+import com.cryptorate.event.AssetChangedEvent;
+import com.cryptorate.mapper.UserAssetMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 投资组合估值缓存
+ *
+ * <p>
+ * 把用户持仓与内存中的最新汇率快照对照，计算每笔持仓的当前价值、相对成本的未实现盈亏以及组合汇总，
+ * 客户端不必再为了估值拉取全量实时行情自行计算。
+ * </p>
+ *
+ * <h3>实现要点：</h3>
+ * <ul>
+ * <li><b>持仓</b>：首次查询时从数据库加载，币种解析为 {@link SymbolRegistry} 的 ID 后常驻内存；
+ * 收到 {@link AssetChangedEvent} 时失效，下次查询重新加载。只查询不登记 ID，尚无行情的币种
+ * 记为 -1，估值时再查一次，该币种入库后即可计价</li>
+ * <li><b>估值</b>：按 ID 直接下标访问快照，一次遍历完成全部持仓与汇总；结果与快照版本号一起缓存，
+ * 快照未更新时直接返回，发布新快照后的首次查询只重算估值、不访问数据库</li>
+ * </ul>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class PortfolioCache {
+
+    /** 最多缓存的用户数量 */
+    private static final int MAX_ENTRIES = 10_000;
+
+    /** 价值与盈亏保留的小数位数（与 rate_history.rate 一致） */
+    private static final int VALUE_SCALE = 8;
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final UserAssetMapper userAssetMapper;
+    private final LatestRateStore latestRateStore;
+    private final SymbolRegistry symbolRegistry;
+
+    private final Map<Long, Entry> portfolios = new ConcurrentHashMap<>();
+
+    /** 失效次数：加载期间发生过失效时不缓存本次结果，避免把旧持仓写回缓存 */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public PortfolioCache(UserAssetMapper userAssetMapper, LatestRateStore latestRateStore,
+            SymbolRegistry symbolRegistry) {
+        this.userAssetMapper = userAssetMapper;
+        this.latestRateStore = latestRateStore;
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * 获取用户投资组合估值
+     *
+     * @param userId 用户ID
+     * @return 按当前快照计算的估值（调用方不应修改）
+     */
+    public PortfolioDTO get(Long userId) {
+        long generation = invalidations.get();
+        RateSnapshot snapshot = latestRateStore.current();
+        Entry entry = portfolios.get(userId);
+        if (entry != null && entry.version() == snapshot.getVersion()) {
+            return entry.valuation();
+        }
+
+        Holdings holdings = entry != null ? entry.holdings() : loadHoldings(userId);
+        PortfolioDTO valuation = value(holdings, snapshot);
+        if (portfolios.size() >= MAX_ENTRIES) {
+            // 估值过期的条目重新计算的代价最大也只是一次内存遍历，优先淘汰
+            portfolios.values().removeIf(e -> e.version() != snapshot.getVersion());
+        }
+        if (invalidations.get() == generation
+                && (portfolios.size() < MAX_ENTRIES || portfolios.containsKey(userId))) {
+            portfolios.put(userId, new Entry(holdings, snapshot.getVersion(), valuation));
+        }
+        return valuation;
+    }
+
+    /**
+     * 失效指定用户的持仓与估值
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            invalidations.incrementAndGet();
+            portfolios.remove(userId);
+        }
+    }
+
+    /**
+     * 监听资产变更
+     */
+    @EventListener
+    public void onAssetChanged(AssetChangedEvent event) {
+        invalidate(event.getUserId());
+        log.debug("[PortfolioCache] 用户 {} 的持仓缓存已失效", event.getUserId());
+    }
+
+    private Holdings loadHoldings(Long userId) {
+        List<UserAsset> assets = userAssetMapper.selectByUserId(userId);
+        int[] symbolIds = new int[assets.size()];
+        for (int i = 0; i < assets.size(); i++) {
+            symbolIds[i] = symbolRegistry.find(assets.get(i).getSymbol());
+        }
+        return new Holdings(assets.toArray(new UserAsset[0]), symbolIds);
+    }
+
+    /** 一次遍历计算全部持仓与组合汇总 */
+    private PortfolioDTO value(Holdings holdings, RateSnapshot snapshot) {
+        List<AssetDTO> items = new ArrayList<>(holdings.assets().length);
+        BigDecimal totalValue = BigDecimal.ZERO;
+        BigDecimal totalCost = BigDecimal.ZERO;
+        int unpriced = 0;
+
+        for (int i = 0; i < holdings.assets().length; i++) {
+            UserAsset asset = holdings.assets()[i];
+            BigDecimal cost = asset.getCost() != null ? asset.getCost() : BigDecimal.ZERO;
+            AssetDTO dto = new AssetDTO();
+            dto.setId(asset.getId());
+            dto.setSymbol(asset.getSymbol());
+            dto.setAmount(asset.getAmount());
+            dto.setCost(asset.getCost());
+
+            int symbolId = holdings.symbolIds()[i];
+            RateHistory latest = snapshot.get(symbolId >= 0 ? symbolId : symbolRegistry.find(asset.getSymbol()));
+            if (latest == null || latest.getRate() == null || asset.getAmount() == null) {
+                unpriced++;
+            } else {
+                BigDecimal value = asset.getAmount().multiply(latest.getRate())
+                        .setScale(VALUE_SCALE, RoundingMode.HALF_UP);
+                BigDecimal profitLoss = value.subtract(cost);
+                dto.setCurrentPrice(latest.getRate());
+                dto.setTotalValue(value);
+                dto.setProfitLoss(profitLoss);
+                dto.setProfitLossPercent(percent(profitLoss, cost));
+                totalValue = totalValue.add(value);
+                totalCost = totalCost.add(cost);
+            }
+            items.add(dto);
+        }
+
+        BigDecimal profitLoss = totalValue.subtract(totalCost);
+        PortfolioDTO portfolio = new PortfolioDTO();
+        portfolio.setAssets(Collections.unmodifiableList(items));
+        portfolio.setTotalValue(totalValue);
+        portfolio.setTotalCost(totalCost);
+        portfolio.setProfitLoss(profitLoss);
+        portfolio.setProfitLossPercent(percent(profitLoss, totalCost));
+        portfolio.setUnpricedCount(unpriced);
+        portfolio.setRateVersion(snapshot.getVersion());
+        return portfolio;
+    }
+
+    private static BigDecimal percent(BigDecimal profitLoss, BigDecimal cost) {
+        if (cost.signum() <= 0) {
+            return null;
+        }
+        return profitLoss.multiply(HUNDRED).divide(cost, 2, RoundingMode.HALF_UP);
+    }
+
+    /** 用户持仓：记录与对应的币种 ID（尚无行情的币种为 -1），构造后不再修改 */
+    private record Holdings(UserAsset[] assets, int[] symbolIds) {
+    }
+
+    /** 缓存条目：持仓 + 估值所用的快照版本 + 估值结果 */
+    private record Entry(Holdings holdings, long version, PortfolioDTO valuation) {
+    }
+}
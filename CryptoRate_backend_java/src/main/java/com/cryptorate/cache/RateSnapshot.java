@@ -0,0 +1,95 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.entity.RateHistory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 最新汇率快照（不可变）
+ *
+ * <p>
+ * 保存每个币种最新一条 {@link RateHistory}，由 {@link LatestRateStore} 整体替换发布。
+ * 读方拿到的快照在整个请求期间保持一致，不会看到"一半新一半旧"的数据。
+ * 记录按 {@link SymbolRegistry} 分配的币种 ID 存放在数组中，按代码查询只需一次字典查找和一次数组下标访问。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+public final class RateSnapshot {
+
+    /** 快照版本号，每次发布递增 */
+    private final long version;
+
+    /** 币种 ID -> 最新记录（无数据的币种为 null），构造后不再修改 */
+    private final RateHistory[] bySymbolId;
+
+    private final SymbolRegistry symbolRegistry;
+
+    /** 按币种代码排序的最新记录列表，供全量查询直接返回 */
+    private final List<RateHistory> sortedRates;
+
+    RateSnapshot(long version, RateHistory[] bySymbolId, SymbolRegistry symbolRegistry) {
+        this.version = version;
+        this.bySymbolId = bySymbolId;
+        this.symbolRegistry = symbolRegistry;
+
+        List<RateHistory> sorted = new ArrayList<>();
+        for (RateHistory history : bySymbolId) {
+            if (history != null) {
+                sorted.add(history);
+            }
+        }
+        sorted.sort((a, b) -> a.getSymbol().compareTo(b.getSymbol()));
+        this.sortedRates = Collections.unmodifiableList(sorted);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取指定币种的最新记录
+     *
+     * @param symbol 币种代码（大小写不敏感）
+     * @return 最新记录，不存在时返回 null
+     */
+    public RateHistory get(String symbol) {
+        return get(symbolRegistry.find(symbol));
+    }
+
+    /**
+     * 获取指定币种的最新记录
+     *
+     * @param symbolId 币种 ID
+     * @return 最新记录，不存在时返回 null
+     */
+    public RateHistory get(int symbolId) {
+        return symbolId >= 0 && symbolId < bySymbolId.length ? bySymbolId[symbolId] : null;
+    }
+
+    /**
+     * @return 按币种排序的最新记录只读列表
+     */
+    public List<RateHistory> getSortedRates() {
+        return sortedRates;
+    }
+
+    public int size() {
+        return sortedRates.size();
+    }
+
+    public boolean isEmpty() {
+        return sortedRates.isEmpty();
+    }
+
+    /** 复制底层数组供下一版本修改，长度至少为 minLength */
+    RateHistory[] copyForUpdate(int minLength) {
+        RateHistory[] copy = new RateHistory[Math.max(minLength, bySymbolId.length)];
+        System.arraycopy(bySymbolId, 0, copy, 0, bySymbolId.length);
+        return copy;
+    }
+}
@@ -0,0 +1,331 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.common.R;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预编码响应体缓存
+ *
+ * <p>
+ * 最新汇率、币种列表、统计摘要等接口的结果只随快照版本变化，两次同步之间所有用户拿到的内容完全相同。
+ * 本类把 {@code R.ok(data)} 按键与版本号编码为字节数组缓存起来，命中时直接写出字节，不再经过 Jackson。
+ * </p>
+ *
+ * <h3>实现要点：</h3>
+ * <ul>
+ * <li><b>编码</b>：使用关闭了缩进的 ObjectMapper 副本（日期格式、时区等其余配置不变），
+ * 超过 {@link #GZIP_MIN_BYTES} 的响应体同时预先压缩一份 gzip，请求头声明支持 gzip 时直接返回压缩后的字节</li>
+ * <li><b>版本</b>：每个条目记录编码时的版本号，版本变化或超过调用方给定的最长存活时间后，下一次请求重新编码；
+ * 同一个键与版本的并发未命中只编码一次：第一个请求在锁外取数与编码，其余请求等待并共享结果</li>
+ * <li><b>ETag</b>：由版本号与响应体内容计算（调用方也可以指定），原始与 gzip 两种表示各有一个 ETag；
+ * If-None-Match 命中任一个都返回 304</li>
+ * <li><b>容量</b>：条目数超过上限时淘汰最久未使用的条目。键中的请求参数应由调用方先校验、规范化，
+ * 避免任意输入产生大量条目；无法规范化的请求使用 {@link #serveUncached}</li>
+ * </ul>
+ * <p>缓存的响应体中 {@code timestamp} 为编码时间，而不是请求时间。</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class ResponseBodyCache {
+
+    /** 最多缓存的响应体数量 */
+    private static final int MAX_ENTRIES = 1024;
+
+    /** 小于该大小的响应体不压缩（压缩收益抵不过 gzip 头部与解压开销） */
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper compactMapper;
+
+    /** 键 -> 响应体（按访问顺序，超过上限时淘汰最久未使用的） */
+    private final LinkedHashMap<String, EncodedBody> bodies = new LinkedHashMap<>(64, 0.75f, true);
+
+    /** 键与版本 -> 正在进行的编码 */
+    private final Map<String, CompletableFuture<EncodedBody>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder uncached = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder gzipServed = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+
+    @Autowired
+    public ResponseBodyCache(ObjectMapper objectMapper) {
+        this.compactMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * 返回指定键与版本的响应，未命中时调用 {@code loader} 获取数据并编码
+     *
+     * @param key     缓存键（包含影响结果的全部请求参数）
+     * @param version 数据版本号，变化后重新编码
+     * @param loader  数据来源，返回值作为 {@code R.ok(data)} 的 data
+     * @param request 当前请求（用于 If-None-Match 与 Accept-Encoding）
+     * @return 200 预编码响应或 304
+     */
+    public ResponseEntity<byte[]> serve(String key, long version, Supplier<?> loader, WebRequest request) {
+        return serve(key, version, 0, null, loader, request);
+    }
+
+    /**
+     * 返回指定键与版本的响应，未命中时调用 {@code loader} 获取数据并编码
+     *
+     * @param key      缓存键（包含影响结果的全部请求参数）
+     * @param version  数据版本号，变化后重新编码
+     * @param maxAgeMs 条目最长存活时间（毫秒），结果还随时间变化时使用；0 表示只按版本号失效
+     * @param etag     指定的 ETag（已带引号），为 null 时由版本号与内容计算
+     * @param loader   数据来源，返回值作为 {@code R.ok(data)} 的 data
+     * @param request  当前请求（用于 If-None-Match 与 Accept-Encoding）
+     * @return 200 预编码响应或 304
+     */
+    public ResponseEntity<byte[]> serve(String key, long version, long maxAgeMs, String etag,
+            Supplier<?> loader, WebRequest request) {
+        return respond(lookup(key, version, maxAgeMs, etag, loader), request);
+    }
+
+    /**
+     * 返回不缓存的响应：编码方式、ETag 与 304 处理与缓存的响应相同，但每次都调用 {@code loader}
+     *
+     * @param loader  数据来源，返回值作为 {@code R.ok(data)} 的 data
+     * @param request 当前请求（用于 If-None-Match 与 Accept-Encoding）
+     * @return 200 响应或 304
+     */
+    public ResponseEntity<byte[]> serveUncached(Supplier<?> loader, WebRequest request) {
+        uncached.increment();
+        return respond(encode(0, null, loader.get()), request);
+    }
+
+    private ResponseEntity<byte[]> respond(EncodedBody body, WebRequest request) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (matches(ifNoneMatch, body.etag()) || matches(ifNoneMatch, body.gzipEtag()))) {
+            notModified.increment();
+            ResponseEntity.HeadersBuilder<?> builder = ResponseEntity.status(HttpStatus.NOT_MODIFIED);
+            if (body.gzip() != null) {
+                builder.varyBy(HttpHeaders.ACCEPT_ENCODING);
+            }
+            return builder.eTag(body.gzip() != null && acceptsGzip(request) ? body.gzipEtag() : body.etag()).build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache());
+        byte[] bytes;
+        if (body.gzip() != null) {
+            builder.varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(request)) {
+                gzipServed.increment();
+                builder.header(HttpHeaders.CONTENT_ENCODING, GZIP).eTag(body.gzipEtag());
+                bytes = body.gzip();
+            } else {
+                builder.eTag(body.etag());
+                bytes = body.identity();
+            }
+        } else {
+            builder.eTag(body.etag());
+            bytes = body.identity();
+        }
+        bytesServed.add(bytes.length);
+        return builder.contentLength(bytes.length).body(bytes);
+    }
+
+    /**
+     * @return 命中、合并、未命中、淘汰、不缓存、304、gzip 响应次数，写出的字节数与当前条目数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hit = hits.sum();
+        long merged = coalesced.sum();
+        long miss = misses.sum();
+        long total = hit + merged + miss;
+        synchronized (bodies) {
+            stats.put("entries", bodies.size());
+        }
+        stats.put("inFlight", inFlight.size());
+        stats.put("hits", hit);
+        stats.put("coalesced", merged);
+        stats.put("misses", miss);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hit / total);
+        stats.put("evictions", evictions.sum());
+        stats.put("uncached", uncached.sum());
+        stats.put("notModified", notModified.sum());
+        stats.put("gzipServed", gzipServed.sum());
+        stats.put("bytesServed", bytesServed.sum());
+        return stats;
+    }
+
+    /** 查找可用的条目，版本不一致或已过期时重新编码（同一个键与版本同时只编码一次） */
+    private EncodedBody lookup(String key, long version, long maxAgeMs, String etag, Supplier<?> loader) {
+        EncodedBody cached = get(key);
+        if (isFresh(cached, version, maxAgeMs)) {
+            hits.increment();
+            return cached;
+        }
+
+        String flightKey = key + "@" + version;
+        CompletableFuture<EncodedBody> flight = new CompletableFuture<>();
+        CompletableFuture<EncodedBody> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            // 上一次编码可能在本次检查之后、登记之前完成
+            cached = get(key);
+            if (isFresh(cached, version, maxAgeMs)) {
+                hits.increment();
+                flight.complete(cached);
+                return cached;
+            }
+            misses.increment();
+            EncodedBody body = encode(version, etag, loader.get());
+            put(key, body);
+            flight.complete(body);
+            return body;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private EncodedBody get(String key) {
+        synchronized (bodies) {
+            return bodies.get(key);
+        }
+    }
+
+    /** 写入条目（不覆盖更新版本的条目），超过上限时淘汰最久未使用的 */
+    private void put(String key, EncodedBody body) {
+        synchronized (bodies) {
+            EncodedBody existing = bodies.get(key);
+            if (existing != null && existing.version() > body.version()) {
+                return;
+            }
+            bodies.put(key, body);
+            Iterator<Map.Entry<String, EncodedBody>> it = bodies.entrySet().iterator();
+            while (bodies.size() > MAX_ENTRIES && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static EncodedBody await(CompletableFuture<EncodedBody> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isFresh(EncodedBody body, long version, long maxAgeMs) {
+        return body != null && body.version() == version
+                && (maxAgeMs <= 0 || System.currentTimeMillis() - body.encodedAt() < maxAgeMs);
+    }
+
+    private EncodedBody encode(long version, String etag, Object data) {
+        try {
+            byte[] identity = compactMapper.writeValueAsBytes(R.ok(data));
+            byte[] gzip = identity.length >= GZIP_MIN_BYTES ? gzip(identity) : null;
+            if (etag == null) {
+                CRC32 crc = new CRC32();
+                crc.update(identity);
+                etag = "\"" + Long.toHexString(version) + "-" + Long.toHexString(crc.getValue()) + "\"";
+            }
+            String gzipEtag = etag.substring(0, etag.length() - 1) + "-gz\"";
+            log.debug("[ResponseBodyCache] 已编码响应体: 版本 {}, {} 字节, gzip {} 字节",
+                    version, identity.length, gzip != null ? gzip.length : "-");
+            return new EncodedBody(version, System.currentTimeMillis(), identity, gzip, etag, gzipEtag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    /** 请求头 Accept-Encoding 是否接受 gzip（q=0 表示明确拒绝） */
+    private static boolean acceptsGzip(WebRequest request) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (String part : header.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (GZIP.equalsIgnoreCase(tokens[0].trim())) {
+                return tokens.length < 2 || !tokens[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /** If-None-Match 是否包含指定 ETag（按弱比较，忽略 W/ 前缀） */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 某一版本的预编码响应体（不可变）
+     *
+     * @param version   编码时的数据版本号
+     * @param encodedAt 编码时间（毫秒）
+     * @param identity  未压缩的 JSON 字节
+     * @param gzip      gzip 压缩后的字节，响应体较小时为 null
+     * @param etag      未压缩表示的 ETag
+     * @param gzipEtag  gzip 表示的 ETag
+     */
+    private record EncodedBody(long version, long encodedAt, byte[] identity, byte[] gzip,
+            String etag, String gzipEtag) {
+    }
+}
@@ -0,0 +1,289 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.mapper.RateHistoryMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 滚动窗口统计存储
+ *
+ * <p>
+ * 为每个币种维护 24h / 7d / 30d 三个滚动窗口的 min、max、sum、count、first、last，
+ * 替代 {@code StatsServiceImpl} 每次请求执行的 MAX / MIN / AVG / 范围扫描四次查询。
+ * </p>
+ *
+ * <h3>实现要点：</h3>
+ * <ul>
+ * <li>每个窗口用一个按时间排序的点队列 + 两个单调队列（递增队列求 min、递减队列求 max），
+ * 追加与过期淘汰均摊 O(1)</li>
+ * <li>币种首次被查询时从数据库加载最近 30 天数据，之后由同步流程 {@link #append} 增量更新</li>
+ * <li>各币种的统计按 {@link SymbolRegistry} 分配的 ID 存放在数组中，查询与追加不做字符串哈希</li>
+ * <li>收到乱序数据（如历史回补）时丢弃该币种的窗口，下次查询时重新从数据库加载</li>
+ * </ul>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class RollingStatsStore {
+
+    /** 24 小时窗口（秒） */
+    public static final long WINDOW_24H = 24 * 3600L;
+
+    /** 7 天窗口（秒） */
+    public static final long WINDOW_7D = 7 * 24 * 3600L;
+
+    /** 30 天窗口（秒） */
+    public static final long WINDOW_30D = 30 * 24 * 3600L;
+
+    private static final long[] WINDOWS = {WINDOW_24H, WINDOW_7D, WINDOW_30D};
+
+    private final RateHistoryMapper rateHistoryMapper;
+    private final SymbolRegistry symbolRegistry;
+
+    /** 币种 ID -> 滚动统计；元素的写入与数组扩容都在 {@code this} 锁内进行 */
+    private volatile AtomicReferenceArray<SymbolStats> bySymbol = new AtomicReferenceArray<>(0);
+
+    @Autowired
+    public RollingStatsStore(RateHistoryMapper rateHistoryMapper, SymbolRegistry symbolRegistry) {
+        this.rateHistoryMapper = rateHistoryMapper;
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * 获取指定币种在指定窗口内的统计
+     *
+     * @param symbol        币种代码（大小写不敏感）
+     * @param windowSeconds 窗口长度，取 {@link #WINDOW_24H} / {@link #WINDOW_7D} / {@link #WINDOW_30D}
+     * @return 窗口统计，窗口内无数据时 count 为 0
+     */
+    public Summary summary(String symbol, long windowSeconds) {
+        int id = symbolRegistry.find(symbol);
+        if (id < 0) {
+            // 未登记的币种在 rate_history 中没有数据
+            return Summary.EMPTY;
+        }
+        SymbolStats stats = statsOf(id);
+        long now = Instant.now().getEpochSecond();
+        synchronized (stats) {
+            if (!stats.loaded) {
+                if (!load(symbolRegistry.symbol(id), stats, now)) {
+                    // 无数据的币种不常驻内存，避免任意关键词撑大缓存
+                    remove(id, stats);
+                    return Summary.EMPTY;
+                }
+            }
+            RollingWindow window = stats.windows[indexOf(windowSeconds)];
+            window.evict(now - windowSeconds);
+            return window.summary();
+        }
+    }
+
+    /**
+     * 追加刚写入数据库的数据点
+     *
+     * <p>只更新已加载过的币种；未加载的币种在首次查询时会从数据库读到这些数据。</p>
+     *
+     * @param histories 新写入的汇率记录
+     */
+    public void append(Collection<RateHistory> histories) {
+        if (histories == null) {
+            return;
+        }
+        for (RateHistory history : histories) {
+            if (history.getSymbol() == null || history.getRate() == null || history.getTimestamp() == null) {
+                continue;
+            }
+            int id = symbolRegistry.find(history.getSymbol());
+            AtomicReferenceArray<SymbolStats> current = bySymbol;
+            SymbolStats stats = id >= 0 && id < current.length() ? current.get(id) : null;
+            if (stats == null) {
+                continue;
+            }
+            synchronized (stats) {
+                if (stats.loaded) {
+                    stats.add(history.getTimestamp(), history.getRate());
+                }
+            }
+        }
+    }
+
+    /** 获取或创建币种的统计对象 */
+    private SymbolStats statsOf(int id) {
+        AtomicReferenceArray<SymbolStats> current = bySymbol;
+        SymbolStats stats = id < current.length() ? current.get(id) : null;
+        if (stats != null) {
+            return stats;
+        }
+        synchronized (this) {
+            current = bySymbol;
+            if (id >= current.length()) {
+                AtomicReferenceArray<SymbolStats> grown =
+                        new AtomicReferenceArray<>(Math.max(id + 1, symbolRegistry.size()));
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+                bySymbol = grown;
+                current = grown;
+            }
+            stats = current.get(id);
+            if (stats == null) {
+                stats = new SymbolStats();
+                current.set(id, stats);
+            }
+            return stats;
+        }
+    }
+
+    private synchronized void remove(int id, SymbolStats stats) {
+        bySymbol.compareAndSet(id, stats, null);
+    }
+
+    /** 从数据库加载最近 30 天数据，返回是否有数据 */
+    private boolean load(String symbol, SymbolStats stats, long now) {
+        List<RateHistory> points = rateHistoryMapper.selectBySymbolAndTimeRange(symbol, now - WINDOW_30D, now);
+        stats.reset();
+        for (RateHistory point : points) {
+            stats.add(point.getTimestamp(), point.getRate());
+        }
+        stats.loaded = true;
+        log.debug("[RollingStats] 已加载 {} 最近 30 天 {} 个数据点", symbol, points.size());
+        return !points.isEmpty();
+    }
+
+    private static int indexOf(long windowSeconds) {
+        for (int i = 0; i < WINDOWS.length; i++) {
+            if (WINDOWS[i] == windowSeconds) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("不支持的统计窗口: " + windowSeconds + "s");
+    }
+
+    /**
+     * 窗口统计结果
+     *
+     * @param max   最大值
+     * @param min   最小值
+     * @param sum   总和
+     * @param count 数据点数量
+     * @param first 窗口内最早的价格
+     * @param last  窗口内最新的价格
+     */
+    public record Summary(BigDecimal max, BigDecimal min, BigDecimal sum, long count,
+            BigDecimal first, BigDecimal last) {
+
+        static final Summary EMPTY = new Summary(null, null, BigDecimal.ZERO, 0, null, null);
+    }
+
+    /** 单个币种的三个窗口 */
+    private static final class SymbolStats {
+
+        private final RollingWindow[] windows = new RollingWindow[WINDOWS.length];
+
+        private boolean loaded;
+
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        SymbolStats() {
+            reset();
+        }
+
+        void reset() {
+            for (int i = 0; i < WINDOWS.length; i++) {
+                windows[i] = new RollingWindow(WINDOWS[i]);
+            }
+            lastTimestamp = Long.MIN_VALUE;
+        }
+
+        void add(long timestamp, BigDecimal rate) {
+            if (timestamp == lastTimestamp) {
+                // 同一批次的重复数据（加载与追加交错时可能出现）
+                return;
+            }
+            if (timestamp < lastTimestamp) {
+                // 乱序数据无法增量维护，丢弃后下次查询重新加载
+                reset();
+                loaded = false;
+                return;
+            }
+            lastTimestamp = timestamp;
+            Point point = new Point(timestamp, rate);
+            for (RollingWindow window : windows) {
+                window.add(point);
+            }
+        }
+    }
+
+    /** 单个滚动窗口 */
+    private static final class RollingWindow {
+
+        private final long windowSeconds;
+
+        /** 窗口内所有点（按时间递增） */
+        private final ArrayDeque<Point> points = new ArrayDeque<>();
+
+        /** 单调递增队列，队首为最小值 */
+        private final ArrayDeque<Point> minQueue = new ArrayDeque<>();
+
+        /** 单调递减队列，队首为最大值 */
+        private final ArrayDeque<Point> maxQueue = new ArrayDeque<>();
+
+        private BigDecimal sum = BigDecimal.ZERO;
+
+        RollingWindow(long windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        void add(Point point) {
+            points.addLast(point);
+            sum = sum.add(point.rate());
+            while (!minQueue.isEmpty() && minQueue.peekLast().rate().compareTo(point.rate()) > 0) {
+                minQueue.pollLast();
+            }
+            minQueue.addLast(point);
+            while (!maxQueue.isEmpty() && maxQueue.peekLast().rate().compareTo(point.rate()) < 0) {
+                maxQueue.pollLast();
+            }
+            maxQueue.addLast(point);
+            evict(point.timestamp() - windowSeconds);
+        }
+
+        /** 淘汰时间戳早于 cutoff 的点 */
+        void evict(long cutoff) {
+            while (!points.isEmpty() && points.peekFirst().timestamp() < cutoff) {
+                Point expired = points.pollFirst();
+                sum = sum.subtract(expired.rate());
+                if (minQueue.peekFirst() == expired) {
+                    minQueue.pollFirst();
+                }
+                if (maxQueue.peekFirst() == expired) {
+                    maxQueue.pollFirst();
+                }
+            }
+        }
+
+        Summary summary() {
+            if (points.isEmpty()) {
+                return Summary.EMPTY;
+            }
+            return new Summary(maxQueue.peekFirst().rate(), minQueue.peekFirst().rate(), sum, points.size(),
+                    points.peekFirst().rate(), points.peekLast().rate());
+        }
+    }
+
+    /** 数据点 */
+    private record Point(long timestamp, BigDecimal rate) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.mapper.SymbolCatalogMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 币种目录
+ *
+ * <p>
+ * 系统支持的币种列表的内存副本，对应 symbol_catalog 表。替代币种列表接口每次请求都对 rate_history
+ * 执行的 {@code SELECT DISTINCT symbol}，列表查询的开销与历史表大小无关。
+ * </p>
+ *
+ * <h3>实现要点：</h3>
+ * <ul>
+ * <li><b>加载</b>：启动时读取 symbol_catalog；目录为空（刚升级到此版本）时先从 rate_history 初始化一次</li>
+ * <li><b>维护</b>：{@code RateHistoryWriter} 每写入一批数据调用 {@link #register}，
+ * 已登记的币种按 {@link SymbolRegistry} 的 ID 查数组判断，只有出现新币种时才写表并发布新版本</li>
+ * <li><b>版本</b>：每次发布生成不可变的 {@link Listing}，携带递增版本号和由内容计算的 ETag，
+ * 内容不变时 ETag 不变（重启或多实例之间也一致），客户端可凭 If-None-Match 得到 304</li>
+ * </ul>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class SymbolCatalog {
+
+    private final SymbolCatalogMapper symbolCatalogMapper;
+    private final SymbolRegistry symbolRegistry;
+
+    /** 当前币种列表，整体替换发布 */
+    private volatile Listing listing = Listing.of(0, List.of());
+
+    /** 币种 ID -> 是否已登记在目录中，整体替换 */
+    private volatile boolean[] cataloged = new boolean[0];
+
+    private volatile boolean loaded;
+
+    @Autowired
+    public SymbolCatalog(SymbolCatalogMapper symbolCatalogMapper, SymbolRegistry symbolRegistry) {
+        this.symbolCatalogMapper = symbolCatalogMapper;
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * 启动时加载币种目录
+     *
+     * <p>数据库不可用时不阻止应用启动，首次读取时会再尝试加载。</p>
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            loadIfAbsent();
+        } catch (Exception e) {
+            log.warn("[SymbolCatalog] 启动时加载币种目录失败，将在首次读取时重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取当前币种列表
+     *
+     * @return 当前版本的币种列表（不会为 null）
+     */
+    public Listing listing() {
+        if (!loaded) {
+            loadIfAbsent();
+        }
+        return listing;
+    }
+
+    /**
+     * 登记刚写入 rate_history 的数据中出现的新币种
+     *
+     * <p>已登记的币种只做一次数组查找；登记失败不影响已写入的数据，下一批写入时会再次尝试。</p>
+     *
+     * @param written 新写入的汇率记录
+     */
+    public void register(Collection<RateHistory> written) {
+        if (written == null || written.isEmpty()) {
+            return;
+        }
+        try {
+            if (!loaded) {
+                loadIfAbsent();
+            }
+            List<RateHistory> fresh = filterUncataloged(written);
+            if (fresh.isEmpty()) {
+                return;
+            }
+            synchronized (this) {
+                fresh = filterUncataloged(fresh);
+                if (fresh.isEmpty()) {
+                    return;
+                }
+                symbolCatalogMapper.batchInsertIgnore(fresh);
+                List<String> symbols = new ArrayList<>(listing.symbols());
+                for (RateHistory history : fresh) {
+                    symbols.add(symbolRegistry.canonical(history.getSymbol()));
+                }
+                publish(symbols);
+                log.info("[SymbolCatalog] 新增 {} 个币种，当前共 {} 个，版本: {}",
+                        fresh.size(), symbols.size(), listing.version());
+            }
+        } catch (Exception e) {
+            log.warn("[SymbolCatalog] 登记新币种失败，将在下次写入时重试: {}", e.getMessage());
+        }
+    }
+
+    /** 尚未加载时从数据库加载（双重检查，避免并发请求重复加载） */
+    private synchronized void loadIfAbsent() {
+        if (loaded) {
+            return;
+        }
+        List<String> symbols = symbolCatalogMapper.selectAllSymbols();
+        if (symbols.isEmpty()) {
+            int rows = symbolCatalogMapper.initFromHistory();
+            log.info("[SymbolCatalog] 币种目录为空，已从 rate_history 初始化 {} 个币种", rows);
+            if (rows > 0) {
+                symbols = symbolCatalogMapper.selectAllSymbols();
+            }
+        }
+        publish(symbols);
+        loaded = true;
+        log.info("[SymbolCatalog] 已加载 {} 个币种，版本: {}", symbols.size(), listing.version());
+    }
+
+    /** 找出尚未登记的币种，每个币种只保留第一次出现的记录 */
+    private List<RateHistory> filterUncataloged(Collection<RateHistory> histories) {
+        boolean[] known = cataloged;
+        List<RateHistory> fresh = null;
+        for (RateHistory history : histories) {
+            int id = symbolRegistry.intern(history.getSymbol());
+            if (id < known.length && known[id]) {
+                continue;
+            }
+            if (fresh == null) {
+                fresh = new ArrayList<>();
+            }
+            if (!containsSymbol(fresh, id)) {
+                fresh.add(history);
+            }
+        }
+        return fresh != null ? fresh : List.of();
+    }
+
+    private boolean containsSymbol(List<RateHistory> histories, int id) {
+        for (RateHistory history : histories) {
+            if (symbolRegistry.find(history.getSymbol()) == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** 发布新版本（调用方持有 this 锁） */
+    private void publish(List<String> symbols) {
+        symbolRegistry.registerAll(symbols);
+        String[] sorted = new String[symbols.size()];
+        boolean[] known = new boolean[symbolRegistry.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            int id = symbolRegistry.intern(symbols.get(i));
+            sorted[i] = symbolRegistry.symbol(id);
+            known[id] = true;
+        }
+        Arrays.sort(sorted);
+        cataloged = known;
+        listing = Listing.of(listing.version() + 1, Arrays.asList(sorted));
+    }
+
+    /**
+     * 某一版本的币种列表（不可变）
+     *
+     * @param version 版本号，每次发布递增
+     * @param symbols 按字母序排列的大写币种代码
+     * @param etag    由列表内容计算的强 ETag（已带引号）
+     */
+    public record Listing(long version, List<String> symbols, String etag) {
+
+        /**
+         * 根据币种列表创建版本并计算 ETag
+         *
+         * @param version 版本号
+         * @param symbols 按字母序排列的币种代码
+         * @return 不可变列表
+         */
+        public static Listing of(long version, List<String> symbols) {
+            CRC32 crc = new CRC32();
+            for (String symbol : symbols) {
+                crc.update(symbol.getBytes(StandardCharsets.UTF_8));
+                crc.update(',');
+            }
+            String etag = "\"symbols-" + symbols.size() + "-" + Long.toHexString(crc.getValue()) + "\"";
+            return new Listing(version, Collections.unmodifiableList(new ArrayList<>(symbols)), etag);
+        }
+    }
+}
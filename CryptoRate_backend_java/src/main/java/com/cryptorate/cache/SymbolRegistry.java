@@ -0,0 +1,230 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.mapper.SymbolCatalogMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 币种字典
+ *
+ * <p>
+ * 为每个币种代码分配一个从 0 开始连续递增的 int ID。最新汇率快照、滚动统计、告警索引等内存结构
+ * 直接以 ID 作为数组下标，不再以 String 为键做哈希查找；需要展示时再通过 {@link #symbol(int)} 取回代码。
+ * </p>
+ *
+ * <h3>实现要点：</h3>
+ * <ul>
+ * <li><b>加载</b>：启动时从币种目录表 symbol_catalog 读取全部币种，之后同步、回补遇到新币种时自动追加；ID 一经分配不会改变</li>
+ * <li><b>查找</b>：开放寻址哈希表，哈希与比较时逐字符折叠大小写，
+ * {@link #find(CharSequence)} 对任意大小写的输入都不分配对象</li>
+ * <li><b>并发</b>：读无锁；新增币种时在锁内复制出新表整体替换（币种数量只有数百个且很少变化）</li>
+ * </ul>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class SymbolRegistry {
+
+    private final SymbolCatalogMapper symbolCatalogMapper;
+
+    /** 当前字典，新增币种时整体替换 */
+    private volatile Table table = Table.EMPTY;
+
+    @Autowired
+    public SymbolRegistry(SymbolCatalogMapper symbolCatalogMapper) {
+        this.symbolCatalogMapper = symbolCatalogMapper;
+    }
+
+    /**
+     * 启动时加载数据库中已有的全部币种
+     *
+     * <p>数据库不可用时不阻止应用启动，币种会在最新汇率快照加载或首次同步时补充登记。</p>
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            List<String> symbols = symbolCatalogMapper.selectAllSymbols();
+            registerAll(symbols);
+            log.info("[SymbolRegistry] 已登记 {} 个币种", size());
+        } catch (Exception e) {
+            log.warn("[SymbolRegistry] 启动时加载币种失败，将在写入数据时逐步登记: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取币种 ID，不存在时分配新 ID
+     * <p>
+     * 只供行情入库路径（解析、最新汇率快照、币种目录）调用；用户数据与请求参数只用 {@link #find(CharSequence)}，
+     * 避免任意字符串占用 ID。
+     * </p>
+     *
+     * @param symbol 币种代码（大小写不敏感）
+     * @return 币种 ID
+     */
+    public int intern(String symbol) {
+        int id = find(symbol);
+        return id >= 0 ? id : register(symbol);
+    }
+
+    /**
+     * 批量登记币种
+     *
+     * @param symbols 币种代码
+     */
+    public synchronized void registerAll(Collection<String> symbols) {
+        if (symbols == null || symbols.isEmpty()) {
+            return;
+        }
+        Table current = table;
+        String[] next = Arrays.copyOf(current.symbols, current.size + symbols.size());
+        int size = current.size;
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.isEmpty() && current.find(symbol) < 0
+                    && indexOf(next, size, symbol) < 0) {
+                next[size++] = symbol.toUpperCase(Locale.ROOT);
+            }
+        }
+        if (size > current.size) {
+            table = new Table(next, size);
+        }
+    }
+
+    /**
+     * 查找币种 ID，不分配新 ID，也不分配任何对象
+     *
+     * @param symbol 币种代码（大小写不敏感）
+     * @return 币种 ID，未登记时返回 -1
+     */
+    public int find(CharSequence symbol) {
+        return symbol != null ? table.find(symbol) : -1;
+    }
+
+    /**
+     * 规范化币种代码：已登记时直接返回字典中的大写实例，否则转为大写
+     *
+     * @param symbol 币种代码
+     * @return 大写币种代码
+     */
+    public String canonical(String symbol) {
+        if (symbol == null) {
+            return null;
+        }
+        Table current = table;
+        int id = current.find(symbol);
+        return id >= 0 ? current.symbols[id] : symbol.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * @param id 币种 ID
+     * @return 大写币种代码
+     */
+    public String symbol(int id) {
+        return table.symbols[id];
+    }
+
+    /**
+     * @return 已登记的币种数量，所有 ID 都小于该值，可直接作为 ID 下标数组的长度
+     */
+    public int size() {
+        return table.size;
+    }
+
+    private synchronized int register(String symbol) {
+        Table current = table;
+        int id = current.find(symbol);
+        if (id >= 0) {
+            return id;
+        }
+        String[] next = Arrays.copyOf(current.symbols, current.size + 1);
+        next[current.size] = symbol.toUpperCase(Locale.ROOT);
+        table = new Table(next, current.size + 1);
+        log.debug("[SymbolRegistry] 新币种 {} -> {}", next[current.size], current.size);
+        return current.size;
+    }
+
+    private static int indexOf(String[] symbols, int size, String symbol) {
+        for (int i = 0; i < size; i++) {
+            if (Table.equalsFolded(symbols[i], symbol)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** 不可变字典：ID -> 代码数组 + 开放寻址哈希槽（存放 ID + 1，0 表示空槽） */
+    private static final class Table {
+
+        static final Table EMPTY = new Table(new String[0], 0);
+
+        final String[] symbols;
+        final int size;
+        final int[] slots;
+        final int mask;
+
+        Table(String[] symbols, int size) {
+            this.symbols = symbols;
+            this.size = size;
+            // 装载因子不超过 0.5
+            int capacity = Integer.highestOneBit(Math.max(16, size * 2 - 1)) << 1;
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+            for (int id = 0; id < size; id++) {
+                int pos = hash(symbols[id]) & mask;
+                while (slots[pos] != 0) {
+                    pos = (pos + 1) & mask;
+                }
+                slots[pos] = id + 1;
+            }
+        }
+
+        int find(CharSequence symbol) {
+            int pos = hash(symbol) & mask;
+            int slot;
+            while ((slot = slots[pos]) != 0) {
+                if (equalsFolded(symbols[slot - 1], symbol)) {
+                    return slot - 1;
+                }
+                pos = (pos + 1) & mask;
+            }
+            return -1;
+        }
+
+        static int hash(CharSequence s) {
+            int h = 0;
+            for (int i = 0; i < s.length(); i++) {
+                h = 31 * h + fold(s.charAt(i));
+            }
+            return h ^ (h >>> 16);
+        }
+
+        static boolean equalsFolded(String registered, CharSequence s) {
+            if (registered.length() != s.length()) {
+                return false;
+            }
+            for (int i = 0; i < s.length(); i++) {
+                if (fold(registered.charAt(i)) != fold(s.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** 大小写折叠：ASCII 走快速路径 */
+        static char fold(char c) {
+            if (c >= 'a' && c <= 'z') {
+                return (char) (c - ('a' - 'A'));
+            }
+            return c < 128 ? c : Character.toUpperCase(c);
+        }
+    }
+}
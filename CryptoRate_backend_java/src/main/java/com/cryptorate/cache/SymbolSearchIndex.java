@@ -0,0 +1,344 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.common.DaemonThreads;
+import com.cryptorate.dto.SymbolFavoriteCountDTO;
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.event.FavoriteChangedEvent;
+import com.cryptorate.mapper.UserFavoriteMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 币种搜索索引
+ *
+ * <p>
+ * 替代 {@code RateServiceImpl.searchSymbols} 每次按键都执行的 {@code SELECT DISTINCT symbol FROM rate_history}
+ * 全表扫描 + 逐个转小写做 contains 过滤，搜索路径只读内存、不访问数据库。
+ * </p>
+ *
+ * <h3>实现要点：</h3>
+ * <ul>
+ * <li><b>数据来源</b>：币种集合取自最新汇率快照（即 rate_history 中出现过的全部币种）；
+ * 快照中的币种数量变化（同步或回补带来新币种）时在下一次搜索前重建索引</li>
+ * <li><b>匹配</b>：对所有币种的全部后缀建立有序后缀数组，前缀匹配与子串匹配都归结为一次二分查找出的连续区间，
+ * 后缀起点为 0 即为前缀命中</li>
+ * <li><b>排序</b>：完全相同 &gt; 前缀 &gt; 包含；同一档内按收藏人数降序，再按代码字母序</li>
+ * <li><b>热度</b>：各币种收藏人数按 {@link SymbolRegistry} 分配的 ID 存放在数组中，
+ * 收到 {@link FavoriteChangedEvent} 后由后台线程合并刷新，不阻塞搜索，也不需要重建索引</li>
+ * </ul>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class SymbolSearchIndex {
+
+    /** 收藏人数上限（排序键中占 31 位） */
+    private static final long MAX_POPULARITY = Integer.MAX_VALUE;
+
+    /** 币种位置在排序键中占用的位数 */
+    private static final int POSITION_BITS = 20;
+
+    private static final int TIER_EXACT = 0;
+    private static final int TIER_PREFIX = 1;
+    private static final int TIER_CONTAINS = 2;
+
+    private final LatestRateStore latestRateStore;
+    private final UserFavoriteMapper favoriteMapper;
+    private final SymbolRegistry symbolRegistry;
+
+    /** 当前索引，币种集合变化时整体替换 */
+    private volatile Index index = Index.EMPTY;
+
+    /** 币种 ID -> 收藏人数，刷新时整体替换 */
+    private volatile int[] favoriteCounts = new int[0];
+
+    /** 是否已有待执行的收藏人数刷新（多次收藏变更合并为一次查询） */
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(DaemonThreads.named("symbol-search-refresher-"));
+
+    @Autowired
+    public SymbolSearchIndex(LatestRateStore latestRateStore, UserFavoriteMapper favoriteMapper,
+            SymbolRegistry symbolRegistry) {
+        this.latestRateStore = latestRateStore;
+        this.favoriteMapper = favoriteMapper;
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * 启动时加载收藏人数
+     *
+     * <p>数据库不可用时不阻止应用启动，搜索结果暂时只按匹配程度和字母序排序。</p>
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            reloadFavoriteCounts();
+        } catch (Exception e) {
+            log.warn("[SymbolSearch] 启动时加载收藏人数失败，将在收藏变更时重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 搜索币种
+     *
+     * @param keyword 关键词（大小写不敏感），为空时按字母序返回前 limit 个币种
+     * @param limit   最多返回数量
+     * @return 按匹配程度与热度排序的币种代码
+     */
+    public List<String> search(String keyword, int limit) {
+        Index current = current();
+        String query = keyword == null ? "" : keyword.trim().toUpperCase(Locale.ROOT);
+        if (query.isEmpty()) {
+            return current.firstSymbols(limit);
+        }
+
+        int from = current.lowerBound(query, false);
+        int to = current.lowerBound(query, true);
+        if (from >= to) {
+            return List.of();
+        }
+
+        // 每个命中的后缀编码为一个 long：匹配档位 | 热度（取反）| 币种在有序数组中的位置，直接按数值排序
+        int[] counts = favoriteCounts;
+        long[] keys = new long[to - from];
+        for (int i = from; i < to; i++) {
+            int position = current.suffixSymbol[i];
+            int tier;
+            if (current.suffixOffset[i] != 0) {
+                tier = TIER_CONTAINS;
+            } else {
+                tier = current.symbols[position].length() == query.length() ? TIER_EXACT : TIER_PREFIX;
+            }
+            int id = current.symbolIds[position];
+            long popularity = id < counts.length ? counts[id] : 0;
+            keys[i - from] = ((long) tier << (POSITION_BITS + 31))
+                    | ((MAX_POPULARITY - popularity) << POSITION_BITS)
+                    | position;
+        }
+        Arrays.sort(keys);
+
+        // 同一币种可能有多个后缀命中，只保留排序最靠前（档位最高）的一次
+        long[] emitted = new long[(current.symbols.length + 63) >>> 6];
+        List<String> result = new ArrayList<>(Math.min(limit, keys.length));
+        for (long key : keys) {
+            int position = (int) (key & ((1 << POSITION_BITS) - 1));
+            long bit = 1L << position;
+            if ((emitted[position >>> 6] & bit) != 0) {
+                continue;
+            }
+            emitted[position >>> 6] |= bit;
+            result.add(current.symbols[position]);
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 索引中是否没有任何币种（rate_history 尚无数据）
+     */
+    public boolean isEmpty() {
+        return current().symbols.length == 0;
+    }
+
+    /**
+     * 收藏变更后在后台刷新收藏人数，短时间内的多次变更只触发一次查询
+     */
+    @EventListener
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshPending.set(false);
+                try {
+                    reloadFavoriteCounts();
+                } catch (Exception e) {
+                    log.warn("[SymbolSearch] 刷新收藏人数失败，继续使用旧数据: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /** 获取当前索引，快照中的币种数量变化时先重建 */
+    private Index current() {
+        Index current = index;
+        RateSnapshot snapshot = latestRateStore.current();
+        if (current.symbols.length == snapshot.size()) {
+            return current;
+        }
+        synchronized (this) {
+            current = index;
+            if (current.symbols.length != snapshot.size()) {
+                current = build(snapshot);
+                index = current;
+                // 新入库的币种此前没有 ID，收藏人数需重新统计
+                if (favoriteCounts.length < symbolRegistry.size()) {
+                    scheduleRefresh();
+                }
+            }
+            return current;
+        }
+    }
+
+    private Index build(RateSnapshot snapshot) {
+        long start = System.nanoTime();
+        List<RateHistory> rates = snapshot.getSortedRates();
+        String[] symbols = new String[rates.size()];
+        int[] symbolIds = new int[rates.size()];
+        for (int i = 0; i < rates.size(); i++) {
+            int id = symbolRegistry.intern(rates.get(i).getSymbol());
+            symbolIds[i] = id;
+            symbols[i] = symbolRegistry.symbol(id);
+        }
+        Index built = new Index(symbols, symbolIds);
+        log.info("[SymbolSearch] 已重建币种搜索索引：{} 个币种，{} 个后缀，耗时 {} µs",
+                symbols.length, built.suffixSymbol.length, (System.nanoTime() - start) / 1000);
+        return built;
+    }
+
+    private void reloadFavoriteCounts() {
+        List<SymbolFavoriteCountDTO> rows = favoriteMapper.selectFavoriteCounts();
+        // 只统计已有 ID 的币种：尚无行情的币种不在搜索结果中，不为其登记 ID
+        int[] counts = new int[symbolRegistry.size()];
+        for (SymbolFavoriteCountDTO row : rows) {
+            int id = symbolRegistry.find(row.getSymbol());
+            if (id >= 0 && id < counts.length && row.getFavoriteCount() != null) {
+                counts[id] = row.getFavoriteCount();
+            }
+        }
+        favoriteCounts = counts;
+        log.debug("[SymbolSearch] 已刷新 {} 个币种的收藏人数", rows.size());
+    }
+
+    /** 不可变索引：按字母序排列的币种 + 按后缀排序的后缀数组 */
+    private static final class Index {
+
+        static final Index EMPTY = new Index(new String[0], new int[0]);
+
+        /** 大写币种代码（字母序） */
+        final String[] symbols;
+
+        /** 与 symbols 对齐的币种 ID */
+        final int[] symbolIds;
+
+        /** 第 i 小的后缀所属币种在 symbols 中的位置 */
+        final int[] suffixSymbol;
+
+        /** 第 i 小的后缀在币种代码中的起始下标 */
+        final int[] suffixOffset;
+
+        Index(String[] symbols, int[] symbolIds) {
+            if (symbols.length >= 1 << POSITION_BITS) {
+                throw new IllegalStateException("币种数量超出搜索索引上限: " + symbols.length);
+            }
+            this.symbols = symbols;
+            this.symbolIds = symbolIds;
+
+            int total = 0;
+            for (String symbol : symbols) {
+                total += symbol.length();
+            }
+            Integer[] order = new Integer[total];
+            int[] owner = new int[total];
+            int[] offset = new int[total];
+            int n = 0;
+            for (int i = 0; i < symbols.length; i++) {
+                for (int j = 0; j < symbols[i].length(); j++) {
+                    owner[n] = i;
+                    offset[n] = j;
+                    order[n] = n;
+                    n++;
+                }
+            }
+            Arrays.sort(order, (a, b) -> {
+                int c = compareSuffixes(symbols[owner[a]], offset[a], symbols[owner[b]], offset[b]);
+                return c != 0 ? c : Integer.compare(a, b);
+            });
+            this.suffixSymbol = new int[total];
+            this.suffixOffset = new int[total];
+            for (int i = 0; i < total; i++) {
+                suffixSymbol[i] = owner[order[i]];
+                suffixOffset[i] = offset[order[i]];
+            }
+        }
+
+        List<String> firstSymbols(int limit) {
+            int count = Math.min(limit, symbols.length);
+            return Collections.unmodifiableList(Arrays.asList(symbols).subList(0, count));
+        }
+
+        /**
+         * 二分查找后缀数组
+         *
+         * @param query 大写关键词
+         * @param upper false 时返回第一个不小于 query 的后缀位置；true 时返回第一个既不以 query 开头、
+         *              又大于 query 的后缀位置。两者之间即为全部包含 query 的后缀
+         */
+        int lowerBound(String query, boolean upper) {
+            int lo = 0;
+            int hi = suffixSymbol.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int c = comparePrefix(symbols[suffixSymbol[mid]], suffixOffset[mid], query);
+                if (c < 0 || (upper && c == 0)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /** 比较后缀的前 query.length() 个字符与 query，后缀以 query 开头时返回 0 */
+        static int comparePrefix(String symbol, int offset, String query) {
+            int remaining = symbol.length() - offset;
+            int n = Math.min(remaining, query.length());
+            for (int i = 0; i < n; i++) {
+                int c = symbol.charAt(offset + i) - query.charAt(i);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return remaining < query.length() ? -1 : 0;
+        }
+
+        static int compareSuffixes(String a, int offsetA, String b, int offsetB) {
+            int lenA = a.length() - offsetA;
+            int lenB = b.length() - offsetB;
+            int n = Math.min(lenA, lenB);
+            for (int i = 0; i < n; i++) {
+                int c = a.charAt(offsetA + i) - b.charAt(offsetB + i);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return Integer.compare(lenA, lenB);
+        }
+    }
+}
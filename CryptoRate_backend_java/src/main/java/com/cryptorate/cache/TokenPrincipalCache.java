@@ -0,0 +1,79 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.utils.JwtPrincipal;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已验签 Token 缓存
+ *
+ * <p>
+ * 以 Token 的 SHA-256 摘要为键缓存 {@link JwtPrincipal}，同一 Token 的后续请求无需再次做 HMAC 验签。
+ * 条目随 Token 一同过期；容量有上限，满时先清理过期条目，仍然满则不再缓存新 Token（回退为每次验签）。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Component
+public class TokenPrincipalCache {
+
+    /** 最多缓存的 Token 数量 */
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final Map<String, JwtPrincipal> principals = new ConcurrentHashMap<>();
+
+    /**
+     * 查找已验签的身份
+     *
+     * @param token JWT Token 字符串
+     * @return 缓存的身份；未缓存或已过期时返回 null
+     */
+    public JwtPrincipal get(String token) {
+        String key = hash(token);
+        JwtPrincipal principal = principals.get(key);
+        if (principal == null) {
+            return null;
+        }
+        if (principal.isExpired(System.currentTimeMillis())) {
+            principals.remove(key, principal);
+            return null;
+        }
+        return principal;
+    }
+
+    /**
+     * 缓存刚通过验签的身份
+     *
+     * @param token     JWT Token 字符串
+     * @param principal 解析出的身份
+     */
+    public void put(String token, JwtPrincipal principal) {
+        if (principals.size() >= MAX_ENTRIES) {
+            long now = System.currentTimeMillis();
+            principals.values().removeIf(p -> p.isExpired(now));
+            if (principals.size() >= MAX_ENTRIES) {
+                return;
+            }
+        }
+        principals.put(hash(token), principal);
+    }
+
+    /** Token 的 SHA-256 摘要（内存中不保存 Token 原文） */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM 不支持 SHA-256", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.cryptorate.cache;
+
+import com.cryptorate.entity.User;
+import com.cryptorate.event.UserStatusChangedEvent;
+import com.cryptorate.mapper.UserMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户账号状态缓存
+ *
+ * <p>
+ * 替代 JwtInterceptor 每个请求一次的 {@code userMapper.selectById}。
+ * 状态变更通过 {@link UserStatusChangedEvent} 立即失效；另设较短的有效期，
+ * 兜底直接修改数据库等不经过业务层的变更。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class UserStatusCache {
+
+    /** 条目有效期（毫秒） */
+    private static final long TTL_MILLIS = 60_000L;
+
+    /** 最多缓存的用户数量 */
+    private static final int MAX_ENTRIES = 10_000;
+
+    /** 用户不存在时缓存的占位状态 */
+    private static final String MISSING = "";
+
+    private final UserMapper userMapper;
+
+    private final Map<Long, Entry> statuses = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserStatusCache(UserMapper userMapper) {
+        this.userMapper = userMapper;
+    }
+
+    /**
+     * 获取用户账号状态
+     *
+     * @param userId 用户ID
+     * @return 账号状态（ACTIVE / DISABLED）；用户不存在时返回 null
+     */
+    public String getStatus(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = statuses.get(userId);
+        if (entry == null || now - entry.loadedAt() >= TTL_MILLIS) {
+            User user = userMapper.selectById(userId);
+            entry = new Entry(user != null && user.getStatus() != null ? user.getStatus() : MISSING, now);
+            if (statuses.size() >= MAX_ENTRIES) {
+                statuses.values().removeIf(e -> now - e.loadedAt() >= TTL_MILLIS);
+            }
+            if (statuses.size() < MAX_ENTRIES) {
+                statuses.put(userId, entry);
+            }
+        }
+        return MISSING.equals(entry.status()) ? null : entry.status();
+    }
+
+    /**
+     * 失效指定用户的缓存
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            statuses.remove(userId);
+        }
+    }
+
+    /**
+     * 监听账号状态变更
+     */
+    @EventListener
+    public void onUserStatusChanged(UserStatusChangedEvent event) {
+        invalidate(event.getUserId());
+        log.debug("[UserStatusCache] 用户 {} 状态缓存已失效", event.getUserId());
+    }
+
+    /** 缓存条目：状态 + 加载时间 */
+    private record Entry(String status, long loadedAt) {
+    }
+}
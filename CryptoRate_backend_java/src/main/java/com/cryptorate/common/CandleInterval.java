@@ -0,0 +1,80 @@
+package com.cryptorate.common;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * K 线周期
+ *
+ * <p>负责把任意采样时间戳对齐到所属 K 线的起始时间（日线、周线按服务器时区对齐）。</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+public enum CandleInterval {
+
+    /** 1 小时 */
+    HOUR("1h", 3600L),
+
+    /** 1 天 */
+    DAY("1d", 24 * 3600L),
+
+    /** 1 周（周一开始） */
+    WEEK("1w", 7 * 24 * 3600L);
+
+    /** 数据库中保存的周期代码 */
+    private final String code;
+
+    /** 周期长度（秒） */
+    private final long seconds;
+
+    CandleInterval(String code, long seconds) {
+        this.code = code;
+        this.seconds = seconds;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * 计算时间戳所属 K 线的起始时间
+     *
+     * @param timestamp Unix 时间戳（秒）
+     * @return K 线起始时间戳（秒）
+     */
+    public long bucketStart(long timestamp) {
+        if (this == HOUR) {
+            return timestamp - Math.floorMod(timestamp, seconds);
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate date = Instant.ofEpochSecond(timestamp).atZone(zone).toLocalDate();
+        if (this == WEEK) {
+            date = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+        return date.atStartOfDay(zone).toEpochSecond();
+    }
+
+    /**
+     * 根据周期代码解析
+     *
+     * @param code 周期代码（1h / 1d / 1w）
+     * @return 对应周期，无法识别时返回 null
+     */
+    public static CandleInterval fromCode(String code) {
+        for (CandleInterval interval : values()) {
+            if (interval.code.equalsIgnoreCase(code)) {
+                return interval;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.cryptorate.common;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 后台线程工厂
+ *
+ * <p>
+ * 各组件自建的线程池统一使用守护线程并按前缀编号命名（如 {@code alert-dispatch-1}），
+ * 不会阻止 JVM 退出，在线程转储中也能直接看出所属组件。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+public final class DaemonThreads {
+
+    private DaemonThreads() {
+    }
+
+    /**
+     * @param prefix 线程名前缀
+     * @return 以 prefix + 序号命名的守护线程工厂
+     */
+    public static ThreadFactory named(String prefix) {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory(prefix);
+        factory.setDaemon(true);
+        return factory;
+    }
+}
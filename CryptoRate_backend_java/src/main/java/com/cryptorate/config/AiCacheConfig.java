@@ -0,0 +1,30 @@
+package com.cryptorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI 问答缓存配置类
+ *
+ * <p>从 application.yml 的 cryptorate.ai-cache 读取问答结果缓存的有效期与容量</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cryptorate.ai-cache")
+public class AiCacheConfig {
+
+    /**
+     * 回答的有效期（秒），同一汇率快照版本内超过该时间也重新生成；0 表示关闭缓存（仍合并并发的相同问题）
+     */
+    private Integer ttlSeconds = 600;
+
+    /**
+     * 最多缓存的回答数，超过后淘汰最久未使用的
+     */
+    private Integer maxEntries = 1000;
+}
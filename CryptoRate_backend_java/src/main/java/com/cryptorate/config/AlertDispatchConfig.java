@@ -0,0 +1,45 @@
+package com.cryptorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 告警异步分发配置类
+ *
+ * <p>从 application.yml 的 cryptorate.alert.dispatch 读取告警队列与重试参数</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cryptorate.alert.dispatch")
+public class AlertDispatchConfig {
+
+    /**
+     * 队列容量，满时新消息直接进入死信，不阻塞汇率同步
+     */
+    private Integer queueCapacity = 1000;
+
+    /**
+     * 投递线程数
+     */
+    private Integer workers = 4;
+
+    /**
+     * 最大投递次数（含首次）
+     */
+    private Integer maxAttempts = 4;
+
+    /**
+     * 首次重试的基准退避时间（毫秒），之后每次翻倍
+     */
+    private Long baseBackoffMs = 1000L;
+
+    /**
+     * 退避时间上限（毫秒）
+     */
+    private Long maxBackoffMs = 30000L;
+}
@@ -0,0 +1,45 @@
+package com.cryptorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI 每日简报推送配置类
+ *
+ * <p>从 application.yml 的 cryptorate.briefing 读取简报并发推送与重试参数</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cryptorate.briefing")
+public class BriefingConfig {
+
+    /**
+     * 推送线程数（所有 Webhook 主机共享）
+     */
+    private Integer workers = 32;
+
+    /**
+     * 同一 Webhook 主机上同时进行的请求数上限
+     */
+    private Integer maxConcurrentPerHost = 8;
+
+    /**
+     * 同一 Webhook 主机每秒最多发起的请求数
+     */
+    private Double permitsPerSecondPerHost = 50.0;
+
+    /**
+     * 单个用户的最大投递次数（含首次）
+     */
+    private Integer maxAttempts = 3;
+
+    /**
+     * 首次重试的基准退避时间（毫秒），之后每次翻倍
+     */
+    private Long retryBackoffMs = 2000L;
+}
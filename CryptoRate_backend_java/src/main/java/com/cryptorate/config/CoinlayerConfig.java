@@ -37,4 +37,39 @@ public class CoinlayerConfig {
      * 请求超时时间（秒）
      */
     private Integer timeout = 5;
+
+    /**
+     * 每月调用额度（免费套餐 100 次），用于出站指标中的额度统计
+     */
+    private Integer monthlyQuota = 100;
+
+    /**
+     * 实时汇率缓存有效期（秒），期间 /market 接口不会重复调用 Coinlayer
+     */
+    private Integer liveCacheTtlSeconds = 60;
+
+    /**
+     * 实时汇率缓存最长可用时间（秒），过期但未超过该时间时先返回旧数据并在后台刷新
+     */
+    private Integer liveCacheMaxStaleSeconds = 600;
+
+    /**
+     * 历史数据回补：每秒最多请求次数（令牌桶速率）
+     */
+    private Double historyRequestsPerSecond = 3.0;
+
+    /**
+     * 历史数据回补：令牌桶容量（允许的瞬时突发请求数）
+     */
+    private Integer historyBurst = 3;
+
+    /**
+     * 历史数据回补：并发请求数
+     */
+    private Integer historyConcurrency = 4;
+
+    /**
+     * 历史数据回补：合并写入的单批行数
+     */
+    private Integer historyBatchSize = 2000;
 }
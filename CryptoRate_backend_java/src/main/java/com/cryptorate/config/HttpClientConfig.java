@@ -0,0 +1,71 @@
+package com.cryptorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 出站 HTTP 客户端配置类
+ *
+ * <p>从 application.yml 的 cryptorate.http 读取共享连接池、并发上限与超时参数，
+ * Coinlayer、Python AI 服务与飞书 Webhook 的调用共用这一套连接池。</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cryptorate.http")
+public class HttpClientConfig {
+
+    /**
+     * 连接超时（毫秒）
+     */
+    private Integer connectTimeoutMs = 5000;
+
+    /**
+     * 读取超时（毫秒），用于 Coinlayer 等快速接口
+     */
+    private Integer readTimeoutMs = 5000;
+
+    /**
+     * 写入超时（毫秒）
+     */
+    private Integer writeTimeoutMs = 5000;
+
+    /**
+     * RestTemplate 的读取超时（毫秒），AI 推理耗时较长
+     */
+    private Integer restReadTimeoutMs = 30000;
+
+    /**
+     * 连接池最大空闲连接数
+     */
+    private Integer maxIdleConnections = 200;
+
+    /**
+     * 空闲连接保持存活时间（秒），期间同一主机的请求复用已建立的 TCP 连接
+     */
+    private Integer keepAliveSeconds = 300;
+
+    /**
+     * 异步调用的总并发上限
+     */
+    private Integer maxRequests = 64;
+
+    /**
+     * 异步调用对单个主机的并发上限
+     */
+    private Integer maxRequestsPerHost = 16;
+
+    /**
+     * 响应体抽样日志比例（0~1），0 表示关闭；需同时开启 HttpMetricsInterceptor 的 DEBUG 日志
+     */
+    private Double bodyLogSampleRate = 0.0;
+
+    /**
+     * 抽样日志最多打印的响应体字节数
+     */
+    private Long bodyLogMaxBytes = 4096L;
+}
@@ -1,24 +1,30 @@
 package com.cryptorate.config;
 
+import com.cryptorate.http.HttpMetricsInterceptor;
+import com.cryptorate.http.HttpPoolMetrics;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 import java.util.concurrent.TimeUnit;
 
 /**
  * OkHttp 客户端配置类
  * 
- * <p>配置全局的 OkHttpClient Bean，用于所有 HTTP 请求</p>
+ * <p>配置全局共享的连接池与 OkHttpClient Bean，Coinlayer、Python AI 服务与飞书 Webhook 的所有出站请求都经过这一个连接池</p>
  * 
- * <h3>核心配置说明：</h3>
+ * <h3>核心配置说明（参数见 cryptorate.http）：</h3>
  * <ul>
- *   <li><b>连接池</b>: 最大空闲连接 200，保持存活 5 分钟</li>
+ *   <li><b>连接池</b>: 最大空闲连接 200，keep-alive 5 分钟，同一主机的请求复用 TCP 连接</li>
+ *   <li><b>并发上限</b>: 异步调用总并发 64、单主机并发 16</li>
  *   <li><b>超时配置</b>: 连接超时 5s，读超时 5s，写超时 5s</li>
- *   <li><b>日志拦截器</b>: 开发环境打印完整请求/响应日志</li>
+ *   <li><b>指标拦截器</b>: {@link HttpMetricsInterceptor} 记录耗时、状态码、流量与 Coinlayer 额度，不缓冲响应体</li>
  *   <li><b>重试机制</b>: 失败时自动重试</li>
+ *   <li><b>连接统计</b>: {@link HttpPoolMetrics} 按主机记录新建 / 复用连接次数</li>
  * </ul>
  * 
  * @author CryptoRate Team
@@ -28,35 +34,36 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class OkHttpConfig {
 
-    /**
-     * 连接超时时间（秒）
-     */
-    private static final int CONNECT_TIMEOUT = 5;
-
-    /**
-     * 读取超时时间（秒）
-     */
-    private static final int READ_TIMEOUT = 5;
-
-    /**
-     * 写入超时时间（秒）
-     */
-    private static final int WRITE_TIMEOUT = 5;
+    private final HttpClientConfig httpClientConfig;
 
-    /**
-     * 连接池最大空闲连接数
-     */
-    private static final int MAX_IDLE_CONNECTIONS = 200;
+    @Autowired
+    public OkHttpConfig(HttpClientConfig httpClientConfig) {
+        this.httpClientConfig = httpClientConfig;
+    }
 
     /**
-     * 连接池连接保持存活时间（分钟）
+     * 全局共享的连接池
+     *
+     * @return 连接池实例
      */
-    private static final int KEEP_ALIVE_DURATION = 5;
+    @Bean
+    public ConnectionPool connectionPool() {
+        // 参数1: 最大空闲连接数
+        // 参数2: 连接保持存活时间
+        // 参数3: 时间单位
+        return new ConnectionPool(
+                httpClientConfig.getMaxIdleConnections(),
+                httpClientConfig.getKeepAliveSeconds(),
+                TimeUnit.SECONDS
+        );
+    }
 
     /**
      * 创建 OkHttpClient Bean
      * 
-     * <p>这是全局唯一的 HTTP 客户端实例，通过依赖注入使用</p>
+     * <p>这是全局唯一的 HTTP 客户端实例，通过依赖注入使用。
+     * 需要不同超时的场景（RestTemplate、SSE 流式调用）通过 {@link OkHttpClient#newBuilder()} 派生，
+     * 派生出的客户端与它共享连接池和调度器。</p>
      * 
      * <h4>使用示例：</h4>
      * <pre>
@@ -82,65 +89,53 @@ public class OkHttpConfig {
      * }
      * </pre>
      * 
+     * @param connectionPool     共享连接池
+     * @param poolMetrics        连接复用统计
+     * @param metricsInterceptor 出站请求指标
      * @return 配置完成的 OkHttpClient 实例
      */
     @Bean
-    public OkHttpClient okHttpClient() {
-        // 创建日志拦截器
-        HttpLoggingInterceptor loggingInterceptor = createLoggingInterceptor();
-
-        // 创建连接池
-        // 参数1: 最大空闲连接数
-        // 参数2: 连接保持存活时间
-        // 参数3: 时间单位
-        ConnectionPool connectionPool = new ConnectionPool(
-                MAX_IDLE_CONNECTIONS,
-                KEEP_ALIVE_DURATION,
-                TimeUnit.MINUTES
-        );
+    @Primary
+    public OkHttpClient okHttpClient(ConnectionPool connectionPool, HttpPoolMetrics poolMetrics,
+            HttpMetricsInterceptor metricsInterceptor) {
+        // 调度器：限制异步调用（如 SSE 流式问答）的总并发与单主机并发
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(httpClientConfig.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(httpClientConfig.getMaxRequestsPerHost());
 
         // 构建 OkHttpClient
         return new OkHttpClient.Builder()
                 // 连接超时：建立 TCP 连接的最大等待时间
-                .connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
+                .connectTimeout(httpClientConfig.getConnectTimeoutMs(), TimeUnit.MILLISECONDS)
                 // 读取超时：从服务器读取数据的最大等待时间
-                .readTimeout(READ_TIMEOUT, TimeUnit.SECONDS)
+                .readTimeout(httpClientConfig.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
                 // 写入超时：向服务器写入数据的最大等待时间
-                .writeTimeout(WRITE_TIMEOUT, TimeUnit.SECONDS)
+                .writeTimeout(httpClientConfig.getWriteTimeoutMs(), TimeUnit.MILLISECONDS)
                 // 连接池：复用 HTTP 连接，提高性能
                 .connectionPool(connectionPool)
+                .dispatcher(dispatcher)
                 // 失败重试：网络错误时自动重试
                 .retryOnConnectionFailure(true)
-                // 添加日志拦截器：用于调试和监控
-                .addInterceptor(loggingInterceptor)
+                // 连接统计：按主机记录新建 / 复用连接次数
+                .eventListenerFactory(poolMetrics)
+                // 指标拦截器：记录耗时、状态码与流量，不缓冲响应体
+                .addInterceptor(metricsInterceptor)
                 .build();
     }
 
     /**
-     * 创建 HTTP 日志拦截器
-     * 
-     * <p>在开发环境打印完整的请求和响应日志，包括：</p>
-     * <ul>
-     *   <li>请求 URL 和 Headers</li>
-     *   <li>请求 Body（如果有）</li>
-     *   <li>响应状态码和 Headers</li>
-     *   <li>响应 Body</li>
-     * </ul>
-     * 
-     * <p><b>注意</b>：生产环境建议改为 BASIC 级别，避免日志过多</p>
-     * 
-     * @return 日志拦截器实例
+     * 创建 SSE 流式调用专用的 OkHttpClient
+     *
+     * <p>从共享客户端派生，复用同一个连接池、调度器和指标拦截器，
+     * 只取消读超时：流式回答期间两次输出之间可能间隔较长。</p>
+     *
+     * @param okHttpClient 共享客户端
+     * @return 流式调用客户端
      */
-    private HttpLoggingInterceptor createLoggingInterceptor() {
-        HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
-        
-        // 设置日志级别
-        // NONE: 不打印日志
-        // BASIC: 打印请求和响应的基本信息（URL、状态码、耗时）
-        // HEADERS: 打印请求和响应的 Headers
-        // BODY: 打印完整的请求和响应内容（包括 Body）
-        interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-        
-        return interceptor;
+    @Bean
+    public OkHttpClient streamingOkHttpClient(OkHttpClient okHttpClient) {
+        return okHttpClient.newBuilder()
+                .readTimeout(0, TimeUnit.MILLISECONDS)
+                .build();
     }
 }
@@ -0,0 +1,50 @@
+package com.cryptorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * WebSocket 推送通道配置类
+ *
+ * <p>从 application.yml 的 cryptorate.push 读取 WebSocket 行情与告警推送的连接数、订阅数、缓冲区与心跳参数</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cryptorate.push")
+public class RatePushConfig {
+
+    /**
+     * 最大同时连接数，超过后握手返回 503
+     */
+    private Integer maxSessions = 10000;
+
+    /**
+     * 单个连接最多订阅的币种数
+     */
+    private Integer maxSymbolsPerSession = 500;
+
+    /**
+     * 每个连接最多积压的待发送消息数，超过视为慢消费者并断开
+     */
+    private Integer bufferMessages = 256;
+
+    /**
+     * 负责写出消息的线程数（所有连接共享）
+     */
+    private Integer writerThreads = 8;
+
+    /**
+     * 单次写出的最长时间（毫秒），超过视为慢消费者并断开，避免卡住的连接长期占用写出线程
+     */
+    private Long sendTimeLimitMs = 10000L;
+
+    /**
+     * 心跳（Ping 帧）间隔（秒）
+     */
+    private Integer heartbeatSeconds = 30;
+}
@@ -0,0 +1,50 @@
+package com.cryptorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 实时行情推送配置类
+ *
+ * <p>从 application.yml 的 cryptorate.stream 读取 SSE 行情推送的连接数、缓冲区与心跳参数</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cryptorate.stream")
+public class RateStreamConfig {
+
+    /**
+     * 最大同时订阅数，超过后新的订阅请求返回 503
+     */
+    private Integer maxSubscribers = 10000;
+
+    /**
+     * 每个订阅者最多积压的待发送帧数，超过视为慢消费者并断开
+     */
+    private Integer bufferFrames = 16;
+
+    /**
+     * 负责写出数据帧的线程数（所有订阅者共享）
+     */
+    private Integer writerThreads = 8;
+
+    /**
+     * 单次写出的最长时间（毫秒），超过视为慢消费者并断开，避免卡住的连接长期占用写出线程
+     */
+    private Long sendTimeLimitMs = 10000L;
+
+    /**
+     * 心跳间隔（秒），用于保持代理与浏览器连接并及时发现断开的客户端
+     */
+    private Integer heartbeatSeconds = 15;
+
+    /**
+     * 单个连接的最长持续时间（毫秒），到期后由客户端自动重连
+     */
+    private Long timeoutMs = 1800000L;
+}
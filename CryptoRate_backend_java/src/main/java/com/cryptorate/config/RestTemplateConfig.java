@@ -1,20 +1,25 @@
 package com.cryptorate.config;
 
+import com.cryptorate.http.OkHttpRequestFactory;
+import okhttp3.OkHttpClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * RestTemplate 配置类
  *
  * <p>
  * 注册一个全局共享的 {@link RestTemplate} Bean，用于 Java 服务内部向外部
- * HTTP 接口（如 Python AI 服务）发起请求。
+ * HTTP 接口（如 Python AI 服务、飞书 Webhook）发起请求。
  * </p>
  *
  * <p>
- * 配置了连接超时（5 秒）和读取超时（30 秒），防止 AI 服务响应慢时阻塞 Java 线程。
+ * 底层通过 {@link OkHttpRequestFactory} 使用从全局 {@link OkHttpClient} 派生的客户端，与 Coinlayer 调用共享同一个连接池，
+ * 连续请求复用 keep-alive 连接，不再每次新建 TCP 连接。
+ * 连接超时沿用全局配置（5 秒），读取超时放宽到 30 秒，防止 AI 服务响应慢时阻塞 Java 线程。
  * </p>
  *
  * @author CryptoRate Team
@@ -24,28 +29,18 @@ import org.springframework.web.client.RestTemplate;
 @Configuration
 public class RestTemplateConfig {
 
-    /**
-     * 连接超时时间（毫秒）
-     * 超过此时间未建立连接则抛出异常
-     */
-    private static final int CONNECT_TIMEOUT_MS = 5_000;
-
-    /**
-     * 读取超时时间（毫秒）
-     * AI 推理耗时较长，给予充足的等待时间
-     */
-    private static final int READ_TIMEOUT_MS = 30_000;
-
     /**
      * 注册 RestTemplate Bean
      *
-     * @return 配置了超时参数的 RestTemplate 实例
+     * @param okHttpClient     全局共享的 OkHttpClient
+     * @param httpClientConfig 出站 HTTP 配置
+     * @return 基于共享连接池的 RestTemplate 实例
      */
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(CONNECT_TIMEOUT_MS);
-        factory.setReadTimeout(READ_TIMEOUT_MS);
-        return new RestTemplate(factory);
+    public RestTemplate restTemplate(OkHttpClient okHttpClient, HttpClientConfig httpClientConfig) {
+        OkHttpClient client = okHttpClient.newBuilder()
+                .readTimeout(httpClientConfig.getRestReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .build();
+        return new RestTemplate(new OkHttpRequestFactory(client));
     }
 }
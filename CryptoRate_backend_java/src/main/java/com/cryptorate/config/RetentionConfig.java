@@ -0,0 +1,52 @@
+package com.cryptorate.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * rate_history 分区与数据保留配置类
+ *
+ * <p>从 application.yml 的 cryptorate.retention 读取分区维护与原始数据保留参数</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cryptorate.retention")
+public class RetentionConfig {
+
+    /**
+     * 是否启用定时维护（手动触发接口不受此开关影响）。维护会删除原始数据，默认关闭，需显式开启
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 定时维护的 cron 表达式
+     */
+    private String cron = "0 30 3 * * ?";
+
+    /**
+     * 原始采样点保留天数，更早的整月数据降采样为 K 线后删除；
+     * 不得小于 31 天（滚动统计需要最近 30 天的原始数据）。
+     * 历史回补超出保留期的日期同样只保留 K 线，且回补进度仍登记为完成、不会重新抓取
+     */
+    private Integer rawRetentionDays = 180;
+
+    /**
+     * 提前创建的未来月份分区数量
+     */
+    private Integer futureMonths = 3;
+
+    /**
+     * 表尚未分区时是否允许按批 DELETE 清理（默认否：只预建分区与降采样，不删除原始数据）
+     */
+    private Boolean deleteUnpartitioned = false;
+
+    /**
+     * 未分区的表按 DELETE 清理时每批删除的行数
+     */
+    private Integer deleteBatchSize = 5000;
+}
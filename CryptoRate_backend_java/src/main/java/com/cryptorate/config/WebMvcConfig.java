@@ -3,14 +3,21 @@ package com.cryptorate.config;
 import com.cryptorate.interceptor.JwtInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.concurrent.Callable;
+
 /**
  * Web MVC 全局配置
  *
  * <p>
- * 注册 JWT 拦截器，保护需要登录才能访问的接口。
+ * 注册 JWT 拦截器，保护需要登录才能访问的接口；允许单个异步请求覆盖默认的异步超时时间。
  * </p>
  *
  * <h3>注意：CORS 配置已移至 {@link CorsConfig}（使用 CorsFilter）</h3>
@@ -27,6 +34,12 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    /**
+     * 异步超时时间（毫秒，Long）的请求属性名。Controller 设置该属性后，本次请求的异步处理
+     * （如 StreamingResponseBody）使用该超时时间，其余请求仍使用默认值
+     */
+    public static final String ASYNC_TIMEOUT_ATTRIBUTE = WebMvcConfig.class.getName() + ".asyncTimeout";
+
     private final JwtInterceptor jwtInterceptor;
 
     @Autowired
@@ -53,10 +66,17 @@ public class WebMvcConfig implements WebMvcConfigurer {
                         // 用户认证接口
                         "/user/login",
                         "/user/register",
-                        // 汇率、统计、分析等数据查询接口（公开）
-                        "/api/v1/rates/**",
+                        // 汇率、统计、分析等数据查询接口（公开；历史汇率导出 /api/v1/rates/export 需要登录）
+                        "/api/v1/rates/symbols",
+                        "/api/v1/rates/search",
+                        "/api/v1/rates/latest",
+                        "/api/v1/rates/stream",
+                        "/api/v1/rates/history",
+                        "/api/v1/rates/candles",
                         "/api/v1/stats/**",
                         "/api/v1/analysis/**",
+                        // WebSocket 推送通道（握手时由 WebSocketAuthInterceptor 自行认证）
+                        "/api/v1/ws",
                         // 模拟测试接口 (临时放行用于演示)
                         "/api/v1/admin/sim-feishu-alert",
                         // 前端页面路由
@@ -68,4 +88,24 @@ public class WebMvcConfig implements WebMvcConfigurer {
                         "/favicon.ico",
                         "/error");
     }
+
+    /**
+     * 配置异步请求处理
+     * <p>
+     * 全局使用容器默认的异步超时时间；请求中带有 {@link #ASYNC_TIMEOUT_ATTRIBUTE} 属性时，
+     * 在开始异步处理前改用该属性指定的超时时间。
+     * </p>
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object timeout = request.getAttribute(ASYNC_TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeout instanceof Long millis && request instanceof AsyncWebRequest asyncRequest) {
+                    asyncRequest.setTimeout(millis);
+                }
+            }
+        });
+    }
 }
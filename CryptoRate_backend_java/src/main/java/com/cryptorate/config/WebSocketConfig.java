@@ -0,0 +1,45 @@
+package com.cryptorate.config;
+
+import com.cryptorate.interceptor.WebSocketAuthInterceptor;
+import com.cryptorate.stream.RatePushHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket 配置类
+ *
+ * <p>
+ * 注册行情与告警推送通道 {@code /api/v1/ws}。握手时由 {@link WebSocketAuthInterceptor} 校验一次 JWT，
+ * 之后该连接上的消息不再逐条校验。允许的来源与 {@link CorsConfig} 保持一致。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    /** 推送通道路径 */
+    public static final String PUSH_PATH = "/api/v1/ws";
+
+    private final RatePushHandler ratePushHandler;
+    private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+
+    @Autowired
+    public WebSocketConfig(RatePushHandler ratePushHandler, WebSocketAuthInterceptor webSocketAuthInterceptor) {
+        this.ratePushHandler = ratePushHandler;
+        this.webSocketAuthInterceptor = webSocketAuthInterceptor;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(ratePushHandler, PUSH_PATH)
+                .addInterceptors(webSocketAuthInterceptor)
+                .setAllowedOriginPatterns("http://localhost:*", "http://127.0.0.1:*");
+    }
+}
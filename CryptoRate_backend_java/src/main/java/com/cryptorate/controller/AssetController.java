@@ -2,6 +2,7 @@ package com.cryptorate.controller;
 
 import com.cryptorate.common.R;
 import com.cryptorate.dto.AssetDTO;
+import com.cryptorate.dto.PortfolioDTO;
 import com.cryptorate.entity.UserAsset;
 import com.cryptorate.interceptor.JwtInterceptor;
 import com.cryptorate.service.AssetService;
@@ -25,6 +26,7 @@ import java.util.List;
  * <h3>接口列表：</h3>
  * <ul>
  * <li>GET /api/v1/assets — 查询当前用户的资产列表</li>
+ * <li>GET /api/v1/assets/portfolio — 查询当前用户的投资组合估值（明细 + 汇总）</li>
  * <li>POST /api/v1/assets — 添加/修改资产（同币种自动覆盖）</li>
  * <li>DELETE /api/v1/assets/{id} — 删除资产记录</li>
  * </ul>
@@ -72,6 +74,19 @@ public class AssetController {
         return R.ok(assets);
     }
 
+    /**
+     * 查询当前用户的投资组合估值
+     *
+     * <p>
+     * 接口: GET /api/v1/assets/portfolio
+     * </p>
+     */
+    @GetMapping("/portfolio")
+    public R<PortfolioDTO> getPortfolio(HttpServletRequest request) {
+        Long userId = getCurrentUserId(request);
+        return R.ok(assetService.getPortfolio(userId));
+    }
+
     /**
      * 添加/修改资产
      *
@@ -0,0 +1,268 @@
+package com.cryptorate.controller;
+
+import com.cryptorate.alert.AlertDispatcher;
+import com.cryptorate.briefing.DailyBriefingFanout;
+import com.cryptorate.cache.AiAnswerCache;
+import com.cryptorate.cache.ResponseBodyCache;
+import com.cryptorate.common.R;
+import com.cryptorate.http.HttpMetricsInterceptor;
+import com.cryptorate.http.HttpPoolMetrics;
+import com.cryptorate.ingest.RateHistoryWriter;
+import com.cryptorate.retention.RateHistoryRetentionManager;
+import com.cryptorate.scheduler.DailyBriefingScheduler;
+import com.cryptorate.service.CandleService;
+import com.cryptorate.service.CryptoMarketService;
+import com.cryptorate.stream.RatePushHandler;
+import com.cryptorate.stream.RateStreamBroadcaster;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数据维护控制器（管理员专用）
+ *
+ * <p>
+ * 提供历史汇率回补、K 线回补等数据维护操作，路径位于 /api/v1/admin 下，受 JwtInterceptor 的 ADMIN 角色校验保护。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/admin/maintenance")
+public class MaintenanceController {
+
+    private final CandleService candleService;
+    private final CryptoMarketService cryptoMarketService;
+    private final RateHistoryWriter rateHistoryWriter;
+    private final AlertDispatcher alertDispatcher;
+    private final HttpPoolMetrics httpPoolMetrics;
+    private final HttpMetricsInterceptor httpMetrics;
+    private final RateHistoryRetentionManager retentionManager;
+    private final DailyBriefingFanout briefingFanout;
+    private final DailyBriefingScheduler briefingScheduler;
+    private final ResponseBodyCache responseBodyCache;
+    private final RateStreamBroadcaster rateStreamBroadcaster;
+    private final RatePushHandler ratePushHandler;
+    private final AiAnswerCache aiAnswerCache;
+
+    @Autowired
+    public MaintenanceController(CandleService candleService, CryptoMarketService cryptoMarketService,
+            RateHistoryWriter rateHistoryWriter, AlertDispatcher alertDispatcher, HttpPoolMetrics httpPoolMetrics,
+            HttpMetricsInterceptor httpMetrics, RateHistoryRetentionManager retentionManager,
+            DailyBriefingFanout briefingFanout, DailyBriefingScheduler briefingScheduler,
+            ResponseBodyCache responseBodyCache, RateStreamBroadcaster rateStreamBroadcaster,
+            RatePushHandler ratePushHandler, AiAnswerCache aiAnswerCache) {
+        this.candleService = candleService;
+        this.cryptoMarketService = cryptoMarketService;
+        this.rateHistoryWriter = rateHistoryWriter;
+        this.alertDispatcher = alertDispatcher;
+        this.httpPoolMetrics = httpPoolMetrics;
+        this.httpMetrics = httpMetrics;
+        this.retentionManager = retentionManager;
+        this.briefingFanout = briefingFanout;
+        this.briefingScheduler = briefingScheduler;
+        this.responseBodyCache = responseBodyCache;
+        this.rateStreamBroadcaster = rateStreamBroadcaster;
+        this.ratePushHandler = ratePushHandler;
+        this.aiAnswerCache = aiAnswerCache;
+    }
+
+    /**
+     * 获取实时行情推送统计
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/stream/stats</p>
+     *
+     * @return 当前订阅数、断开与慢连接淘汰次数、推送与编码帧数
+     */
+    @GetMapping("/stream/stats")
+    public R<Map<String, Object>> getStreamStats() {
+        return R.ok(rateStreamBroadcaster.getStats());
+    }
+
+    /**
+     * 获取 WebSocket 推送通道统计
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/push/stats</p>
+     *
+     * @return 当前连接数、订阅索引规模、推送的变动与告警数、编码与写出的消息数
+     */
+    @GetMapping("/push/stats")
+    public R<Map<String, Object>> getPushStats() {
+        return R.ok(ratePushHandler.getStats());
+    }
+
+    /**
+     * 获取 AI 问答缓存统计
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/ai-cache/stats</p>
+     *
+     * @return 条目数、命中、合并与上游调用次数、命中率
+     */
+    @GetMapping("/ai-cache/stats")
+    public R<Map<String, Object>> getAiCacheStats() {
+        return R.ok(aiAnswerCache.getStats());
+    }
+
+    /**
+     * 获取预编码响应体缓存统计
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/response-cache/stats</p>
+     *
+     * @return 命中率、304 次数、gzip 响应次数与写出字节数
+     */
+    @GetMapping("/response-cache/stats")
+    public R<Map<String, Object>> getResponseCacheStats() {
+        return R.ok(responseBodyCache.getStats());
+    }
+
+    /**
+     * 获取 AI 每日简报推送统计
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/briefing/stats</p>
+     *
+     * @return 累计投递数与最近一次推送的完成耗时分布
+     */
+    @GetMapping("/briefing/stats")
+    public R<Map<String, Object>> getBriefingStats() {
+        return R.ok(briefingFanout.getStats());
+    }
+
+    /**
+     * 立即推送今天的 AI 每日简报（不受 scheduler.daily-briefing-enabled 开关影响）
+     *
+     * <p>接口: POST /api/v1/admin/maintenance/briefing/run?force=false</p>
+     * <p>推送在后台执行，接口立即返回；进度与结果通过 /briefing/stats 查看。</p>
+     *
+     * @param force 为 true 时即使今天已推送完成也重新推送投递失败的用户
+     * @return STARTED，已有推送进行中时为 ALREADY_RUNNING
+     */
+    @PostMapping("/briefing/run")
+    public R<Map<String, Object>> runBriefing(@RequestParam(defaultValue = "false") boolean force) {
+        log.info("管理员触发每日简报推送, force={}", force);
+        return R.ok(briefingScheduler.startNow(force));
+    }
+
+    /**
+     * 获取 rate_history 分区与数据保留统计
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/retention/stats</p>
+     *
+     * @return 累计预建 / 删除分区数、删除行数、降采样 K 线数、最近一次执行情况与当前分区列表
+     */
+    @GetMapping("/retention/stats")
+    public R<Map<String, Object>> getRetentionStats() {
+        return R.ok(retentionManager.getStats());
+    }
+
+    /**
+     * 立即执行一次分区维护（不受 cryptorate.retention.enabled 开关影响）
+     *
+     * <p>接口: POST /api/v1/admin/maintenance/retention/run</p>
+     *
+     * @return 本次执行结果
+     */
+    @PostMapping("/retention/run")
+    public R<Map<String, Object>> runRetention() {
+        log.info("管理员触发 rate_history 分区维护");
+        return R.ok(retentionManager.run());
+    }
+
+    /**
+     * 获取出站 HTTP 请求指标
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/http/metrics</p>
+     *
+     * @return 各端点耗时直方图、状态码计数、流量与 Coinlayer 额度
+     */
+    @GetMapping("/http/metrics")
+    public R<Map<String, Object>> getHttpMetrics() {
+        return R.ok(httpMetrics.getStats());
+    }
+
+    /**
+     * 获取出站 HTTP 连接池统计
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/http/stats</p>
+     *
+     * @return 连接池总量与按主机划分的新建 / 复用连接次数
+     */
+    @GetMapping("/http/stats")
+    public R<Map<String, Object>> getHttpStats() {
+        return R.ok(httpPoolMetrics.getStats());
+    }
+
+    /**
+     * 获取告警分发队列统计
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/alerts/stats</p>
+     *
+     * @return 队列深度、投递 / 重试 / 死信计数与延迟
+     */
+    @GetMapping("/alerts/stats")
+    public R<Map<String, Object>> getAlertStats() {
+        return R.ok(alertDispatcher.getStats());
+    }
+
+    /**
+     * 获取实时汇率缓存统计
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/live-cache/stats</p>
+     *
+     * @return 命中 / 过期命中 / 未命中 / 合并请求等计数
+     */
+    @GetMapping("/live-cache/stats")
+    public R<Map<String, Object>> getLiveCacheStats() {
+        return R.ok(cryptoMarketService.getRealTimeCacheStats());
+    }
+
+    /**
+     * 获取 rate_history 写入统计
+     *
+     * <p>接口: GET /api/v1/admin/maintenance/ingest/stats</p>
+     *
+     * @return 累计新增行数与去重行数
+     */
+    @GetMapping("/ingest/stats")
+    public R<Map<String, Object>> getIngestStats() {
+        return R.ok(rateHistoryWriter.getStats());
+    }
+
+    /**
+     * 从 Coinlayer 回补历史汇率（按智能采样策略选取日期）
+     *
+     * <p>接口: POST /api/v1/admin/maintenance/history/backfill?symbols=BTC,ETH&amp;days=365</p>
+     * <p>已完成的日期会被跳过，中断后再次调用即可从缺失的日期继续。</p>
+     *
+     * @param symbols 币种代码列表
+     * @param days    回溯天数（默认 365）
+     * @return 写入的记录数
+     */
+    @PostMapping("/history/backfill")
+    public R<Integer> backfillHistory(@RequestParam List<String> symbols,
+            @RequestParam(defaultValue = "365") int days) {
+        log.info("管理员触发历史汇率回补，币种: {}, 回溯天数: {}", symbols, days);
+        int count = cryptoMarketService.syncHistoricalRates(symbols, days);
+        return R.ok("历史汇率回补完成", count);
+    }
+
+    /**
+     * 从 rate_history 回补 K 线
+     *
+     * <p>接口: POST /api/v1/admin/maintenance/candles/backfill?days=365</p>
+     *
+     * @param days 回溯天数（默认 365）
+     * @return 写入的 K 线数量
+     */
+    @PostMapping("/candles/backfill")
+    public R<Integer> backfillCandles(@RequestParam(defaultValue = "365") int days) {
+        log.info("管理员触发 K 线回补，回溯天数: {}", days);
+        int count = candleService.backfill(days);
+        return R.ok("K 线回补完成", count);
+    }
+}
@@ -33,7 +33,7 @@ public class MarketController {
     /**
      * 获取所有加密货币的实时汇率
      * 
-     * <p>调用 Coinlayer API，返回所有加密货币相对于美元的汇率</p>
+     * <p>返回所有加密货币相对于美元的汇率（经过短时缓存，不会每次请求都调用 Coinlayer API）</p>
      * 
      * <h4>请求示例：</h4>
      * <pre>
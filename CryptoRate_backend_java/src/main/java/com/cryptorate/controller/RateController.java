@@ -1,13 +1,31 @@
 package com.cryptorate.controller;
 
+import com.cryptorate.cache.LatestRateStore;
+import com.cryptorate.cache.ResponseBodyCache;
+import com.cryptorate.cache.SymbolCatalog;
+import com.cryptorate.cache.SymbolRegistry;
 import com.cryptorate.common.R;
+import com.cryptorate.common.exception.ApiException;
+import com.cryptorate.config.WebMvcConfig;
+import com.cryptorate.dto.CandleSeriesDTO;
 import com.cryptorate.dto.HistoryRateDTO;
-import com.cryptorate.dto.LatestRateDTO;
+import com.cryptorate.service.CandleService;
+import com.cryptorate.interceptor.JwtInterceptor;
 import com.cryptorate.service.RateService;
+import com.cryptorate.stream.RateStreamBroadcaster;
+import com.cryptorate.utils.JwtPrincipal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -24,25 +42,45 @@ import java.util.List;
 @RequestMapping("/api/v1/rates")
 public class RateController {
 
+    /** 历史汇率导出的异步超时时间（毫秒） */
+    private static final long EXPORT_TIMEOUT_MS = 600_000L;
+
     private final RateService rateService;
+    private final CandleService candleService;
+    private final LatestRateStore latestRateStore;
+    private final SymbolRegistry symbolRegistry;
+    private final ResponseBodyCache responseBodyCache;
+    private final RateStreamBroadcaster rateStreamBroadcaster;
+    private final JwtInterceptor jwtInterceptor;
 
     @Autowired
-    public RateController(RateService rateService) {
+    public RateController(RateService rateService, CandleService candleService, LatestRateStore latestRateStore,
+            SymbolRegistry symbolRegistry, ResponseBodyCache responseBodyCache,
+            RateStreamBroadcaster rateStreamBroadcaster, JwtInterceptor jwtInterceptor) {
         this.rateService = rateService;
+        this.candleService = candleService;
+        this.latestRateStore = latestRateStore;
+        this.symbolRegistry = symbolRegistry;
+        this.responseBodyCache = responseBodyCache;
+        this.rateStreamBroadcaster = rateStreamBroadcaster;
+        this.jwtInterceptor = jwtInterceptor;
     }
 
     /**
      * 获取系统支持的币种
      * 
      * <p>接口: GET /api/v1/rates/symbols</p>
+     * <p>响应携带 ETag，请求头 If-None-Match 与当前版本一致时返回 304 且不带响应体</p>
+     * <p>响应体按目录版本预编码缓存，见 {@link ResponseBodyCache}</p>
      * 
+     * @param request 当前请求（用于 If-None-Match 比对）
      * @return 币种代码列表
      */
     @GetMapping("/symbols")
-    public R<List<String>> getSymbols() {
-        log.info("接收到获取币种列表请求");
-        List<String> symbols = rateService.getSupportedSymbols();
-        return R.ok(symbols);
+    public ResponseEntity<byte[]> getSymbols(WebRequest request) {
+        SymbolCatalog.Listing listing = rateService.getSupportedSymbols();
+        log.debug("接收到获取币种列表请求，共 {} 个币种，ETag: {}", listing.symbols().size(), listing.etag());
+        return responseBodyCache.serve("symbols", listing.version(), 0, listing.etag(), listing::symbols, request);
     }
 
     /**
@@ -66,15 +104,57 @@ public class RateController {
      * 
      * <p>接口: GET /api/v1/rates/latest</p>
      * <p>可选参数: symbol（筛选指定币种）</p>
+     * <p>响应体按最新汇率快照版本预编码缓存并携带 ETag，快照未更新时 If-None-Match 返回 304</p>
      * 
-     * @param symbol 币种代码（可选）
+     * @param symbol  币种代码（可选）
+     * @param request 当前请求（用于 If-None-Match 与 Accept-Encoding）
      * @return 最新汇率列表
      */
     @GetMapping("/latest")
-    public R<List<LatestRateDTO>> getLatestRates(@RequestParam(required = false) String symbol) {
-        log.info("接收到获取最新汇率请求，筛选币种: {}", symbol);
-        List<LatestRateDTO> rates = rateService.getLatestRates(symbol);
-        return R.ok(rates);
+    public ResponseEntity<byte[]> getLatestRates(@RequestParam(required = false) String symbol, WebRequest request) {
+        log.debug("接收到获取最新汇率请求，筛选币种: {}", symbol);
+        String filter = symbol != null ? symbol.trim() : "";
+        if (filter.isEmpty()) {
+            return responseBodyCache.serve("latest:", latestRateStore.current().getVersion(),
+                    () -> rateService.getLatestRates(null), request);
+        }
+        // 缓存键只使用字典中的币种代码；未知币种没有行情，结果都是空列表，共用一个条目
+        int id = symbolRegistry.find(filter);
+        if (id < 0) {
+            return responseBodyCache.serve("latest:?", latestRateStore.current().getVersion(), List::of, request);
+        }
+        String canonical = symbolRegistry.symbol(id);
+        return responseBodyCache.serve("latest:" + canonical, latestRateStore.current().getVersion(),
+                () -> rateService.getLatestRates(canonical), request);
+    }
+
+    /**
+     * 订阅实时行情推送（Server-Sent Events）
+     *
+     * <p>接口: GET /api/v1/rates/stream</p>
+     * <p>可选参数: symbols（逗号分隔，只接收这些币种）、favorites（true 时只接收当前登录用户收藏的币种，需携带 Token）</p>
+     * <p>连接建立后先收到 snapshot 事件（当前最新价），之后每次同步只推送价格发生变化的币种（rates 事件）</p>
+     *
+     * @param symbols       币种代码列表（可选）
+     * @param favorites     是否按收藏过滤
+     * @param authorization Authorization 请求头（favorites=true 时必填）
+     * @return SSE 连接
+     */
+    @GetMapping("/stream")
+    public SseEmitter streamRates(
+            @RequestParam(required = false) List<String> symbols,
+            @RequestParam(defaultValue = "false") boolean favorites,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Long favoriteUserId = null;
+        if (favorites) {
+            JwtPrincipal principal = jwtInterceptor.resolve(authorization);
+            if (principal == null) {
+                throw new ApiException(401, "按收藏订阅需要先登录");
+            }
+            favoriteUserId = principal.userId();
+        }
+        log.debug("接收到实时行情订阅请求，币种: {}, 按收藏: {}", symbols, favorites);
+        return rateStreamBroadcaster.subscribe(symbols, favoriteUserId);
     }
 
     /**
@@ -97,4 +177,64 @@ public class RateController {
         List<HistoryRateDTO> history = rateService.getHistoryRates(symbol, start, end);
         return R.ok(history);
     }
+
+    /**
+     * 查询 OHLC K 线（图表专用）
+     *
+     * <p>接口: GET /api/v1/rates/candles</p>
+     * <p>必填参数: symbol（币种代码）、start（开始日期）、end（结束日期）</p>
+     * <p>可选参数: interval（1h、1d、1w；不传时按时间范围自动选择）</p>
+     *
+     * @param symbol   币种代码
+     * @param start    开始日期（格式：yyyy-MM-dd）
+     * @param end      结束日期（格式：yyyy-MM-dd，包含当天）
+     * @param interval K 线周期（可选）
+     * @return K 线序列
+     */
+    @GetMapping("/candles")
+    public R<CandleSeriesDTO> getCandles(
+            @RequestParam String symbol,
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(required = false) String interval) {
+        log.info("接收到查询 K 线请求，币种: {}, 时间范围: {} - {}, 周期: {}", symbol, start, end, interval);
+        CandleSeriesDTO candles = candleService.getCandles(symbol, start, end, interval);
+        return R.ok(candles);
+    }
+
+    /**
+     * 流式导出历史汇率
+     *
+     * <p>接口: GET /api/v1/rates/export（需要登录）</p>
+     * <p>必填参数: symbols（逗号分隔的币种代码，最多 50 个）、start（开始日期）、end（结束日期），币种数 × 天数不超过 3660</p>
+     * <p>可选参数: format（ndjson 或 csv，默认 ndjson）</p>
+     * <p>结果按币种、时间排序边查边写，不在内存中组装完整结果，适合导出大范围数据。</p>
+     *
+     * @param symbols 币种代码列表
+     * @param start   开始日期（格式：yyyy-MM-dd）
+     * @param end     结束日期（格式：yyyy-MM-dd，包含当天）
+     * @param format  导出格式
+     * @param request 当前请求（用于设置本次导出的异步超时时间）
+     * @return 流式响应体
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportHistoryRates(
+            @RequestParam List<String> symbols,
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(defaultValue = "ndjson") String format,
+            WebRequest request) {
+        log.info("接收到导出历史汇率请求，币种: {}, 时间范围: {} - {}, 格式: {}", symbols, start, end, format);
+        StreamingResponseBody body = rateService.exportHistoryRates(symbols, start, end, format);
+        // 大范围导出在异步线程中写出需要较长时间，仅对本接口放宽异步超时
+        request.setAttribute(WebMvcConfig.ASYNC_TIMEOUT_ATTRIBUTE, EXPORT_TIMEOUT_MS, RequestAttributes.SCOPE_REQUEST);
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        String filename = "rate_history_" + start + "_" + end + (csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
 }
@@ -1,11 +1,14 @@
 package com.cryptorate.controller;
 
-import com.cryptorate.common.R;
-import com.cryptorate.dto.StatsSummaryDTO;
+import com.cryptorate.cache.LatestRateStore;
+import com.cryptorate.cache.ResponseBodyCache;
+import com.cryptorate.cache.SymbolRegistry;
 import com.cryptorate.service.StatsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * 数据统计分析控制器
@@ -21,29 +24,64 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/v1/stats")
 public class StatsController {
 
+    /**
+     * 统计摘要缓存的最长存活时间：没有新数据时滚动窗口也会随时间推移淘汰旧数据点，
+     * 缓存的摘要最多滞后这么久
+     */
+    private static final long SUMMARY_MAX_AGE_MS = 60_000;
+
     private final StatsService statsService;
+    private final LatestRateStore latestRateStore;
+    private final SymbolRegistry symbolRegistry;
+    private final ResponseBodyCache responseBodyCache;
 
     @Autowired
-    public StatsController(StatsService statsService) {
+    public StatsController(StatsService statsService, LatestRateStore latestRateStore,
+            SymbolRegistry symbolRegistry, ResponseBodyCache responseBodyCache) {
         this.statsService = statsService;
+        this.latestRateStore = latestRateStore;
+        this.symbolRegistry = symbolRegistry;
+        this.responseBodyCache = responseBodyCache;
     }
 
     /**
      * 获取汇率统计摘要
      * 
      * <p>接口: GET /api/v1/stats/summary/{symbol}</p>
-     * <p>查询参数: range（时间范围：7d、30d，默认 7d）</p>
+     * <p>查询参数: range（时间范围：24h、7d、30d，默认 7d）</p>
+     * <p>响应体按最新汇率快照版本预编码缓存，最长缓存 {@value #SUMMARY_MAX_AGE_MS} 毫秒；
+     * 字典中没有的币种不缓存</p>
      * 
-     * @param symbol 币种代码
-     * @param range  时间范围（7d、30d）
+     * @param symbol  币种代码
+     * @param range   时间范围（24h、7d、30d）
+     * @param request 当前请求（用于 If-None-Match 与 Accept-Encoding）
      * @return 统计摘要
      */
     @GetMapping("/summary/{symbol}")
-    public R<StatsSummaryDTO> getSummary(
+    public ResponseEntity<byte[]> getSummary(
             @PathVariable String symbol,
-            @RequestParam(defaultValue = "7d") String range) {
-        log.info("接收到获取统计摘要请求，币种: {}, 范围: {}", symbol, range);
-        StatsSummaryDTO summary = statsService.getSummary(symbol, range);
-        return R.ok(summary);
+            @RequestParam(defaultValue = "7d") String range,
+            WebRequest request) {
+        log.debug("接收到获取统计摘要请求，币种: {}, 范围: {}", symbol, range);
+        int id = symbolRegistry.find(symbol);
+        if (id < 0) {
+            // 缓存键不使用未经校验的输入
+            return responseBodyCache.serveUncached(() -> statsService.getSummary(symbol, range), request);
+        }
+        String canonical = symbolRegistry.symbol(id);
+        String window = normalizeRange(range);
+        return responseBodyCache.serve("stats:" + canonical + ":" + window, latestRateStore.current().getVersion(),
+                SUMMARY_MAX_AGE_MS, null, () -> statsService.getSummary(canonical, window), request);
+    }
+
+    /** 规范化时间范围，与 StatsServiceImpl 的取值一致：24h（含 1d）、30d，其余按 7d */
+    private static String normalizeRange(String range) {
+        if ("30d".equals(range)) {
+            return "30d";
+        }
+        if ("24h".equals(range) || "1d".equals(range)) {
+            return "24h";
+        }
+        return "7d";
     }
 }
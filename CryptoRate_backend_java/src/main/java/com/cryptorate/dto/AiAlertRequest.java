@@ -1,5 +1,6 @@
 package com.cryptorate.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,6 +30,7 @@ public class AiAlertRequest {
     /** 异动深度原因 (Mock/Real Reason) */
     private String reason;
 
-    /** 飞书 Webhook 地址 (可选) */
+    /** 飞书 Webhook 地址 (可选)，字段名与 Python 端 AlertRequest.webhook_url 保持一致 */
+    @JsonProperty("webhook_url")
     private String webhookUrl;
 }
@@ -0,0 +1,36 @@
+package com.cryptorate.dto;
+
+import lombok.Data;
+
+/**
+ * 行情异动订阅关系数据传输对象
+ *
+ * <p>一行代表"某个开启飞书预警的用户收藏了某个币种"，由一次联表查询批量加载。</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+public class AlertSubscriptionDTO {
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 用户的飞书 Webhook URL
+     */
+    private String feishuWebhook;
+
+    /**
+     * 收藏的币种代码
+     */
+    private String symbol;
+}
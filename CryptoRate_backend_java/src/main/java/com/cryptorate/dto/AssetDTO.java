@@ -35,12 +35,22 @@ public class AssetDTO {
     private BigDecimal cost;
 
     /**
-     * 当前价格（暂未对接实时行情时为 null）
+     * 当前价格（取自最新汇率快照，该币种暂无行情时为 null）
      */
     private BigDecimal currentPrice;
 
     /**
-     * 总价值（暂未对接实时行情时为 null）
+     * 总价值 = 持有数量 × 当前价格（无行情时为 null）
      */
     private BigDecimal totalValue;
+
+    /**
+     * 未实现盈亏 = 总价值 - 持仓总成本（无行情时为 null）
+     */
+    private BigDecimal profitLoss;
+
+    /**
+     * 未实现盈亏百分比（成本为 0 或无行情时为 null）
+     */
+    private BigDecimal profitLossPercent;
 }
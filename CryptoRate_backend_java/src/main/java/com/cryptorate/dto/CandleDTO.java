@@ -0,0 +1,46 @@
+package com.cryptorate.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * K 线数据传输对象
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+public class CandleDTO {
+
+    /**
+     * 周期起始时间戳（秒）
+     */
+    private Long time;
+
+    /**
+     * 周期起始时间（格式：yyyy-MM-dd HH:mm）
+     */
+    private String date;
+
+    /**
+     * 开盘价
+     */
+    private BigDecimal open;
+
+    /**
+     * 最高价
+     */
+    private BigDecimal high;
+
+    /**
+     * 最低价
+     */
+    private BigDecimal low;
+
+    /**
+     * 收盘价
+     */
+    private BigDecimal close;
+}
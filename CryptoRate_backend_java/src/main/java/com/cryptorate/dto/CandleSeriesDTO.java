@@ -0,0 +1,31 @@
+package com.cryptorate.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * K 线序列数据传输对象
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+public class CandleSeriesDTO {
+
+    /**
+     * 加密货币代码
+     */
+    private String symbol;
+
+    /**
+     * 实际使用的 K 线周期（1h / 1d / 1w）
+     */
+    private String interval;
+
+    /**
+     * K 线列表（按时间升序）
+     */
+    private List<CandleDTO> candles;
+}
@@ -0,0 +1,54 @@
+package com.cryptorate.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 投资组合估值数据传输对象
+ *
+ * <p>持仓明细与组合汇总，按同一版本的最新汇率快照计算。</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+public class PortfolioDTO {
+
+    /**
+     * 持仓明细（含当前价格、价值与未实现盈亏）
+     */
+    private List<AssetDTO> assets;
+
+    /**
+     * 组合总价值（只累加有行情的持仓）
+     */
+    private BigDecimal totalValue;
+
+    /**
+     * 有行情的持仓的总成本
+     */
+    private BigDecimal totalCost;
+
+    /**
+     * 组合未实现盈亏
+     */
+    private BigDecimal profitLoss;
+
+    /**
+     * 组合未实现盈亏百分比（总成本为 0 时为 null）
+     */
+    private BigDecimal profitLossPercent;
+
+    /**
+     * 暂无行情、未计入汇总的持仓数量
+     */
+    private Integer unpricedCount;
+
+    /**
+     * 估值所用的汇率快照版本
+     */
+    private Long rateVersion;
+}
@@ -0,0 +1,31 @@
+package com.cryptorate.dto;
+
+import lombok.Data;
+
+/**
+ * rate_history 分区信息数据传输对象
+ *
+ * <p>来自 information_schema.PARTITIONS，一行对应一个 RANGE 分区。</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+public class RateHistoryPartitionDTO {
+
+    /**
+     * 分区名（月分区为 pYYYYMM，兜底分区为 p_future）
+     */
+    private String name;
+
+    /**
+     * 分区上界（VALUES LESS THAN 的值，Unix 时间戳字符串；兜底分区为 MAXVALUE）
+     */
+    private String upperBound;
+
+    /**
+     * InnoDB 估算的行数
+     */
+    private Long tableRows;
+}
@@ -0,0 +1,38 @@
+package com.cryptorate.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 实时行情变动数据传输对象
+ *
+ * <p>实时推送中的一条价格变动，只包含本次发布中价格发生变化的币种</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+public class RateTickDTO {
+
+    /**
+     * 加密货币代码
+     */
+    private String symbol;
+
+    /**
+     * 最新汇率（相对于USD）
+     */
+    private BigDecimal rate;
+
+    /**
+     * 变动前的汇率，首次出现的币种为 null
+     */
+    private BigDecimal previousRate;
+
+    /**
+     * Unix 时间戳（秒）
+     */
+    private Long timestamp;
+}
@@ -0,0 +1,26 @@
+package com.cryptorate.dto;
+
+import lombok.Data;
+
+/**
+ * 币种收藏人数数据传输对象
+ *
+ * <p>一行代表一个币种被多少用户收藏，用作币种搜索结果的热度排序依据。</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+public class SymbolFavoriteCountDTO {
+
+    /**
+     * 币种代码
+     */
+    private String symbol;
+
+    /**
+     * 收藏该币种的用户数
+     */
+    private Integer favoriteCount;
+}
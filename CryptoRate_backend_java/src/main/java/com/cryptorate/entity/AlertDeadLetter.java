@@ -0,0 +1,45 @@
+package com.cryptorate.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 告警死信实体类
+ *
+ * <p>映射数据库中的 alert_dead_letter 表，记录重试耗尽或被拒绝入队的告警消息</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertDeadLetter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 主键ID */
+    private Long id;
+
+    /** 目标飞书 Webhook（为空表示使用默认 Webhook） */
+    private String webhookUrl;
+
+    /** 告警请求体（JSON） */
+    private String payload;
+
+    /** 已尝试投递次数 */
+    private Integer attempts;
+
+    /** 最后一次失败原因 */
+    private String lastError;
+
+    /** 进入死信的时间 */
+    private LocalDateTime createdAt;
+}
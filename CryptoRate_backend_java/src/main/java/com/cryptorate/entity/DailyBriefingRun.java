@@ -0,0 +1,55 @@
+package com.cryptorate.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 每日简报推送批次实体类
+ *
+ * <p>映射数据库中的 daily_briefing_run 表，每天一行，保存当天生成的简报内容与推送进度</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+public class DailyBriefingRun implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 推送中 */
+    public static final String STATUS_RUNNING = "RUNNING";
+
+    /** 所有用户均已尝试投递 */
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    /** 主键ID */
+    private Long id;
+
+    /** 简报日期 */
+    private LocalDate briefingDate;
+
+    /** 简报 Markdown 内容 */
+    private String content;
+
+    /** 状态：RUNNING / COMPLETED */
+    private String status;
+
+    /** 订阅用户数 */
+    private Integer userTotal;
+
+    /** 已投递成功的用户数 */
+    private Integer delivered;
+
+    /** 投递失败的用户数 */
+    private Integer failed;
+
+    /** 开始时间 */
+    private LocalDateTime startedAt;
+
+    /** 完成时间 */
+    private LocalDateTime finishedAt;
+}
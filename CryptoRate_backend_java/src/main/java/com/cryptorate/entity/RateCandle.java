@@ -0,0 +1,76 @@
+package com.cryptorate.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 汇率 K 线实体类
+ *
+ * <p>映射数据库中的 rate_candle 表，由 rate_history 降采样得到</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Data
+public class RateCandle implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID
+     */
+    private Long id;
+
+    /**
+     * 加密货币代码（如 BTC、ETH）
+     */
+    private String symbol;
+
+    /**
+     * K 线周期代码（1h / 1d / 1w）
+     */
+    private String intervalType;
+
+    /**
+     * 周期起始时间戳（秒）
+     */
+    private Long bucketStart;
+
+    /**
+     * 开盘价
+     */
+    private BigDecimal open;
+
+    /**
+     * 最高价
+     */
+    private BigDecimal high;
+
+    /**
+     * 最低价
+     */
+    private BigDecimal low;
+
+    /**
+     * 收盘价
+     */
+    private BigDecimal close;
+
+    /**
+     * 周期内最早采样时间戳（秒）
+     */
+    private Long firstTs;
+
+    /**
+     * 周期内最晚采样时间戳（秒）
+     */
+    private Long lastTs;
+
+    /**
+     * 参与聚合的采样点数
+     */
+    private Integer sampleCount;
+}
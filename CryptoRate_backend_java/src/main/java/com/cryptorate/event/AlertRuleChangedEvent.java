@@ -0,0 +1,35 @@
+package com.cryptorate.event;
+
+import lombok.Getter;
+
+/**
+ * 告警规则变更事件
+ *
+ * <p>
+ * 由 {@link com.cryptorate.service.AlertRuleService} 在规则新增、修改、删除成功后发布，
+ * 内存告警引擎监听该事件以保持索引与数据库一致。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Getter
+public class AlertRuleChangedEvent {
+
+    /** 变更类型 */
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+
+    /** 规则ID */
+    private final Long alertId;
+
+    /** 变更类型 */
+    private final Action action;
+
+    public AlertRuleChangedEvent(Long alertId, Action action) {
+        this.alertId = alertId;
+        this.action = action;
+    }
+}
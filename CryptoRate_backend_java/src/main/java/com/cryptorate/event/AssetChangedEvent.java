@@ -0,0 +1,26 @@
+package com.cryptorate.event;
+
+import lombok.Getter;
+
+/**
+ * 用户资产变更事件
+ *
+ * <p>
+ * 由 {@link com.cryptorate.service.AssetService} 在用户新增、修改或删除持仓后发布，
+ * 投资组合估值缓存监听该事件并立即失效该用户的持仓与估值结果。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Getter
+public class AssetChangedEvent {
+
+    /** 用户ID */
+    private final Long userId;
+
+    public AssetChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+}
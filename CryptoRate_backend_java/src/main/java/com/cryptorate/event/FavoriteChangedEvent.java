@@ -0,0 +1,26 @@
+package com.cryptorate.event;
+
+import lombok.Getter;
+
+/**
+ * 用户收藏变更事件
+ *
+ * <p>
+ * 由 {@link com.cryptorate.service.FavoriteService} 在用户新增或取消收藏后发布，
+ * 币种搜索索引监听该事件并在后台刷新各币种的收藏人数（搜索结果的热度排序依据）。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Getter
+public class FavoriteChangedEvent {
+
+    /** 用户ID */
+    private final Long userId;
+
+    public FavoriteChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,58 @@
+package com.cryptorate.event;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 价格告警触发事件
+ *
+ * <p>
+ * 由 {@link com.cryptorate.alert.PriceAlertEngine} 在规则触发、确认用户状态正常后发布（与飞书推送同时进行），
+ * WebSocket 推送通道监听该事件，把告警实时推送给该用户在线的连接。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Getter
+public class PriceAlertFiredEvent {
+
+    /** 规则ID */
+    private final Long alertId;
+
+    /** 用户ID */
+    private final Long userId;
+
+    /** 币种代码 */
+    private final String symbol;
+
+    /** 告警类型（PRICE_ABOVE / PRICE_BELOW） */
+    private final String alertType;
+
+    /** 目标价 */
+    private final BigDecimal targetValue;
+
+    /** 触发时的价格 */
+    private final BigDecimal price;
+
+    /** 告警说明 */
+    private final String reason;
+
+    /** 触发时间 */
+    private final LocalDateTime triggeredAt;
+
+    public PriceAlertFiredEvent(Long alertId, Long userId, String symbol, String alertType,
+            BigDecimal targetValue, BigDecimal price, String reason, LocalDateTime triggeredAt) {
+        this.alertId = alertId;
+        this.userId = userId;
+        this.symbol = symbol;
+        this.alertType = alertType;
+        this.targetValue = targetValue;
+        this.price = price;
+        this.reason = reason;
+        this.triggeredAt = triggeredAt;
+    }
+}
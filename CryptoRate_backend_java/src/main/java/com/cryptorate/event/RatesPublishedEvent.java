@@ -0,0 +1,38 @@
+package com.cryptorate.event;
+
+import com.cryptorate.cache.RateSnapshot;
+import com.cryptorate.entity.RateHistory;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 最新汇率快照发布事件
+ *
+ * <p>
+ * 由 {@link com.cryptorate.service.CryptoMarketService} 在新数据入库、发布新版本快照后发布，
+ * 实时行情推送监听该事件，把价格发生变化的币种推送给订阅者。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Getter
+public class RatesPublishedEvent {
+
+    /** 发布前的快照 */
+    private final RateSnapshot previous;
+
+    /** 发布后的快照 */
+    private final RateSnapshot current;
+
+    /** 本次写入的记录（变化的币种只可能在其中） */
+    private final List<RateHistory> written;
+
+    public RatesPublishedEvent(RateSnapshot previous, RateSnapshot current, List<RateHistory> written) {
+        this.previous = previous;
+        this.current = current;
+        this.written = written;
+    }
+}
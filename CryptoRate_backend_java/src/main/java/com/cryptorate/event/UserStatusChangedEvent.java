@@ -0,0 +1,26 @@
+package com.cryptorate.event;
+
+import lombok.Getter;
+
+/**
+ * 用户状态变更事件
+ *
+ * <p>
+ * 由 {@link com.cryptorate.service.UserService} 在管理员修改账号状态或删除账号后发布，
+ * 用户状态缓存监听该事件并立即失效对应条目，禁用操作无需等待缓存过期即可生效。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Getter
+public class UserStatusChangedEvent {
+
+    /** 用户ID */
+    private final Long userId;
+
+    public UserStatusChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+}
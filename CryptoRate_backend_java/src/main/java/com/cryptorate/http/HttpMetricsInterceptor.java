@@ -0,0 +1,313 @@
+package com.cryptorate.http;
+
+import com.cryptorate.config.CoinlayerConfig;
+import com.cryptorate.config.HttpClientConfig;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 出站 HTTP 指标拦截器
+ *
+ * <p>
+ * 替代 BODY 级别的 HttpLoggingInterceptor：不缓冲、不打印响应体，只记录
+ * </p>
+ * <ul>
+ * <li><b>耗时直方图</b>：按端点（方法 + 主机 + 归一化路径）统计到收到响应头的耗时分布</li>
+ * <li><b>状态码计数</b>：按端点统计各状态码次数，网络异常计为 {@code IOException}</li>
+ * <li><b>流量</b>：请求体字节数与响应体实际读取的字节数（包装响应流计数，不额外缓冲）</li>
+ * <li><b>Coinlayer 额度</b>：本月调用次数、429 次数，以及响应中 usage_limit_reached 错误</li>
+ * </ul>
+ * <p>
+ * 路径中的日期、数字和长令牌段（例如飞书 Webhook 令牌）会被归一化，查询参数（含 access_key）从不进入指标和日志。
+ * 需要查看响应内容时，把 {@code cryptorate.http.body-log-sample-rate} 调为大于 0
+ * 并开启本类的 DEBUG 日志，按比例抽样打印响应体的前若干字节。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class HttpMetricsInterceptor implements Interceptor {
+
+    /** 耗时直方图的桶上界（毫秒），最后一个桶收纳超过上界的请求 */
+    private static final long[] LATENCY_BUCKETS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    /** 检测 Coinlayer 额度错误时预读的响应字节数，错误响应很短，成功响应只读开头 */
+    private static final long QUOTA_PEEK_BYTES = 256;
+
+    private static final Pattern DATE_SEGMENT = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    private static final Pattern NUMBER_SEGMENT = Pattern.compile("\\d+");
+
+    /** 长度超过该值且含数字的路径段视为令牌 */
+    private static final int TOKEN_SEGMENT_LENGTH = 16;
+
+    private final HttpClientConfig httpClientConfig;
+    private final String quotaHost;
+    private final int monthlyQuota;
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final QuotaStats quota = new QuotaStats();
+
+    @Autowired
+    public HttpMetricsInterceptor(HttpClientConfig httpClientConfig, CoinlayerConfig coinlayerConfig) {
+        this.httpClientConfig = httpClientConfig;
+        HttpUrl baseUrl = coinlayerConfig.getBaseUrl() != null ? HttpUrl.parse(coinlayerConfig.getBaseUrl()) : null;
+        this.quotaHost = baseUrl != null ? baseUrl.host() : null;
+        this.monthlyQuota = coinlayerConfig.getMonthlyQuota();
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        String endpoint = endpointOf(request);
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        if (request.body() != null && request.body().contentLength() > 0) {
+            stats.bytesOut.add(request.body().contentLength());
+        }
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            stats.record("IOException", System.nanoTime() - start);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        stats.record(String.valueOf(response.code()), elapsed);
+
+        if (request.url().host().equals(quotaHost)) {
+            trackQuota(response);
+        }
+        if (log.isDebugEnabled() && sampled()) {
+            logSample(endpoint, response, elapsed);
+        }
+
+        ResponseBody body = response.body();
+        if (body == null) {
+            return response;
+        }
+        return response.newBuilder().body(new CountingResponseBody(body, stats.bytesIn)).build();
+    }
+
+    /**
+     * @return 各端点的耗时直方图、状态码计数、流量，以及 Coinlayer 额度使用情况
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> perEndpoint = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> perEndpoint.put(endpoint, stats.snapshot()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("endpoints", perEndpoint);
+        result.put("coinlayerQuota", quota.snapshot(monthlyQuota));
+        return result;
+    }
+
+    private void trackQuota(Response response) throws IOException {
+        quota.rollMonth();
+        if (response.code() == 429) {
+            quota.rejected.increment();
+            quota.exhaustedAt.set(System.currentTimeMillis());
+            return;
+        }
+        if (!response.isSuccessful()) {
+            return;
+        }
+        // Coinlayer 对每次成功的 HTTP 请求计费，额度用尽时仍返回 200，错误放在响应体中
+        quota.used.increment();
+        String head = response.peekBody(QUOTA_PEEK_BYTES).string();
+        if (head.contains("usage_limit_reached") || head.contains("\"code\":104")) {
+            quota.exhaustedAt.set(System.currentTimeMillis());
+        }
+    }
+
+    private boolean sampled() {
+        double rate = httpClientConfig.getBodyLogSampleRate();
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private void logSample(String endpoint, Response response, long elapsedNanos) throws IOException {
+        MediaType contentType = response.body() != null ? response.body().contentType() : null;
+        // 流式响应预读会阻塞到对端输出足够字节，不参与抽样
+        if (contentType != null && "event-stream".equals(contentType.subtype())) {
+            return;
+        }
+        String body = response.peekBody(httpClientConfig.getBodyLogMaxBytes()).string();
+        log.debug("[HTTP] {} -> {}（{} ms）响应体前 {} 字节: {}", endpoint, response.code(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), httpClientConfig.getBodyLogMaxBytes(), body);
+    }
+
+    /** 方法 + 主机 + 归一化路径，查询参数不参与 */
+    private static String endpointOf(Request request) {
+        StringBuilder sb = new StringBuilder(request.method()).append(' ').append(request.url().host());
+        for (String segment : request.url().pathSegments()) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            sb.append('/');
+            if (DATE_SEGMENT.matcher(segment).matches()) {
+                sb.append("{date}");
+            } else if (NUMBER_SEGMENT.matcher(segment).matches()) {
+                sb.append("{id}");
+            } else if (segment.length() >= TOKEN_SEGMENT_LENGTH && segment.chars().anyMatch(Character::isDigit)) {
+                sb.append("{token}");
+            } else {
+                sb.append(segment);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** 单个端点的累计指标 */
+    private static final class EndpointStats {
+
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS_MS.length + 1];
+        private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+
+        EndpointStats() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(String status, long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int i = 0;
+            while (i < LATENCY_BUCKETS_MS.length && millis > LATENCY_BUCKETS_MS[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> snapshot() {
+            long n = count.sum();
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+                histogram.put("le" + LATENCY_BUCKETS_MS[i], buckets[i].sum());
+            }
+            histogram.put("gt" + LATENCY_BUCKETS_MS[LATENCY_BUCKETS_MS.length - 1], buckets[LATENCY_BUCKETS_MS.length].sum());
+
+            Map<String, Long> statusCounts = new TreeMap<>();
+            statuses.forEach((status, adder) -> statusCounts.put(status, adder.sum()));
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", n);
+            map.put("avgMs", n > 0 ? TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / n) : 0);
+            map.put("maxMs", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+            map.put("latencyMs", histogram);
+            map.put("status", statusCounts);
+            map.put("bytesIn", bytesIn.sum());
+            map.put("bytesOut", bytesOut.sum());
+            return map;
+        }
+    }
+
+    /** Coinlayer 按自然月计算的额度使用情况 */
+    private static final class QuotaStats {
+
+        private volatile YearMonth month = YearMonth.now();
+        private final LongAdder used = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final AtomicLong exhaustedAt = new AtomicLong();
+
+        void rollMonth() {
+            YearMonth now = YearMonth.now();
+            if (!now.equals(month)) {
+                synchronized (this) {
+                    if (!now.equals(month)) {
+                        used.reset();
+                        rejected.reset();
+                        exhaustedAt.set(0);
+                        month = now;
+                    }
+                }
+            }
+        }
+
+        Map<String, Object> snapshot(int monthlyQuota) {
+            rollMonth();
+            long callsUsed = used.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("month", month.toString());
+            map.put("used", callsUsed);
+            map.put("limit", monthlyQuota);
+            map.put("remaining", Math.max(0, monthlyQuota - callsUsed));
+            map.put("rejected", rejected.sum());
+            map.put("exhausted", exhaustedAt.get() > 0);
+            return map;
+        }
+    }
+
+    /** 统计实际读取字节数的响应体包装，数据仍按流读取，不做缓冲 */
+    private static final class CountingResponseBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        CountingResponseBody(ResponseBody delegate, LongAdder counter) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(@NotNull Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        counter.add(read);
+                    }
+                    return read;
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @NotNull
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
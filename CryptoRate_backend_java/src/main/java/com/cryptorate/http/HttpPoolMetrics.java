@@ -0,0 +1,138 @@
+package com.cryptorate.http;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 出站连接池统计
+ *
+ * <p>
+ * 作为 OkHttp 的 {@link EventListener.Factory} 挂在共享客户端上，按目标主机统计：
+ * </p>
+ * <ul>
+ * <li><b>calls / failures</b>：请求总数与失败数</li>
+ * <li><b>newConnections / reusedConnections</b>：新建 TCP 连接与复用连接池中已有连接的次数</li>
+ * <li><b>inUse</b>：当前正被请求占用的连接数</li>
+ * </ul>
+ * <p>
+ * 复用率低说明 keep-alive 没有生效（例如对端频繁断开连接或空闲时间设置过短）。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Component
+public class HttpPoolMetrics implements EventListener.Factory {
+
+    private final ConnectionPool connectionPool;
+    private final Map<String, HostStats> hosts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HttpPoolMetrics(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallListener(hosts.computeIfAbsent(call.request().url().host(), k -> new HostStats()));
+    }
+
+    /**
+     * @return 连接池总量与按主机划分的连接复用统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> perHost = new TreeMap<>();
+        hosts.forEach((host, stats) -> perHost.put(host, stats.snapshot()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("connections", connectionPool.connectionCount());
+        result.put("idleConnections", connectionPool.idleConnectionCount());
+        result.put("hosts", perHost);
+        return result;
+    }
+
+    /** 单个主机的累计统计 */
+    private static final class HostStats {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder newConnections = new LongAdder();
+        private final LongAdder reusedConnections = new LongAdder();
+        private final AtomicInteger inUse = new AtomicInteger();
+
+        Map<String, Object> snapshot() {
+            long created = newConnections.sum();
+            long reused = reusedConnections.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("calls", calls.sum());
+            map.put("failures", failures.sum());
+            map.put("newConnections", created);
+            map.put("reusedConnections", reused);
+            map.put("reuseRate", created + reused > 0 ? Math.round(reused * 1000.0 / (created + reused)) / 1000.0 : 0);
+            map.put("inUse", inUse.get());
+            return map;
+        }
+    }
+
+    /**
+     * 单次调用的事件监听
+     *
+     * <p>获取连接前发生过 connectStart 说明本次新建了连接，否则是从连接池复用的。
+     * 重定向或重试可能在一次调用中多次获取连接，每次分别计数。</p>
+     */
+    private static final class CallListener extends EventListener {
+
+        private final HostStats stats;
+        private boolean connecting;
+
+        CallListener(HostStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            stats.calls.increment();
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connecting = true;
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            if (connecting) {
+                stats.newConnections.increment();
+                connecting = false;
+            } else {
+                stats.reusedConnections.increment();
+            }
+            stats.inUse.incrementAndGet();
+        }
+
+        @Override
+        public void connectionReleased(Call call, Connection connection) {
+            stats.inUse.decrementAndGet();
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            stats.failures.increment();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.cryptorate.http;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于共享 {@link OkHttpClient} 的 {@link ClientHttpRequestFactory}
+ *
+ * <p>
+ * 让 {@link org.springframework.web.client.RestTemplate} 与 Coinlayer 调用共用同一个 OkHttp 连接池。
+ * Spring 6.1 起 {@code OkHttp3ClientHttpRequestFactory} 已标记为待移除，这里用一个简单的适配器代替：
+ * 请求体先缓冲为字节数组，执行时转换为 OkHttp 请求；响应体直接以流的形式交给 RestTemplate 读取。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+public class OkHttpRequestFactory implements ClientHttpRequestFactory {
+
+    /** OkHttp 要求必须携带请求体的方法 */
+    private static final Set<HttpMethod> BODY_REQUIRED = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH);
+
+    private final OkHttpClient client;
+
+    public OkHttpRequestFactory(OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new OkHttpRequest(client, uri, httpMethod);
+    }
+
+    /**
+     * 缓冲请求体，执行时一次性发出
+     */
+    private static final class OkHttpRequest extends AbstractClientHttpRequest {
+
+        private final OkHttpClient client;
+        private final URI uri;
+        private final HttpMethod method;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        OkHttpRequest(OkHttpClient client, URI uri, HttpMethod method) {
+            this.client = client;
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            byte[] content = body.toByteArray();
+            MediaType contentType = headers.getContentType();
+            RequestBody requestBody = content.length > 0 || BODY_REQUIRED.contains(method)
+                    ? RequestBody.create(content, contentType != null ? okhttp3.MediaType.parse(contentType.toString()) : null)
+                    : null;
+
+            Request.Builder builder = new Request.Builder().url(uri.toURL()).method(method.name(), requestBody);
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                for (String value : header.getValue()) {
+                    builder.addHeader(header.getKey(), value);
+                }
+            }
+            return new OkHttpResponse(client.newCall(builder.build()).execute());
+        }
+    }
+
+    /**
+     * OkHttp 响应适配，关闭时释放连接回连接池
+     */
+    private static final class OkHttpResponse implements ClientHttpResponse {
+
+        private final Response response;
+        private HttpHeaders headers;
+
+        OkHttpResponse(Response response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(response.code());
+        }
+
+        @Override
+        public String getStatusText() {
+            return response.message();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                HttpHeaders copy = new HttpHeaders();
+                for (String name : response.headers().names()) {
+                    for (String value : response.headers(name)) {
+                        copy.add(name, value);
+                    }
+                }
+                headers = copy;
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            ResponseBody responseBody = response.body();
+            return responseBody != null ? responseBody.byteStream() : InputStream.nullInputStream();
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
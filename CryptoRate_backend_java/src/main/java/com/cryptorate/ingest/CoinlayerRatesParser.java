@@ -0,0 +1,260 @@
+package com.cryptorate.ingest;
+
+import com.cryptorate.cache.SymbolRegistry;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+
+/**
+ * Coinlayer 响应流式解析器
+ *
+ * <p>
+ * 直接从响应 {@link InputStream} 逐个 token 读取 {@code /live} 与历史接口的 JSON，
+ * 不先读成字符串、也不构造 {@code Map<String, BigDecimal>}：
+ * </p>
+ * <ul>
+ * <li><b>币种</b>：Jackson 对字段名做了规范化，同一币种每次拿到的是同一个 String 实例，
+ * 经 {@link SymbolRegistry} 换成 int ID</li>
+ * <li><b>价格</b>：直接从数字的字符缓冲区解析为放大 10<sup>8</sup> 倍的 long，不创建 BigDecimal；
+ * 只有超过 8 位小数、使用科学计数法或超出 long 范围的报价才另外保留原始精度的 BigDecimal</li>
+ * </ul>
+ * <p>
+ * 结果写入调用方提供的 {@link RateColumns}，调用方可以复用同一个缓冲区。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class CoinlayerRatesParser {
+
+    /** 10 的 0 ~ 18 次幂 */
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    /** 解析结果超出 long 范围时的标记值 */
+    private static final long OVERFLOW = RateColumns.OVERFLOW;
+
+    private final JsonFactory jsonFactory;
+    private final SymbolRegistry symbolRegistry;
+
+    @Autowired
+    public CoinlayerRatesParser(ObjectMapper objectMapper, SymbolRegistry symbolRegistry) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * 解析一个 Coinlayer 响应
+     *
+     * @param in  响应体输入流（由调用方关闭）
+     * @param out 接收汇率的缓冲区，解析前会被清空；timestamp 取自响应
+     * @return 响应头部字段（success、error）
+     * @throws IOException 读取失败或 JSON 格式错误
+     */
+    public Header parse(InputStream in, RateColumns out) throws IOException {
+        out.clear();
+        boolean success = false;
+        Integer errorCode = null;
+        String errorInfo = null;
+
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Coinlayer 响应不是 JSON 对象");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "success" -> success = value == JsonToken.VALUE_TRUE;
+                    case "timestamp" -> out.setTimestamp(parser.getValueAsLong());
+                    case "rates" -> readRates(parser, out);
+                    case "error" -> {
+                        if (value == JsonToken.START_OBJECT) {
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                String name = parser.currentName();
+                                parser.nextToken();
+                                if ("code".equals(name)) {
+                                    errorCode = parser.getValueAsInt();
+                                } else if ("info".equals(name)) {
+                                    errorInfo = parser.getValueAsString();
+                                } else {
+                                    parser.skipChildren();
+                                }
+                            }
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new Header(success, errorCode, errorInfo);
+    }
+
+    private void readRates(JsonParser parser, RateColumns out) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String symbol = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.VALUE_NUMBER_INT && value != JsonToken.VALUE_NUMBER_FLOAT) {
+                parser.skipChildren();
+                continue;
+            }
+            char[] buf = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            int length = parser.getTextLength();
+            long scaled = toScaledLong(buf, offset, length);
+            BigDecimal exact = null;
+            if (scaled == OVERFLOW || mayExceedScale(buf, offset, length)) {
+                BigDecimal value = parser.getDecimalValue();
+                if (scaled == OVERFLOW || value.compareTo(BigDecimal.valueOf(scaled, RateColumns.PRICE_SCALE)) != 0) {
+                    exact = value;
+                }
+                if (scaled == OVERFLOW) {
+                    log.warn("[CoinlayerParser] {} 的价格 {} 超出入库精度范围，只用于实时汇率", symbol, value);
+                }
+            }
+            out.add(symbolRegistry.intern(symbol), scaled, exact);
+        }
+    }
+
+    /**
+     * @return 数字文本是否可能超过 8 位小数（小数位数超过 8 位或使用科学计数法）
+     */
+    static boolean mayExceedScale(char[] buf, int offset, int length) {
+        int end = offset + length;
+        int point = -1;
+        for (int i = offset; i < end; i++) {
+            char c = buf[i];
+            if (c == 'e' || c == 'E') {
+                return true;
+            }
+            if (c == '.') {
+                point = i;
+            }
+        }
+        return point >= 0 && end - point - 1 > RateColumns.PRICE_SCALE;
+    }
+
+    /**
+     * 把 JSON 数字文本解析为放大 10<sup>8</sup> 倍的 long（四舍五入），支持小数与科学计数法
+     *
+     * @return 解析结果，超出 long 范围时返回 {@link #OVERFLOW}
+     */
+    static long toScaledLong(char[] buf, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            negative = buf[i] == '-';
+            i++;
+        }
+
+        // 尾数最多保留 18 位有效数字，其余位数只影响十进制指数
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        int roundDigit = 0;
+        for (; i < end; i++) {
+            char c = buf[i];
+            if (c == '.') {
+                fraction = true;
+                continue;
+            }
+            if (c == 'e' || c == 'E') {
+                break;
+            }
+            int d = c - '0';
+            if (digits < 18) {
+                if (mantissa != 0 || d != 0) {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + d;
+                if (fraction) {
+                    exponent--;
+                }
+            } else {
+                if (roundDigit == 0 && digits == 18) {
+                    roundDigit = d;
+                    digits++;
+                }
+                if (!fraction) {
+                    exponent++;
+                }
+            }
+        }
+        if (i < end) {
+            // 科学计数法的指数部分
+            i++;
+            boolean negExp = false;
+            if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+                negExp = buf[i] == '-';
+                i++;
+            }
+            int exp = 0;
+            for (; i < end && exp < 1000; i++) {
+                exp = exp * 10 + (buf[i] - '0');
+            }
+            exponent += negExp ? -exp : exp;
+        }
+        if (roundDigit >= 5) {
+            mantissa++;
+        }
+
+        int shift = exponent + RateColumns.PRICE_SCALE;
+        long result;
+        if (shift >= 0) {
+            if (mantissa == 0) {
+                return 0;
+            }
+            if (shift >= POW10.length) {
+                return OVERFLOW;
+            }
+            try {
+                result = Math.multiplyExact(mantissa, POW10[shift]);
+            } catch (ArithmeticException e) {
+                return OVERFLOW;
+            }
+        } else if (-shift >= POW10.length) {
+            result = 0;
+        } else {
+            long divisor = POW10[-shift];
+            result = mantissa / divisor;
+            if ((mantissa % divisor) * 2 >= divisor) {
+                result++;
+            }
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * 响应头部字段
+     *
+     * @param success   请求是否成功
+     * @param errorCode 错误码（success=false 时存在）
+     * @param errorInfo 错误描述
+     */
+    public record Header(boolean success, Integer errorCode, String errorInfo) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.cryptorate.ingest;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * 汇率列式缓冲区
+ *
+ * <p>
+ * 一次采样的所有汇率以两列基本类型数组保存：币种 ID（见 {@link com.cryptorate.cache.SymbolRegistry}）
+ * 和放大 10<sup>8</sup> 倍后的价格（与 rate_history.rate 的 8 位小数一致）。
+ * 缓冲区可反复 {@link #clear()} 后复用，稳定运行时不再分配新数组。
+ * </p>
+ * <p>
+ * 超过 8 位小数或超出 long 范围的报价另存一份原始精度的 {@link BigDecimal}：
+ * 入库与告警使用 {@link #price(int)}，对外返回的实时汇率使用 {@link #exactPrice(int)}，
+ * 极小币价不会被四舍五入成 0。
+ * </p>
+ * <p>
+ * 非线程安全，由持有者保证同一时刻只有一个线程读写。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+public final class RateColumns {
+
+    /** 价格的小数位数 */
+    public static final int PRICE_SCALE = 8;
+
+    /** 放大后超出 long 范围时的标记值，此类行只有原始精度价格，不能入库 */
+    public static final long OVERFLOW = Long.MIN_VALUE;
+
+    private int[] symbolIds;
+    private long[] prices;
+    private int size;
+
+    /** 行号 -> 原始精度价格，仅在放大后有精度损失时存在，首次需要时分配 */
+    private BigDecimal[] exactPrices;
+
+    /** 币种 ID -> 行号 + 1（0 表示本批没有该币种） */
+    private int[] rowBySymbol = new int[0];
+
+    /** 本批数据的采样时间（Unix 秒） */
+    private long timestamp;
+
+    public RateColumns() {
+        this(512);
+    }
+
+    public RateColumns(int initialCapacity) {
+        this.symbolIds = new int[Math.max(16, initialCapacity)];
+        this.prices = new long[symbolIds.length];
+    }
+
+    /**
+     * 清空数据，保留已分配的数组
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            rowBySymbol[symbolIds[i]] = 0;
+        }
+        if (exactPrices != null) {
+            Arrays.fill(exactPrices, 0, Math.min(size, exactPrices.length), null);
+        }
+        size = 0;
+        timestamp = 0;
+    }
+
+    /**
+     * 追加一行，同一币种重复出现时以最后一次为准
+     *
+     * @param symbolId    币种 ID
+     * @param scaledPrice 放大 10<sup>8</sup> 倍后的价格
+     */
+    public void add(int symbolId, long scaledPrice) {
+        add(symbolId, scaledPrice, null);
+    }
+
+    /**
+     * 追加一行，并保存放大后有精度损失的原始价格
+     *
+     * @param symbolId    币种 ID
+     * @param scaledPrice 放大 10<sup>8</sup> 倍后的价格，超出范围时为 {@link #OVERFLOW}
+     * @param exactPrice  原始精度价格，与 scaledPrice 等值时传 null
+     */
+    public void add(int symbolId, long scaledPrice, BigDecimal exactPrice) {
+        if (symbolId >= rowBySymbol.length) {
+            rowBySymbol = Arrays.copyOf(rowBySymbol, Math.max(symbolId + 1, rowBySymbol.length * 2));
+        }
+        int existing = rowBySymbol[symbolId];
+        if (existing > 0) {
+            prices[existing - 1] = scaledPrice;
+            setExact(existing - 1, exactPrice);
+            return;
+        }
+        if (size == symbolIds.length) {
+            symbolIds = Arrays.copyOf(symbolIds, size * 2);
+            prices = Arrays.copyOf(prices, size * 2);
+        }
+        symbolIds[size] = symbolId;
+        prices[size] = scaledPrice;
+        setExact(size, exactPrice);
+        rowBySymbol[symbolId] = ++size;
+    }
+
+    private void setExact(int row, BigDecimal exactPrice) {
+        if (exactPrice == null && (exactPrices == null || row >= exactPrices.length)) {
+            return;
+        }
+        if (exactPrices == null || row >= exactPrices.length) {
+            exactPrices = exactPrices == null
+                    ? new BigDecimal[symbolIds.length]
+                    : Arrays.copyOf(exactPrices, symbolIds.length);
+        }
+        exactPrices[row] = exactPrice;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @param row 行号
+     * @return 该行的币种 ID
+     */
+    public int symbolId(int row) {
+        return symbolIds[row];
+    }
+
+    /**
+     * @param row 行号
+     * @return 该行放大 10<sup>8</sup> 倍后的价格
+     */
+    public long scaledPrice(int row) {
+        return prices[row];
+    }
+
+    /**
+     * 把该行价格还原为 8 位小数精度的 BigDecimal（去掉末尾多余的 0），与 rate_history 中保存的值一致
+     *
+     * @param row 行号
+     * @return 价格；超出 long 范围的行返回原始精度价格
+     */
+    public BigDecimal price(int row) {
+        if (prices[row] == OVERFLOW) {
+            return exactPrice(row);
+        }
+        BigDecimal price = BigDecimal.valueOf(prices[row], PRICE_SCALE).stripTrailingZeros();
+        return price.scale() < 0 ? price.setScale(0) : price;
+    }
+
+    /**
+     * @param row 行号
+     * @return 上游返回的原始精度价格，用于对外输出的实时汇率
+     */
+    public BigDecimal exactPrice(int row) {
+        BigDecimal exact = exactPrices != null && row < exactPrices.length ? exactPrices[row] : null;
+        return exact != null ? exact : price(row);
+    }
+
+    /**
+     * @param row 行号
+     * @return 该行价格能否写入 rate_history（放大后未超出 long 范围）
+     */
+    public boolean isStorable(int row) {
+        return prices[row] != OVERFLOW;
+    }
+
+    /**
+     * @param symbolId 币种 ID
+     * @return 该币种所在行号，本批没有该币种时返回 -1
+     */
+    public int rowOf(int symbolId) {
+        return symbolId >= 0 && symbolId < rowBySymbol.length ? rowBySymbol[symbolId] - 1 : -1;
+    }
+}
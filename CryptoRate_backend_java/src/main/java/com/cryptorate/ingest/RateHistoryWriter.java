@@ -0,0 +1,327 @@
+package com.cryptorate.ingest;
+
+import com.cryptorate.cache.SymbolCatalog;
+import com.cryptorate.cache.SymbolRegistry;
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.mapper.RateHistoryMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * rate_history 批量写入器
+ *
+ * <p>
+ * 同步流程与历史回补写入 rate_history 的唯一入口（实时同步直接传入解析得到的 {@link RateColumns}）。
+ * 依赖 (symbol, timestamp) 唯一索引，同一数据点无论重复写入多少次都只保留一条。
+ * </p>
+ *
+ * <h3>写入流程（按固定大小分块，每块一个事务）：</h3>
+ * <ol>
+ * <li>批次内按 (symbol, timestamp) 去重</li>
+ * <li>一次索引查询找出数据库中已存在的数据点并剔除</li>
+ * <li>剩余数据在 {@link ExecutorType#BATCH} 会话中逐条执行同一条预编译的
+ * INSERT ... ON DUPLICATE KEY UPDATE，驱动开启 rewriteBatchedStatements 后改写为多值 INSERT 发送，
+ * 既不用拼接巨型 SQL，也不会超过 max_allowed_packet</li>
+ * </ol>
+ * <p>
+ * 返回真正新增的记录，下游的快照、滚动统计和 K 线只处理新数据，重试几乎没有额外开销。
+ * 每块提交后把其中的新币种登记到 {@link SymbolCatalog}。
+ * </p>
+ * <p>
+ * 实时同步与并行回补共用本写入器：第 2、3 步在同一把锁内完成，进程内两个写入方不会同时认领同一数据点。
+ * 驱动返回逐行影响行数时以其为准（重复键为 0）；开启 rewriteBatchedStatements 后驱动只返回
+ * SUCCESS_NO_INFO，此时以锁内预查询结果为准。多实例部署时预查询无法跨进程互斥，
+ * {@code inserted} 统计与返回结果应视为"尝试写入"的数据点。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class RateHistoryWriter {
+
+    /** 每个事务写入的行数 */
+    private static final int CHUNK_SIZE = 1000;
+
+    /** 每行除 symbol、rate 外的固定字节数估算（timestamp + created_at） */
+    private static final int FIXED_ROW_BYTES = 16;
+
+    private final RateHistoryMapper rateHistoryMapper;
+    private final SqlSessionFactory sqlSessionFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final SymbolRegistry symbolRegistry;
+    private final SymbolCatalog symbolCatalog;
+
+    private final LongAdder inserted = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+
+    /** 最近一块的写入速率（行/秒） */
+    private volatile double lastRowsPerSecond;
+
+    /** 串行化"预查询 + 写入"，避免实时同步与回补线程重复认领同一数据点 */
+    private final ReentrantLock chunkLock = new ReentrantLock();
+
+    @Autowired
+    public RateHistoryWriter(RateHistoryMapper rateHistoryMapper,
+            SqlSessionFactory sqlSessionFactory,
+            PlatformTransactionManager transactionManager,
+            SymbolRegistry symbolRegistry,
+            SymbolCatalog symbolCatalog) {
+        this.rateHistoryMapper = rateHistoryMapper;
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.symbolRegistry = symbolRegistry;
+        this.symbolCatalog = symbolCatalog;
+    }
+
+    /**
+     * 写入一批汇率记录
+     *
+     * @param histories 待写入的记录
+     * @return 真正新增的记录（已存在或批次内重复的记录被剔除）
+     */
+    public List<RateHistory> write(List<RateHistory> histories) {
+        if (histories == null || histories.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 批次内去重，同一数据点保留第一次出现的记录
+        Map<String, RateHistory> unique = new LinkedHashMap<>();
+        for (RateHistory history : histories) {
+            unique.putIfAbsent(keyOf(history.getSymbol(), history.getTimestamp()), history);
+        }
+        List<RateHistory> candidates = new ArrayList<>(unique.values());
+
+        List<RateHistory> written = new ArrayList<>(candidates.size());
+        for (int from = 0; from < candidates.size(); from += CHUNK_SIZE) {
+            List<RateHistory> chunk = candidates.subList(from, Math.min(from + CHUNK_SIZE, candidates.size()));
+            List<RateHistory> fresh;
+            chunkLock.lock();
+            try {
+                fresh = writeChunk(excludeExisting(chunk));
+            } finally {
+                chunkLock.unlock();
+            }
+            if (!fresh.isEmpty()) {
+                symbolCatalog.register(fresh);
+                written.addAll(fresh);
+            }
+        }
+
+        int skipped = histories.size() - written.size();
+        inserted.add(written.size());
+        deduplicated.add(skipped);
+        if (skipped > 0) {
+            log.debug("[RateWriter] 本批 {} 条，新增 {} 条，跳过重复 {} 条", histories.size(), written.size(), skipped);
+        }
+        return written;
+    }
+
+    /**
+     * 写入一次采样的列式数据
+     *
+     * <p>
+     * 列内的币种已唯一，所有行共享同一时间戳，按块查询已存在的数据点后，
+     * 只为真正需要写入的行创建 {@link RateHistory}。
+     * </p>
+     *
+     * @param columns 同一时间戳的汇率
+     * @return 真正新增的记录
+     */
+    public List<RateHistory> write(RateColumns columns) {
+        if (columns == null || columns.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long timestamp = columns.getTimestamp();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<RateHistory> written = new ArrayList<>(columns.size());
+        for (int from = 0; from < columns.size(); from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, columns.size());
+            List<String> symbols = new ArrayList<>(to - from);
+            for (int row = from; row < to; row++) {
+                symbols.add(symbolRegistry.symbol(columns.symbolId(row)));
+            }
+
+            List<RateHistory> fresh;
+            chunkLock.lock();
+            try {
+                BitSet existing = new BitSet(columns.size());
+                for (RateHistory row : rateHistoryMapper.selectExistingKeys(symbols, List.of(timestamp))) {
+                    int index = columns.rowOf(symbolRegistry.find(row.getSymbol()));
+                    if (index >= 0) {
+                        existing.set(index);
+                    }
+                }
+
+                List<RateHistory> missing = new ArrayList<>(to - from);
+                for (int row = from; row < to; row++) {
+                    if (existing.get(row) || !columns.isStorable(row)) {
+                        continue;
+                    }
+                    RateHistory history = new RateHistory();
+                    history.setSymbol(symbols.get(row - from));
+                    history.setRate(columns.price(row));
+                    history.setTimestamp(timestamp);
+                    history.setCreatedAt(now);
+                    missing.add(history);
+                }
+                fresh = writeChunk(missing);
+            } finally {
+                chunkLock.unlock();
+            }
+            if (!fresh.isEmpty()) {
+                symbolCatalog.register(fresh);
+                written.addAll(fresh);
+            }
+        }
+
+        int skipped = columns.size() - written.size();
+        inserted.add(written.size());
+        deduplicated.add(skipped);
+        if (skipped > 0) {
+            log.debug("[RateWriter] 本批 {} 条，新增 {} 条，跳过重复 {} 条", columns.size(), written.size(), skipped);
+        }
+        return written;
+    }
+
+    /**
+     * @return 写入统计（新增 / 去重行数、事务块数、估算字节数与写入速率）
+     */
+    public Map<String, Object> getStats() {
+        long rows = inserted.sum();
+        long nanos = writeNanos.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inserted", rows);
+        stats.put("deduplicated", deduplicated.sum());
+        stats.put("chunks", chunks.sum());
+        stats.put("bytes", bytes.sum());
+        stats.put("writeMs", TimeUnit.NANOSECONDS.toMillis(nanos));
+        stats.put("rowsPerSecond", nanos > 0 ? Math.round(rows * 1e9 / nanos) : 0);
+        stats.put("lastRowsPerSecond", Math.round(lastRowsPerSecond));
+        return stats;
+    }
+
+    /**
+     * 在一个事务内以 BATCH 执行器写入一块数据
+     *
+     * @return 实际插入的行；驱动未返回逐行影响行数时即为传入的全部行
+     */
+    private List<RateHistory> writeChunk(List<RateHistory> rows) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        long start = System.nanoTime();
+        List<BatchResult> results = transactionTemplate.execute(status -> {
+            try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+                RateHistoryMapper batchMapper = session.getMapper(RateHistoryMapper.class);
+                for (RateHistory row : rows) {
+                    batchMapper.upsert(row);
+                }
+                return session.flushStatements();
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+
+        long chunkBytes = 0;
+        for (RateHistory row : rows) {
+            chunkBytes += row.getSymbol().length() + row.getRate().toPlainString().length() + FIXED_ROW_BYTES;
+        }
+        chunks.increment();
+        bytes.add(chunkBytes);
+        writeNanos.add(elapsed);
+        lastRowsPerSecond = elapsed > 0 ? rows.size() * 1e9 / elapsed : 0;
+        log.debug("[RateWriter] 写入 {} 行（约 {} 字节），耗时 {} ms",
+                rows.size(), chunkBytes, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return insertedRows(rows, results);
+    }
+
+    /**
+     * 按批量更新计数筛出实际插入的行
+     *
+     * <p>ON DUPLICATE KEY UPDATE id = id 命中已存在的键时影响行数为 0；
+     * 任一计数为 SUCCESS_NO_INFO（多值 INSERT 改写）时无法逐行判定，返回全部行。</p>
+     */
+    private static List<RateHistory> insertedRows(List<RateHistory> rows, List<BatchResult> results) {
+        if (results == null) {
+            return rows;
+        }
+        int[] counts = new int[rows.size()];
+        int next = 0;
+        for (BatchResult result : results) {
+            for (int count : result.getUpdateCounts()) {
+                if (count < 0 || next >= counts.length) {
+                    return rows;
+                }
+                counts[next++] = count;
+            }
+        }
+        if (next != counts.length) {
+            return rows;
+        }
+
+        List<RateHistory> inserted = new ArrayList<>(rows.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                inserted.add(rows.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    /** 剔除数据库中已存在的数据点 */
+    private List<RateHistory> excludeExisting(List<RateHistory> chunk) {
+        Set<String> symbols = new LinkedHashSet<>();
+        Set<Long> timestamps = new LinkedHashSet<>();
+        for (RateHistory history : chunk) {
+            symbols.add(history.getSymbol());
+            timestamps.add(history.getTimestamp());
+        }
+
+        Set<String> existing = new HashSet<>();
+        for (RateHistory row : rateHistoryMapper.selectExistingKeys(symbols, timestamps)) {
+            existing.add(keyOf(row.getSymbol(), row.getTimestamp()));
+        }
+        if (existing.isEmpty()) {
+            return chunk;
+        }
+
+        List<RateHistory> fresh = new ArrayList<>(chunk.size());
+        for (RateHistory history : chunk) {
+            if (!existing.contains(keyOf(history.getSymbol(), history.getTimestamp()))) {
+                fresh.add(history);
+            }
+        }
+        return fresh;
+    }
+
+    private static String keyOf(String symbol, Long timestamp) {
+        return symbol + '|' + timestamp;
+    }
+}
@@ -1,6 +1,8 @@
 package com.cryptorate.interceptor;
 
-import com.cryptorate.mapper.UserMapper;
+import com.cryptorate.cache.TokenPrincipalCache;
+import com.cryptorate.cache.UserStatusCache;
+import com.cryptorate.utils.JwtPrincipal;
 import com.cryptorate.utils.JwtUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,7 +28,8 @@ import java.util.Map;
  * <h3>工作流程：</h3>
  * <ol>
  * <li>从请求头 {@code Authorization} 中读取 Token（格式：{@code Bearer <token>}）</li>
- * <li>调用 {@link JwtUtils#validateToken} 校验 Token 有效性</li>
+ * <li>先查 {@link TokenPrincipalCache}，未命中时调用 {@link JwtUtils#authenticate} 验签一次并缓存</li>
+ * <li>通过 {@link UserStatusCache} 校验账号状态，状态变更时缓存立即失效</li>
  * <li>校验通过：将 userId 存入 {@link HttpServletRequest} 属性，供 Controller 使用</li>
  * <li>校验失败：直接写入 JSON 响应（HTTP 401），阻止请求继续传递</li>
  * </ol>
@@ -62,13 +65,16 @@ public class JwtInterceptor implements HandlerInterceptor {
 
     private final JwtUtils jwtUtils;
     private final ObjectMapper objectMapper;
-    private final UserMapper userMapper;
+    private final TokenPrincipalCache principalCache;
+    private final UserStatusCache userStatusCache;
 
     @Autowired
-    public JwtInterceptor(JwtUtils jwtUtils, ObjectMapper objectMapper, UserMapper userMapper) {
+    public JwtInterceptor(JwtUtils jwtUtils, ObjectMapper objectMapper,
+            TokenPrincipalCache principalCache, UserStatusCache userStatusCache) {
         this.jwtUtils = jwtUtils;
         this.objectMapper = objectMapper;
-        this.userMapper = userMapper;
+        this.principalCache = principalCache;
+        this.userStatusCache = userStatusCache;
     }
 
     /**
@@ -117,17 +123,22 @@ public class JwtInterceptor implements HandlerInterceptor {
         // 3. 提取 Token（去除 "Bearer " 前缀）
         String token = authHeader.substring(BEARER_PREFIX.length());
 
-        // 4. 校验 Token 有效性
-        if (!jwtUtils.validateToken(token)) {
-            log.warn("请求 [{}] 携带了无效的 JWT Token", requestURI);
-            writeUnauthorizedResponse(response, "Token 无效或已过期，请重新登录");
-            return false;
+        // 4. 校验 Token 有效性（已验签的 Token 直接命中缓存，未命中时只解析一次）
+        JwtPrincipal principal = principalCache.get(token);
+        if (principal == null) {
+            principal = jwtUtils.authenticate(token);
+            if (principal == null) {
+                log.warn("请求 [{}] 携带了无效的 JWT Token", requestURI);
+                writeUnauthorizedResponse(response, "Token 无效或已过期，请重新登录");
+                return false;
+            }
+            principalCache.put(token, principal);
         }
 
         // 5. Token 有效：提取用户信息
-        Long userId = jwtUtils.getUserIdFromToken(token);
-        String username = jwtUtils.getUsernameFromToken(token);
-        String role = jwtUtils.getRoleFromToken(token);
+        Long userId = principal.userId();
+        String username = principal.username();
+        String role = principal.role();
 
         // 6. 管理员路径校验
         if (requestURI.contains("/admin/") && !"ADMIN".equals(role)) {
@@ -137,8 +148,8 @@ public class JwtInterceptor implements HandlerInterceptor {
         }
 
         // 7. 账号状态校验（实时拦截 DISABLED 用户）
-        com.cryptorate.entity.User user = userMapper.selectById(userId);
-        if (user == null || "DISABLED".equals(user.getStatus())) {
+        String status = userStatusCache.getStatus(userId);
+        if (status == null || "DISABLED".equals(status)) {
             log.warn("拦截请求：账号 {} 已被禁用或不存在", username);
             writeForbiddenResponse(response, "账号已被禁用或不存在，请联系管理员");
             return false;
@@ -151,6 +162,31 @@ public class JwtInterceptor implements HandlerInterceptor {
         return true;
     }
 
+    /**
+     * 识别不经过本拦截器的请求（公开接口、WebSocket 握手等）中携带的登录身份
+     *
+     * <p>校验规则与 {@link #preHandle} 相同：Token 有效且账号未被禁用时返回身份，否则返回 null。</p>
+     *
+     * @param authHeader Authorization 请求头（格式：{@code Bearer <token>}）
+     * @return 已登录用户的身份，未登录或校验失败时返回 null
+     */
+    public JwtPrincipal resolve(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        String token = authHeader.substring(BEARER_PREFIX.length());
+        JwtPrincipal principal = principalCache.get(token);
+        if (principal == null) {
+            principal = jwtUtils.authenticate(token);
+            if (principal == null) {
+                return null;
+            }
+            principalCache.put(token, principal);
+        }
+        String status = userStatusCache.getStatus(principal.userId());
+        return status == null || "DISABLED".equals(status) ? null : principal;
+    }
+
     /**
      * 向响应中写入 403 禁止访问的 JSON 错误信息
      */
@@ -0,0 +1,79 @@
+package com.cryptorate.interceptor;
+
+import com.cryptorate.stream.RatePushHandler;
+import com.cryptorate.utils.JwtPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * WebSocket 握手认证拦截器
+ *
+ * <p>
+ * 推送通道只在握手时校验一次 JWT（复用 {@link JwtInterceptor#resolve} 的验签缓存与账号状态校验），
+ * 校验通过后把用户ID存入会话属性，连接上的后续消息不再重复校验。
+ * </p>
+ *
+ * <p>
+ * 浏览器的 WebSocket API 无法设置请求头，因此除 {@code Authorization: Bearer <token>} 外，
+ * 也接受查询参数 {@code ?token=<token>}。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class WebSocketAuthInterceptor implements HandshakeInterceptor {
+
+    /** 查询参数中的 Token 名称 */
+    private static final String TOKEN_PARAM = "token";
+
+    private final JwtInterceptor jwtInterceptor;
+    private final RatePushHandler ratePushHandler;
+
+    @Autowired
+    public WebSocketAuthInterceptor(JwtInterceptor jwtInterceptor, RatePushHandler ratePushHandler) {
+        this.jwtInterceptor = jwtInterceptor;
+        this.ratePushHandler = ratePushHandler;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null) {
+            String token = UriComponentsBuilder.fromUri(request.getURI()).build()
+                    .getQueryParams().getFirst(TOKEN_PARAM);
+            authHeader = token != null ? "Bearer " + token : null;
+        }
+        JwtPrincipal principal = jwtInterceptor.resolve(authHeader);
+        if (principal == null) {
+            log.debug("[WebSocket] 握手认证失败: {}", request.getRemoteAddress());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        if (ratePushHandler.isFull()) {
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return false;
+        }
+        attributes.put(RatePushHandler.ATTR_USER_ID, principal.userId());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Exception exception) {
+        // 无需处理
+    }
+}
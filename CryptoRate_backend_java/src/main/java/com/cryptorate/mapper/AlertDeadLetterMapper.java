@@ -0,0 +1,23 @@
+package com.cryptorate.mapper;
+
+import com.cryptorate.entity.AlertDeadLetter;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 告警死信数据访问接口
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Mapper
+public interface AlertDeadLetterMapper {
+
+    /**
+     * 写入一条死信
+     *
+     * @param deadLetter 死信记录
+     * @return 影响的行数
+     */
+    int insert(AlertDeadLetter deadLetter);
+}
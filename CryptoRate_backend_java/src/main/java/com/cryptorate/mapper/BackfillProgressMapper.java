@@ -0,0 +1,36 @@
+package com.cryptorate.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 历史数据回补进度访问接口
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Mapper
+public interface BackfillProgressMapper {
+
+    /**
+     * 查询某个回补任务已完成的日期
+     *
+     * @param jobKey 任务标识（由币种列表计算）
+     * @return 已完成的日期列表
+     */
+    List<LocalDate> selectCompletedDates(@Param("jobKey") String jobKey);
+
+    /**
+     * 批量标记日期已完成（重复标记时只更新完成时间）
+     *
+     * @param jobKey 任务标识
+     * @param dates  已写入数据库的日期
+     * @return 影响的行数
+     */
+    int batchMarkCompleted(@Param("jobKey") String jobKey, @Param("dates") Collection<LocalDate> dates);
+}
@@ -0,0 +1,65 @@
+package com.cryptorate.mapper;
+
+import com.cryptorate.entity.DailyBriefingRun;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 每日简报推送进度访问接口
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Mapper
+public interface DailyBriefingMapper {
+
+    /**
+     * 查询某天的推送批次
+     *
+     * @param briefingDate 简报日期
+     * @return 批次记录，不存在时返回 null
+     */
+    DailyBriefingRun selectRun(@Param("briefingDate") LocalDate briefingDate);
+
+    /**
+     * 登记推送批次（当天已存在时忽略）
+     *
+     * @param run 批次记录
+     * @return 影响的行数，0 表示当天的批次已由其他实例登记
+     */
+    int insertRun(DailyBriefingRun run);
+
+    /**
+     * 更新推送进度
+     *
+     * @param run 批次记录（按 briefingDate 定位）
+     * @return 影响的行数
+     */
+    int updateRunProgress(DailyBriefingRun run);
+
+    /**
+     * 查询某天已投递成功的用户
+     *
+     * @param briefingDate 简报日期
+     * @return 用户ID列表
+     */
+    List<Long> selectDeliveredUserIds(@Param("briefingDate") LocalDate briefingDate);
+
+    /**
+     * 登记单个用户的投递结果（重复登记时覆盖）
+     *
+     * @param briefingDate 简报日期
+     * @param userId       用户ID
+     * @param status       SENT / FAILED
+     * @param attempts     本次执行的尝试次数
+     * @param lastError    最后一次失败原因（成功时为 null）
+     * @return 影响的行数
+     */
+    int upsertDelivery(@Param("briefingDate") LocalDate briefingDate, @Param("userId") Long userId,
+                       @Param("status") String status, @Param("attempts") int attempts,
+                       @Param("lastError") String lastError);
+}
@@ -4,6 +4,7 @@ import com.cryptorate.entity.PriceAlert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -24,6 +25,9 @@ public interface PriceAlertMapper {
     /** 触发后更新触发时间 */
     int updateLastTriggered(@Param("id") Long id);
 
+    /** 批量回写触发时间（告警引擎按周期合并冷却状态后一次性落库） */
+    int batchUpdateLastTriggered(@Param("ids") List<Long> ids, @Param("triggeredAt") LocalDateTime triggeredAt);
+
     /** 物理删除或通过 id 获取 */
     PriceAlert selectById(@Param("id") Long id);
 
@@ -36,6 +40,9 @@ public interface PriceAlertMapper {
      */
     List<PriceAlert> findActiveAlertsBySymbol(@Param("symbol") String symbol);
 
+    /** 启动时一次性加载全部 ACTIVE 规则，供内存告警引擎建立索引 */
+    List<PriceAlert> selectAllActive();
+
     /** 批量删除 */
     int deleteById(@Param("id") Long id, @Param("userId") Long userId);
 }
@@ -0,0 +1,50 @@
+package com.cryptorate.mapper;
+
+import com.cryptorate.entity.RateCandle;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 汇率 K 线数据访问接口
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Mapper
+public interface RateCandleMapper {
+
+    /**
+     * 批量合并 K 线（增量模式）
+     *
+     * <p>已存在的 K 线按 最高/最低取极值、开盘取更早采样、收盘取更晚采样 的规则合并。</p>
+     *
+     * @param list K 线列表
+     * @return 影响的行数
+     */
+    int batchMerge(@Param("list") List<RateCandle> list);
+
+    /**
+     * 批量覆盖 K 线（回补模式，以 rate_history 重新计算的结果为准）
+     *
+     * @param list K 线列表
+     * @return 影响的行数
+     */
+    int batchReplace(@Param("list") List<RateCandle> list);
+
+    /**
+     * 查询指定币种、周期在时间范围内的 K 线
+     *
+     * @param symbol       币种代码
+     * @param intervalType 周期代码
+     * @param startTime    开始时间戳
+     * @param endTime      结束时间戳
+     * @return K 线列表（按时间升序）
+     */
+    List<RateCandle> selectBySymbolAndRange(@Param("symbol") String symbol,
+                                            @Param("intervalType") String intervalType,
+                                            @Param("startTime") Long startTime,
+                                            @Param("endTime") Long endTime);
+}
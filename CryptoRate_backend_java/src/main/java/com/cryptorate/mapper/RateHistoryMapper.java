@@ -3,8 +3,10 @@ package com.cryptorate.mapper;
 import com.cryptorate.entity.RateHistory;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -26,19 +28,28 @@ public interface RateHistoryMapper {
     int insert(RateHistory rateHistory);
 
     /**
-     * 批量插入汇率历史记录
+     * 写入单条汇率历史记录（幂等）
      *
-     * @param list 汇率历史记录列表
-     * @return 影响的行数
+     * <p>依赖 (symbol, timestamp) 唯一索引，已存在的数据点保持不变。
+     * 由 {@code RateHistoryWriter} 在 BATCH 执行器中调用，驱动开启 rewriteBatchedStatements
+     * 后会把一个批次改写为多值 INSERT 发送。</p>
+     *
+     * @param rateHistory 汇率历史记录
+     * @return 影响的行数（BATCH 执行器下无意义）
      */
-    int batchInsert(@Param("list") List<RateHistory> list);
+    int upsert(RateHistory rateHistory);
 
     /**
-     * 获取所有支持的币种代码
+     * 查询已存在的数据点（只返回 symbol 与 timestamp）
      *
-     * @return 币种代码列表
+     * <p>结果是 symbols × timestamps 组合中已存在的部分，调用方需按 (symbol, timestamp) 精确比对。</p>
+     *
+     * @param symbols    币种代码集合
+     * @param timestamps 时间戳集合
+     * @return 已存在的数据点
      */
-    List<String> selectAllSymbols();
+    List<RateHistory> selectExistingKeys(@Param("symbols") Collection<String> symbols,
+                                         @Param("timestamps") Collection<Long> timestamps);
 
     /**
      * 获取指定币种的最新汇率记录
@@ -67,6 +78,21 @@ public interface RateHistoryMapper {
                                                    @Param("startTime") Long startTime,
                                                    @Param("endTime") Long endTime);
 
+    /**
+     * 流式读取多个币种在指定时间范围内的历史汇率
+     *
+     * <p>使用 MySQL 流式结果集逐行回调，不在内存中缓存结果列表，适用于大范围导出。</p>
+     *
+     * @param symbols   币种代码列表
+     * @param startTime 开始时间戳
+     * @param endTime   结束时间戳
+     * @param handler   逐行回调
+     */
+    void streamBySymbolsAndTimeRange(@Param("symbols") List<String> symbols,
+                                     @Param("startTime") Long startTime,
+                                     @Param("endTime") Long endTime,
+                                     ResultHandler<RateHistory> handler);
+
     /**
      * 获取指定币种在指定时间范围内的最大值
      *
@@ -0,0 +1,61 @@
+package com.cryptorate.mapper;
+
+import com.cryptorate.dto.RateHistoryPartitionDTO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * rate_history 分区维护访问接口
+ *
+ * <p>分区名与分区上界由 {@code RateHistoryRetentionJob} 根据月份计算生成，不接受外部输入。</p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Mapper
+public interface RateHistoryPartitionMapper {
+
+    /**
+     * 查询 rate_history 的全部分区（按分区顺序）
+     *
+     * @return 分区列表，表未分区时为空
+     */
+    List<RateHistoryPartitionDTO> selectPartitions();
+
+    /**
+     * 查询早于指定时间的最早数据点时间戳
+     *
+     * @param before 时间上界（不含）
+     * @return 最早时间戳，无数据时返回 null
+     */
+    Long selectMinTimestampBefore(@Param("before") long before);
+
+    /**
+     * 把兜底分区拆分为若干月分区 + 新的兜底分区
+     *
+     * @param source     兜底分区名
+     * @param partitions 新月分区：name -> 上界时间戳（按上界递增排列）
+     */
+    void reorganizeFuturePartition(@Param("source") String source,
+                                   @Param("partitions") Map<String, Long> partitions);
+
+    /**
+     * 删除分区（连同分区内的数据）
+     *
+     * @param name 分区名
+     */
+    void dropPartition(@Param("name") String name);
+
+    /**
+     * 未分区的表：分批删除早于指定时间的数据点
+     *
+     * @param before 时间上界（不含）
+     * @param limit  本批最多删除的行数
+     * @return 删除的行数
+     */
+    int deleteBefore(@Param("before") long before, @Param("limit") int limit);
+}
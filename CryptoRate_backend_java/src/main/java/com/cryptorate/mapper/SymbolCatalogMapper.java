@@ -0,0 +1,41 @@
+package com.cryptorate.mapper;
+
+import com.cryptorate.entity.RateHistory;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 币种目录访问接口
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Mapper
+public interface SymbolCatalogMapper {
+
+    /**
+     * 获取全部币种代码
+     *
+     * @return 按字母序排列的币种代码
+     */
+    List<String> selectAllSymbols();
+
+    /**
+     * 批量登记新币种，已登记的币种忽略
+     *
+     * @param rows 每个币种第一次写入的数据点（取 symbol 与 timestamp）
+     * @return 新登记的行数
+     */
+    int batchInsertIgnore(@Param("rows") Collection<RateHistory> rows);
+
+    /**
+     * 从 rate_history 初始化目录（对历史表做一次分组扫描，只在目录为空时调用）
+     *
+     * @return 新登记的行数
+     */
+    int initFromHistory();
+}
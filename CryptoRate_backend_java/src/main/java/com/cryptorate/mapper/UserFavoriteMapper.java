@@ -1,5 +1,7 @@
 package com.cryptorate.mapper;
 
+import com.cryptorate.dto.AlertSubscriptionDTO;
+import com.cryptorate.dto.SymbolFavoriteCountDTO;
 import com.cryptorate.entity.UserFavorite;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -47,6 +49,16 @@ public interface UserFavoriteMapper {
      */
     List<String> selectSymbolsByUserId(@Param("userId") Long userId);
 
+    /**
+     * 一次性查询所有开启飞书预警的活跃用户及其收藏币种（用户 -> 币种 映射）
+     */
+    List<AlertSubscriptionDTO> selectAlertSubscriptions();
+
+    /**
+     * 统计每个币种的收藏人数
+     */
+    List<SymbolFavoriteCountDTO> selectFavoriteCounts();
+
     /**
      * 更新备注
      */
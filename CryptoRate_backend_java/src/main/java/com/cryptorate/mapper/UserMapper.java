@@ -4,6 +4,9 @@ import com.cryptorate.entity.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 用户数据访问接口
  * 
@@ -76,6 +79,14 @@ public interface UserMapper {
      */
     User selectById(@Param("id") Long id);
 
+    /**
+     * 根据 ID 列表批量查询用户
+     *
+     * @param ids 用户ID列表（不能为空）
+     * @return 用户列表
+     */
+    List<User> selectByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * 根据用户名查询用户
      * 
@@ -98,19 +109,19 @@ public interface UserMapper {
      * @param keyword 搜索关键字（用户名或邮箱）
      * @return 用户列表
      */
-    java.util.List<User> selectAll(@Param("keyword") String keyword);
+    List<User> selectAll(@Param("keyword") String keyword);
 
     /**
      * 获取所有开启了飞书预警的用户列表
      *
      * @return 开启预警的用户列表
      */
-    java.util.List<User> selectUsersWithFeishuAlertEnabled();
+    List<User> selectUsersWithFeishuAlertEnabled();
 
     /**
      * 获取所有订阅了 AI 每日简报的用户列表
      *
      * @return 订阅简报的用户列表
      */
-    java.util.List<User> selectUsersWithDailyBriefingEnabled();
+    List<User> selectUsersWithDailyBriefingEnabled();
 }
@@ -0,0 +1,260 @@
+package com.cryptorate.retention;
+
+import com.cryptorate.config.RetentionConfig;
+import com.cryptorate.dto.RateHistoryPartitionDTO;
+import com.cryptorate.mapper.RateHistoryPartitionMapper;
+import com.cryptorate.service.CandleService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * rate_history 分区与数据保留管理
+ *
+ * <p>
+ * rate_history 按 timestamp 做月度 RANGE 分区（见 sql/alter_rate_history_partition.sql），
+ * 按币种 + 时间范围的查询只会扫描相关月份的分区。本类负责分区的日常维护：
+ * </p>
+ * <ol>
+ * <li><b>预建分区</b>：把兜底分区 p_future 拆出未来若干个月的分区，保证新数据总是落在月分区中</li>
+ * <li><b>降采样</b>：整月早于保留期的原始数据，先通过 {@link CandleService#compact} 用完整原始数据重算该月的
+ * 1h / 1d / 1w K 线（rate_candle 即降采样层）</li>
+ * <li><b>删除</b>：再 DROP 整个分区，代价与行数无关，不产生大事务和碎片</li>
+ * </ol>
+ * <p>
+ * 尚未执行分区迁移的表默认不删除任何数据，只记录警告；开启 {@code cryptorate.retention.delete-unpartitioned}
+ * 后才会在降采样后按批 DELETE 过期数据。每次执行的结果计入统计，可通过 {@link #getStats()} 查看。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class RateHistoryRetentionManager {
+
+    /** 兜底分区的上界 */
+    private static final String MAXVALUE = "MAXVALUE";
+
+    /** 滚动统计需要最近 30 天的原始数据，保留期不能更短 */
+    private static final int MIN_RETENTION_DAYS = 31;
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final RateHistoryPartitionMapper partitionMapper;
+    private final CandleService candleService;
+    private final RetentionConfig config;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder partitionsCreated = new LongAdder();
+    private final LongAdder partitionsDropped = new LongAdder();
+    private final LongAdder rowsRemoved = new LongAdder();
+    private final LongAdder candlesCompacted = new LongAdder();
+
+    private volatile long lastRunAt;
+    private volatile long lastDurationMs;
+    private volatile long lastCutoff;
+    private volatile String lastError;
+
+    @Autowired
+    public RateHistoryRetentionManager(RateHistoryPartitionMapper partitionMapper, CandleService candleService,
+            RetentionConfig config) {
+        this.partitionMapper = partitionMapper;
+        this.candleService = candleService;
+        this.config = config;
+    }
+
+    /**
+     * 执行一次维护：预建分区、降采样并删除过期的整月原始数据
+     *
+     * @return 本次执行结果
+     */
+    public synchronized Map<String, Object> run() {
+        long start = System.nanoTime();
+        runs.increment();
+        lastRunAt = System.currentTimeMillis();
+
+        ZoneId zone = ZoneId.systemDefault();
+        int retentionDays = retentionDays();
+        // 只处理整月：保留期起点所在月份之前的数据
+        long cutoff = YearMonth.from(LocalDate.now(zone).minusDays(retentionDays))
+                .atDay(1).atStartOfDay(zone).toEpochSecond();
+        lastCutoff = cutoff;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cutoff", cutoff);
+        try {
+            List<RateHistoryPartitionDTO> partitions = partitionMapper.selectPartitions();
+            result.put("partitioned", !partitions.isEmpty());
+            if (partitions.isEmpty()) {
+                pruneUnpartitioned(cutoff, result);
+            } else {
+                result.put("partitionsCreated", ensureFuturePartitions(partitions, zone));
+                prunePartitions(partitions, cutoff, result);
+            }
+            lastError = null;
+        } catch (Exception e) {
+            failures.increment();
+            lastError = e.getMessage();
+            log.error("[Retention] 维护 rate_history 失败: {}", e.getMessage(), e);
+            result.put("error", e.getMessage());
+        } finally {
+            lastDurationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        result.put("durationMs", lastDurationMs);
+        log.info("[Retention] 维护完成: {}", result);
+        return result;
+    }
+
+    /**
+     * @return 累计统计、最近一次执行情况与当前分区列表
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rawRetentionDays", retentionDays());
+        stats.put("runs", runs.sum());
+        stats.put("failures", failures.sum());
+        stats.put("partitionsCreated", partitionsCreated.sum());
+        stats.put("partitionsDropped", partitionsDropped.sum());
+        stats.put("rowsRemoved", rowsRemoved.sum());
+        stats.put("candlesCompacted", candlesCompacted.sum());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastDurationMs", lastDurationMs);
+        stats.put("lastCutoff", lastCutoff);
+        stats.put("lastError", lastError);
+        try {
+            stats.put("partitions", partitionMapper.selectPartitions());
+        } catch (Exception e) {
+            stats.put("partitions", "查询失败: " + e.getMessage());
+        }
+        return stats;
+    }
+
+    /** 拆分兜底分区，使月分区覆盖到未来 futureMonths 个月 */
+    private int ensureFuturePartitions(List<RateHistoryPartitionDTO> partitions, ZoneId zone) {
+        String catchAll = null;
+        Long lastBound = null;
+        for (RateHistoryPartitionDTO partition : partitions) {
+            if (MAXVALUE.equalsIgnoreCase(partition.getUpperBound())) {
+                catchAll = partition.getName();
+            } else {
+                lastBound = Long.parseLong(partition.getUpperBound());
+            }
+        }
+        if (catchAll == null) {
+            log.warn("[Retention] rate_history 没有 MAXVALUE 兜底分区，无法预建月分区");
+            return 0;
+        }
+
+        // 已有月分区时从最后一个分区的上界（即下一个月的第一天）继续，否则从当前月开始
+        YearMonth month = lastBound != null
+                ? YearMonth.from(Instant.ofEpochSecond(lastBound).atZone(zone))
+                : YearMonth.now(zone);
+        YearMonth last = YearMonth.now(zone).plusMonths(Math.max(0, config.getFutureMonths()));
+        Map<String, Long> created = new LinkedHashMap<>();
+        while (!month.isAfter(last)) {
+            long upperBound = month.plusMonths(1).atDay(1).atStartOfDay(zone).toEpochSecond();
+            created.put(month.format(PARTITION_NAME), upperBound);
+            month = month.plusMonths(1);
+        }
+        if (created.isEmpty()) {
+            return 0;
+        }
+        partitionMapper.reorganizeFuturePartition(catchAll, created);
+        partitionsCreated.add(created.size());
+        log.info("[Retention] 已预建分区: {}", created.keySet());
+        return created.size();
+    }
+
+    /** 降采样并删除上界不晚于 cutoff 的月分区 */
+    private void prunePartitions(List<RateHistoryPartitionDTO> partitions, long cutoff, Map<String, Object> result) {
+        int dropped = 0;
+        long rows = 0;
+        int candles = 0;
+        Long lowerBound = null;
+        for (RateHistoryPartitionDTO partition : partitions) {
+            if (MAXVALUE.equalsIgnoreCase(partition.getUpperBound())) {
+                break;
+            }
+            long upperBound = Long.parseLong(partition.getUpperBound());
+            if (upperBound > cutoff) {
+                break;
+            }
+            // 第一个分区没有下界（早于它的数据都落在其中），以实际最早的数据点为起点
+            Long from = lowerBound != null ? lowerBound : partitionMapper.selectMinTimestampBefore(upperBound);
+            if (from != null) {
+                candles += compactMonths(from, upperBound);
+            }
+            partitionMapper.dropPartition(partition.getName());
+            dropped++;
+            rows += partition.getTableRows() != null ? partition.getTableRows() : 0;
+            lowerBound = upperBound;
+            log.info("[Retention] 已删除分区 {}（约 {} 行）", partition.getName(), partition.getTableRows());
+        }
+        partitionsDropped.add(dropped);
+        rowsRemoved.add(rows);
+        candlesCompacted.add(candles);
+        result.put("partitionsDropped", dropped);
+        result.put("rowsRemoved", rows);
+        result.put("candlesCompacted", candles);
+    }
+
+    /** 未分区的表：显式允许时降采样后分批 DELETE，否则跳过 */
+    private void pruneUnpartitioned(long cutoff, Map<String, Object> result) {
+        if (!Boolean.TRUE.equals(config.getDeleteUnpartitioned())) {
+            log.warn("[Retention] rate_history 尚未分区，跳过清理。请先执行 sql/alter_rate_history_partition.sql，"
+                    + "或设置 cryptorate.retention.delete-unpartitioned=true 允许逐批 DELETE");
+            result.put("skipped", "rate_history 尚未分区");
+            return;
+        }
+        Long from = partitionMapper.selectMinTimestampBefore(cutoff);
+        int candles = 0;
+        long rows = 0;
+        if (from != null) {
+            log.warn("[Retention] rate_history 尚未分区，改为逐批 DELETE，建议执行 sql/alter_rate_history_partition.sql");
+            candles = compactMonths(from, cutoff);
+            int batch = Math.max(1, config.getDeleteBatchSize());
+            int deleted;
+            do {
+                deleted = partitionMapper.deleteBefore(cutoff, batch);
+                rows += deleted;
+            } while (deleted >= batch);
+        }
+        rowsRemoved.add(rows);
+        candlesCompacted.add(candles);
+        result.put("rowsRemoved", rows);
+        result.put("candlesCompacted", candles);
+    }
+
+    /** 按月重算 [from, to) 的 K 线，每次只加载一个月的原始数据 */
+    private int compactMonths(long from, long to) {
+        ZoneId zone = ZoneId.systemDefault();
+        YearMonth month = YearMonth.from(Instant.ofEpochSecond(from).atZone(zone));
+        int total = 0;
+        long start = month.atDay(1).atStartOfDay(zone).toEpochSecond();
+        while (start < to) {
+            long end = Math.min(month.plusMonths(1).atDay(1).atStartOfDay(zone).toEpochSecond(), to);
+            total += candleService.compact(start, end);
+            month = month.plusMonths(1);
+            start = end;
+        }
+        return total;
+    }
+
+    private int retentionDays() {
+        return Math.max(MIN_RETENTION_DAYS, config.getRawRetentionDays());
+    }
+}
@@ -1,23 +1,25 @@
 package com.cryptorate.scheduler;
 
-import com.cryptorate.entity.User;
-import com.cryptorate.mapper.UserMapper;
-import com.cryptorate.service.FeishuAlertService;
+import com.cryptorate.briefing.DailyBriefingFanout;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
 
 /**
  * AI 每日简报定时推送任务
  * 
  * <p>每天早上 8:00 自动触发，搜集全网当日行情简报并通过飞书推送给订阅用户。</p>
+ *
+ * <p>推送由 {@link DailyBriefingFanout} 并发完成；推送中途重启时，启动后自动用当天已生成的内容继续推送未完成的用户。</p>
  * 
  * @author CryptoRate Team
  * @since 2026-04-20
@@ -32,14 +34,13 @@ public class DailyBriefingScheduler {
     @Value("${cryptorate.ai-service.url:http://localhost:8000}")
     private String aiServiceUrl;
 
-    private final UserMapper userMapper;
-    private final FeishuAlertService feishuAlertService;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final DailyBriefingFanout briefingFanout;
+    private final RestTemplate restTemplate;
 
     @Autowired
-    public DailyBriefingScheduler(UserMapper userMapper, FeishuAlertService feishuAlertService) {
-        this.userMapper = userMapper;
-        this.feishuAlertService = feishuAlertService;
+    public DailyBriefingScheduler(DailyBriefingFanout briefingFanout, RestTemplate restTemplate) {
+        this.briefingFanout = briefingFanout;
+        this.restTemplate = restTemplate;
     }
 
     /**
@@ -54,45 +55,43 @@ public class DailyBriefingScheduler {
         }
 
         log.info("[每日简报] {} 开始执行每日简报生成与推送任务...", LocalDateTime.now());
+        // 推送在后台线程执行，不占用共享的单线程调度器，避免拖延汇率同步等其他定时任务
+        startNow(false);
+    }
 
+    /**
+     * 在后台推送今天的简报，立即返回（管理员手动触发时不受启用开关影响）
+     *
+     * @param force 为 true 时即使今天已推送完成也重新推送投递失败的用户
+     * @return STARTED，已有推送进行中时为 ALREADY_RUNNING
+     */
+    public Map<String, Object> startNow(boolean force) {
         try {
-            // 1. 获取订阅了简报的用户列表
-            List<User> subscribedUsers = userMapper.selectUsersWithDailyBriefingEnabled();
-            if (subscribedUsers.isEmpty()) {
-                log.info("[每日简报] 当前没有订阅用户，跳过执行");
-                return;
-            }
+            return briefingFanout.start(LocalDate.now(), this::fetchDailyBriefContent, force);
+        } catch (Exception e) {
+            log.error("[每日简报] 提交推送任务失败", e);
+            return Map.of("status", "ERROR", "error", String.valueOf(e.getMessage()));
+        }
+    }
 
-            // 2. 调用 Python AI 服务获取今日简报内容
-            String briefContent = fetchDailyBriefContent();
-            
-            if (briefContent == null || briefContent.isEmpty()) {
-                log.warn("[每日简报] 获取简报内容为空，任务取消");
+    /**
+     * 启动完成后检查今天的推送是否被重启打断，是则在后台继续推送
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        if (!dailyBriefingEnabled) {
+            return;
+        }
+        try {
+            if (!briefingFanout.isUnfinished(LocalDate.now())) {
                 return;
             }
-
-            // 3. 分发推送
-            int successCount = 0;
-            for (User user : subscribedUsers) {
-                String webhook = user.getFeishuWebhook();
-                if (webhook == null || webhook.isEmpty()) {
-                    continue;
-                }
-
-                try {
-                    // 调用已有的 FeishuAlertService 发送 Markdown 消息
-                    feishuAlertService.sendMarketBriefing(webhook, briefContent);
-                    successCount++;
-                } catch (Exception e) {
-                    log.error("[每日简报] 推送给用户 {} 失败: {}", user.getUsername(), e.getMessage());
-                }
-            }
-
-            log.info("[每日简报] 任务完成。成功推送给 {}/{} 名用户", successCount, subscribedUsers.size());
-
         } catch (Exception e) {
-            log.error("[每日简报] 任务执行中发生异常", e);
+            log.warn("[每日简报] 检查未完成的推送失败: {}", e.getMessage());
+            return;
         }
+        log.info("[每日简报] 发现今天未完成的推送，继续推送剩余用户");
+        startNow(false);
     }
 
     private String fetchDailyBriefContent() {
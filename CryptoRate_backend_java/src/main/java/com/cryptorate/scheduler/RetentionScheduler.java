@@ -0,0 +1,54 @@
+package com.cryptorate.scheduler;
+
+import com.cryptorate.config.RetentionConfig;
+import com.cryptorate.retention.RateHistoryRetentionManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * rate_history 分区与数据保留定时维护任务
+ *
+ * <p>每天凌晨预建未来月份的分区，并把超过保留期的整月原始数据降采样为 K 线后删除。</p>
+ *
+ * <h3>★ 修改执行时间 / 保留期</h3>
+ * <p>打开 <b>src/main/resources/application.yml</b>，在 {@code cryptorate.retention} 节点下：</p>
+ * <pre>
+ * cryptorate:
+ *   retention:
+ *     enabled: true             # 默认 false，维护会删除原始数据，需显式开启
+ *     cron: "0 30 3 * * ?"      # 每天 03:30 执行
+ *     raw-retention-days: 180   # 原始数据保留天数（不小于 31）
+ * </pre>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class RetentionScheduler {
+
+    private final RateHistoryRetentionManager retentionManager;
+    private final RetentionConfig retentionConfig;
+
+    @Autowired
+    public RetentionScheduler(RateHistoryRetentionManager retentionManager, RetentionConfig retentionConfig) {
+        this.retentionManager = retentionManager;
+        this.retentionConfig = retentionConfig;
+    }
+
+    /**
+     * 定时执行分区维护（失败只记录日志与统计，下一个周期继续执行）
+     */
+    @Scheduled(cron = "${cryptorate.retention.cron:0 30 3 * * ?}")
+    public void maintain() {
+        if (!Boolean.TRUE.equals(retentionConfig.getEnabled())) {
+            log.debug("[定时任务] cryptorate.retention.enabled=false，本次分区维护已跳过");
+            return;
+        }
+        log.info("[定时任务] 开始维护 rate_history 分区与数据保留...");
+        retentionManager.run();
+    }
+}
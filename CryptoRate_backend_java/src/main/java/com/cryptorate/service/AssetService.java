@@ -1,6 +1,7 @@
 package com.cryptorate.service;
 
 import com.cryptorate.dto.AssetDTO;
+import com.cryptorate.dto.PortfolioDTO;
 import com.cryptorate.entity.UserAsset;
 
 import java.math.BigDecimal;
@@ -19,10 +20,18 @@ public interface AssetService {
      * 查询用户的所有资产记录
      *
      * @param userId 用户ID（从 JWT 获取）
-     * @return 资产列表
+     * @return 资产列表（含按最新汇率计算的当前价格、价值与未实现盈亏）
      */
     List<AssetDTO> getAssets(Long userId);
 
+    /**
+     * 查询用户的投资组合估值
+     *
+     * @param userId 用户ID（从 JWT 获取）
+     * @return 持仓明细与组合总价值、总成本、未实现盈亏
+     */
+    PortfolioDTO getPortfolio(Long userId);
+
     /**
      * 添加或修改资产
      *
@@ -0,0 +1,55 @@
+package com.cryptorate.service;
+
+import com.cryptorate.dto.CandleSeriesDTO;
+import com.cryptorate.entity.RateHistory;
+
+import java.util.Collection;
+
+/**
+ * K 线（OHLC）降采样服务
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+public interface CandleService {
+
+    /**
+     * 将新写入的采样点增量合并到 1h / 1d / 1w K 线
+     *
+     * @param histories 刚写入 rate_history 的记录
+     */
+    void rollup(Collection<RateHistory> histories);
+
+    /**
+     * 回补模式：从 rate_history 重新计算最近若干天的全部 K 线
+     *
+     * @param days 回溯天数
+     * @return 写入的 K 线数量
+     */
+    int backfill(int days);
+
+    /**
+     * 降采样模式：原始数据被删除前，用 [start, end) 内的全部原始数据重算完全落在该区间内的 K 线
+     *
+     * <p>跨越区间边界的 K 线（如跨月的周线）保持增量合并的结果不变。</p>
+     *
+     * @param start 区间起点（Unix 时间戳，含）
+     * @param end   区间终点（Unix 时间戳，不含）
+     * @return 写入的 K 线数量
+     */
+    int compact(long start, long end);
+
+    /**
+     * 查询 K 线
+     *
+     * <p>未指定周期时自动选择能覆盖该时间范围的合适周期，保证返回的 K 线数量可控。</p>
+     *
+     * @param symbol   币种代码
+     * @param start    开始日期（yyyy-MM-dd）
+     * @param end      结束日期（yyyy-MM-dd）
+     * @param interval K 线周期（1h / 1d / 1w，可选）
+     * @return K 线序列
+     */
+    CandleSeriesDTO getCandles(String symbol, String start, String end, String interval);
+}
@@ -14,6 +14,8 @@ public interface CryptoMarketService {
 
     /**
      * 获取实时加密货币汇率
+     *
+     * <p>结果经过 TTL 缓存，并发请求共享同一次上游调用。</p>
      * 
      * @return 加密货币汇率映射（键：货币代码，值：汇率）
      */
@@ -27,6 +29,13 @@ public interface CryptoMarketService {
      */
     BigDecimal getRateBySymbol(String symbol);
 
+    /**
+     * 获取实时汇率缓存的命中统计
+     *
+     * @return 命中 / 未命中 / 合并请求等计数
+     */
+    Map<String, Object> getRealTimeCacheStats();
+
     /**
      * 同步汇率数据到数据库
      *
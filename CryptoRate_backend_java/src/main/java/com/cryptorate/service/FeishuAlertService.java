@@ -1,6 +1,11 @@
 package com.cryptorate.service;
 
+import com.cryptorate.dto.AiAlertRequest;
+
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * 飞书告警服务接口
@@ -15,7 +20,7 @@ import java.math.BigDecimal;
 public interface FeishuAlertService {
 
     /**
-     * 发送价格告警通知到飞书
+     * 发送价格告警通知到飞书（异步，立即返回）
      *
      * @param coinSymbol   数字货币代码 (例: BTC)
      * @param currentPrice 当前实时价格
@@ -25,6 +30,29 @@ public interface FeishuAlertService {
      * @param webhookUrl   目标飞书 Webhook 地址 (可选)
      */
     void sendPriceAlert(String coinSymbol, BigDecimal currentPrice, BigDecimal triggerPrice, String trend, String reason, String webhookUrl);
+
+    /**
+     * 批量发送一轮告警（异步，立即返回）
+     *
+     * <p>同一 Webhook 的多条告警会合并为一条消息投递。</p>
+     *
+     * @param alerts 本轮触发的告警
+     */
+    void sendPriceAlerts(Collection<AiAlertRequest> alerts);
+
+    /**
+     * 构造一条告警请求，涨跌幅按 (当前价 - 参考价) / 参考价 计算
+     *
+     * @param coinSymbol     数字货币代码
+     * @param currentPrice   当前实时价格
+     * @param referencePrice 参考价格（上一次采样价或规则阈值）
+     * @param reason         告警原因
+     * @param webhookUrl     目标飞书 Webhook 地址 (可选)
+     * @return 告警请求
+     */
+    AiAlertRequest buildPriceAlert(String coinSymbol, BigDecimal currentPrice, BigDecimal referencePrice,
+            String reason, String webhookUrl);
+
     /**
      * 发送市场每日简报
      *
@@ -32,4 +60,15 @@ public interface FeishuAlertService {
      * @param content    简报 Markdown 内容
      */
     void sendMarketBriefing(String webhookUrl, String content);
+
+    /**
+     * 构造市场每日简报的飞书卡片消息体
+     *
+     * <p>批量推送时只构造并序列化一次，所有订阅用户共用同一份消息体。</p>
+     *
+     * @param content     简报 Markdown 内容
+     * @param generatedAt 卡片中展示的生成时间
+     * @return 可直接序列化为 JSON 的消息体
+     */
+    Map<String, Object> buildMarketBriefingCard(String content, LocalDateTime generatedAt);
 }
@@ -1,7 +1,9 @@
 package com.cryptorate.service;
 
+import com.cryptorate.cache.SymbolCatalog;
 import com.cryptorate.dto.HistoryRateDTO;
 import com.cryptorate.dto.LatestRateDTO;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,9 +19,9 @@ public interface RateService {
     /**
      * 获取系统支持的所有币种代码
      *
-     * @return 币种代码列表
+     * @return 当前版本的币种列表（含版本号与 ETag）
      */
-    List<String> getSupportedSymbols();
+    SymbolCatalog.Listing getSupportedSymbols();
 
     /**
      * 根据关键词搜索币种
@@ -46,4 +48,18 @@ public interface RateService {
      * @return 历史汇率列表
      */
     List<HistoryRateDTO> getHistoryRates(String symbol, String start, String end);
+
+    /**
+     * 流式导出历史汇率
+     *
+     * <p>参数在调用时立即校验；返回的回调逐行从数据库读取并直接写入响应流，
+     * 内存占用与导出行数无关。</p>
+     *
+     * @param symbols 币种代码列表
+     * @param start   开始日期（yyyy-MM-dd）
+     * @param end     结束日期（yyyy-MM-dd，包含当天）
+     * @param format  导出格式（ndjson / csv）
+     * @return 写出导出内容的响应体
+     */
+    StreamingResponseBody exportHistoryRates(List<String> symbols, String start, String end, String format);
 }
@@ -15,7 +15,7 @@ public interface StatsService {
      * 获取汇率统计摘要
      *
      * @param symbol 币种代码
-     * @param range  时间范围（7d, 30d）
+     * @param range  时间范围（24h, 7d, 30d）
      * @return 统计摘要
      */
     StatsSummaryDTO getSummary(String symbol, String range);
@@ -1,10 +1,15 @@
 package com.cryptorate.service.impl;
 
+import com.cryptorate.cache.AiAnswerCache;
 import com.cryptorate.dto.AiAskRequest;
 import com.cryptorate.dto.AiAskResponse;
 import com.cryptorate.service.AiService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -12,6 +17,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
 
 /**
  * AI 问答服务实现类
@@ -29,6 +37,12 @@ import org.springframework.web.client.RestTemplate;
  * <li>其他 {@link Exception}：兜底捕获，防止异常向上传播导致 Controller 崩溃。</li>
  * </ul>
  *
+ * <h3>缓存：</h3>
+ * <p>
+ * 问答结果经 {@link AiAnswerCache} 按「规范化问题 + 汇率快照版本」缓存，并发的相同问题只调用一次 Python 服务；
+ * 流式问答命中缓存时把回答切分为若干 SSE 数据块回放，未命中时边转发边收集完整回答写入缓存。
+ * </p>
+ *
  * @author CryptoRate Team
  * @version 1.0
  * @since 2026-03-03
@@ -40,11 +54,26 @@ public class AiServiceImpl implements AiService {
     /** Python AI 服务的接口地址（与 main.py 中的端口保持一致） */
     private static final String AI_SERVICE_URL = "http://127.0.0.1:8000/ai/ask";
 
+    /** 回放缓存回答时每个 SSE 数据块的字符数（按码点计） */
+    private static final int REPLAY_CHUNK_CHARS = 32;
+
     private final RestTemplate restTemplate;
 
+    /** 流式问答客户端，与全局 OkHttpClient 共享连接池（见 OkHttpConfig#streamingOkHttpClient） */
+    private final OkHttpClient streamClient;
+
+    private final AiAnswerCache answerCache;
+    private final ObjectMapper objectMapper;
+
     @Autowired
-    public AiServiceImpl(RestTemplate restTemplate) {
+    public AiServiceImpl(RestTemplate restTemplate,
+            @Qualifier("streamingOkHttpClient") OkHttpClient streamClient,
+            AiAnswerCache answerCache,
+            ObjectMapper objectMapper) {
         this.restTemplate = restTemplate;
+        this.streamClient = streamClient;
+        this.answerCache = answerCache;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -60,11 +89,20 @@ public class AiServiceImpl implements AiService {
      * </ol>
      * </p>
      *
+     * <p>
+     * 相同问题在同一快照版本内直接返回缓存的回答，并发的相同问题共享一次请求。
+     * </p>
+     *
      * @param question 用户的问题字符串
      * @return 包含大模型回答的响应对象；发生异常时返回带错误信息的对象
      */
     @Override
     public AiAskResponse ask(String question) {
+        return answerCache.get(question, () -> requestAnswer(question));
+    }
+
+    /** 向 Python AI 服务发起一次问答请求 */
+    private AiAskResponse requestAnswer(String question) {
         log.info("[AI Service] 正在向 Python AI 服务发起请求，问题: {}", question);
 
         try {
@@ -109,12 +147,17 @@ public class AiServiceImpl implements AiService {
     }
 
     @Override
-    public void askStream(String question, org.springframework.web.servlet.mvc.method.annotation.SseEmitter emitter) {
+    public void askStream(String question, SseEmitter emitter) {
+        // 在发起请求前计算缓存键，回答写入请求开始时的快照版本
+        String cacheKey = answerCache.key(question);
+        String cached = answerCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            log.info("[AI Service] 流式问答命中缓存，回放 {} 字的回答", cached.length());
+            replay(cached, emitter);
+            return;
+        }
+
         log.info("[AI Service] 正在向 Python 发起流式请求，问题: {}", question);
-        okhttp3.OkHttpClient streamClient = new okhttp3.OkHttpClient.Builder()
-                .readTimeout(0, java.util.concurrent.TimeUnit.SECONDS) // SSE 长连接不能有读超时
-                .build();
-        
         String jsonPayload = "{\"question\":\"" + question.replace("\"", "\\\"") + "\"}";
         okhttp3.RequestBody requestBody = okhttp3.RequestBody.create(jsonPayload, okhttp3.MediaType.parse("application/json"));
         okhttp3.Request request = new okhttp3.Request.Builder()
@@ -127,7 +170,7 @@ public class AiServiceImpl implements AiService {
             public void onFailure(okhttp3.Call call, java.io.IOException e) {
                 log.error("[AI Service] 流式调用异常", e);
                 try {
-                    emitter.send(org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event().data("{\"code\":500, \"answer\":\"[网络异常: Python服务中断]\"}"));
+                    emitter.send(SseEmitter.event().data("{\"code\":500, \"answer\":\"[网络异常: Python服务中断]\"}"));
                     emitter.complete();
                 } catch (Exception ignored) {}
             }
@@ -139,6 +182,8 @@ public class AiServiceImpl implements AiService {
                     emitter.completeWithError(new RuntimeException("Python返回错误: " + response.code()));
                     return;
                 }
+                StringBuilder answer = new StringBuilder();
+                boolean complete = true;
                 try (okhttp3.ResponseBody body = response.body()) {
                     okio.BufferedSource source = body.source();
                     while (!source.exhausted()) {
@@ -146,9 +191,13 @@ public class AiServiceImpl implements AiService {
                         if (line != null && line.startsWith("data:")) {
                             String data = line.substring(5).trim();
                             emitter.send(data);
+                            complete &= collect(data, answer);
                         }
                     }
                     emitter.complete();
+                    if (complete) {
+                        answerCache.put(cacheKey, answer.toString());
+                    }
                 } catch (Exception e) {
                     log.error("[AI Service] 流式传输被阻断", e);
                     emitter.completeWithError(e);
@@ -156,4 +205,39 @@ public class AiServiceImpl implements AiService {
             }
         });
     }
+
+    /** 把缓存的回答按 Python 流式接口的格式（{@code {"answer":"..."}}）分块回放 */
+    private void replay(String answer, SseEmitter emitter) {
+        try {
+            int start = 0;
+            while (start < answer.length()) {
+                int end = answer.offsetByCodePoints(start,
+                        Math.min(REPLAY_CHUNK_CHARS, answer.codePointCount(start, answer.length())));
+                emitter.send(objectMapper.writeValueAsString(Map.of("answer", answer.substring(start, end))));
+                start = end;
+            }
+            emitter.complete();
+        } catch (Exception e) {
+            log.warn("[AI Service] 回放缓存回答失败: {}", e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * 收集流式数据块中的增量回答
+     *
+     * @return 数据块是否正常（带错误码的数据块表示生成中断，回答不完整）
+     */
+    private boolean collect(String data, StringBuilder answer) {
+        try {
+            JsonNode node = objectMapper.readTree(data);
+            if (node.has("code") && node.get("code").asInt() != 200) {
+                return false;
+            }
+            answer.append(node.path("answer").asText(""));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
 }
@@ -2,10 +2,12 @@ package com.cryptorate.service.impl;
 
 import com.cryptorate.common.exception.ApiException;
 import com.cryptorate.entity.PriceAlert;
+import com.cryptorate.event.AlertRuleChangedEvent;
 import com.cryptorate.mapper.PriceAlertMapper;
 import com.cryptorate.service.AlertRuleService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -15,16 +17,20 @@ import java.util.List;
 
 /**
  * 告警规则服务实现类 (含 V2 冷却机制)
+ *
+ * <p>规则写入成功后发布 {@link AlertRuleChangedEvent}，供内存告警引擎同步索引。</p>
  */
 @Slf4j
 @Service
 public class AlertRuleServiceImpl implements AlertRuleService {
 
     private final PriceAlertMapper alertMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public AlertRuleServiceImpl(PriceAlertMapper alertMapper) {
+    public AlertRuleServiceImpl(PriceAlertMapper alertMapper, ApplicationEventPublisher eventPublisher) {
         this.alertMapper = alertMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -35,6 +41,7 @@ public class AlertRuleServiceImpl implements AlertRuleService {
             alert.setCooldownMinutes(60); // 默认 1 小时冷却
         }
         alertMapper.insert(alert);
+        eventPublisher.publishEvent(new AlertRuleChangedEvent(alert.getId(), AlertRuleChangedEvent.Action.CREATED));
         return alert;
     }
 
@@ -46,7 +53,9 @@ public class AlertRuleServiceImpl implements AlertRuleService {
     @Override
     public void updateStatus(Long id, Long userId, String status) {
         PriceAlert alert = PriceAlert.builder().id(id).userId(userId).status(status).build();
-        alertMapper.update(alert);
+        if (alertMapper.update(alert) > 0) {
+            eventPublisher.publishEvent(new AlertRuleChangedEvent(id, AlertRuleChangedEvent.Action.UPDATED));
+        }
     }
 
     /**
@@ -94,6 +103,8 @@ public class AlertRuleServiceImpl implements AlertRuleService {
 
     @Override
     public void deleteAlert(Long id, Long userId) {
-        alertMapper.deleteById(id, userId);
+        if (alertMapper.deleteById(id, userId) > 0) {
+            eventPublisher.publishEvent(new AlertRuleChangedEvent(id, AlertRuleChangedEvent.Action.DELETED));
+        }
     }
 }
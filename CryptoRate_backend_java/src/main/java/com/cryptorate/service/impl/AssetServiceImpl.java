@@ -1,23 +1,28 @@
 package com.cryptorate.service.impl;
 
+import com.cryptorate.cache.PortfolioCache;
+import com.cryptorate.cache.SymbolRegistry;
 import com.cryptorate.dto.AssetDTO;
+import com.cryptorate.dto.PortfolioDTO;
 import com.cryptorate.entity.UserAsset;
+import com.cryptorate.event.AssetChangedEvent;
 import com.cryptorate.mapper.UserAssetMapper;
 import com.cryptorate.service.AssetService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 用户资产管理业务实现类
  *
  * <p>
  * 实现 {@link AssetService} 接口，管理用户的加密货币持仓记录。
+ * 估值由 {@link PortfolioCache} 基于内存中的最新汇率快照计算并缓存，持仓变更后发布 {@link AssetChangedEvent} 使其失效。
  * </p>
  *
  * @author CryptoRate Team
@@ -29,29 +34,29 @@ import java.util.stream.Collectors;
 public class AssetServiceImpl implements AssetService {
 
     private final UserAssetMapper userAssetMapper;
+    private final SymbolRegistry symbolRegistry;
+    private final PortfolioCache portfolioCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public AssetServiceImpl(UserAssetMapper userAssetMapper) {
+    public AssetServiceImpl(UserAssetMapper userAssetMapper, SymbolRegistry symbolRegistry,
+            PortfolioCache portfolioCache, ApplicationEventPublisher eventPublisher) {
         this.userAssetMapper = userAssetMapper;
+        this.symbolRegistry = symbolRegistry;
+        this.portfolioCache = portfolioCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public List<AssetDTO> getAssets(Long userId) {
         log.info("查询用户资产，用户ID: {}", userId);
+        return portfolioCache.get(userId).getAssets();
+    }
 
-        List<UserAsset> assets = userAssetMapper.selectByUserId(userId);
-
-        return assets.stream().map(asset -> {
-            AssetDTO dto = new AssetDTO();
-            dto.setId(asset.getId());
-            dto.setSymbol(asset.getSymbol());
-            dto.setAmount(asset.getAmount());
-            dto.setCost(asset.getCost());
-            // 暂不对接实时行情，currentPrice / totalValue 留空
-            dto.setCurrentPrice(null);
-            dto.setTotalValue(null);
-            return dto;
-        }).collect(Collectors.toList());
+    @Override
+    public PortfolioDTO getPortfolio(Long userId) {
+        log.info("查询投资组合估值，用户ID: {}", userId);
+        return portfolioCache.get(userId);
     }
 
     @Override
@@ -59,7 +64,7 @@ public class AssetServiceImpl implements AssetService {
         log.info("保存资产，用户ID: {}, 币种: {}, 数量: {}, 成本: {}", userId, symbol, amount, cost);
 
         // 币种代码统一大写
-        String upperSymbol = symbol.toUpperCase();
+        String upperSymbol = symbolRegistry.canonical(symbol);
 
         // 检查是否已存在
         UserAsset existingAsset = userAssetMapper.selectByUserIdAndSymbol(userId, upperSymbol);
@@ -71,6 +76,7 @@ public class AssetServiceImpl implements AssetService {
             existingAsset.setUpdatedAt(LocalDateTime.now());
             userAssetMapper.update(existingAsset);
             log.info("更新资产成功，ID: {}", existingAsset.getId());
+            eventPublisher.publishEvent(new AssetChangedEvent(userId));
             return existingAsset;
         } else {
             // 新增资产
@@ -83,6 +89,7 @@ public class AssetServiceImpl implements AssetService {
             newAsset.setUpdatedAt(LocalDateTime.now());
             userAssetMapper.insert(newAsset);
             log.info("添加资产成功，ID: {}", newAsset.getId());
+            eventPublisher.publishEvent(new AssetChangedEvent(userId));
             return newAsset;
         }
     }
@@ -94,6 +101,7 @@ public class AssetServiceImpl implements AssetService {
         int rows = userAssetMapper.deleteByIdAndUserId(assetId, userId);
         if (rows > 0) {
             log.info("删除资产成功");
+            eventPublisher.publishEvent(new AssetChangedEvent(userId));
         } else {
             log.warn("删除资产失败（资产不存在或不属于当前用户），ID: {}, 用户ID: {}", assetId, userId);
             throw new RuntimeException("资产不存在或无权删除");
@@ -0,0 +1,256 @@
+package com.cryptorate.service.impl;
+
+import com.cryptorate.cache.SymbolCatalog;
+import com.cryptorate.common.CandleInterval;
+import com.cryptorate.common.exception.ApiException;
+import com.cryptorate.dto.CandleDTO;
+import com.cryptorate.dto.CandleSeriesDTO;
+import com.cryptorate.entity.RateCandle;
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.mapper.RateCandleMapper;
+import com.cryptorate.mapper.RateHistoryMapper;
+import com.cryptorate.service.CandleService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * K 线降采样业务实现类
+ *
+ * <p>
+ * 实现 {@link CandleService} 接口，在 rate_history 之上维护 1h / 1d / 1w 三种 OHLC K 线，
+ * 长周期图表只需读取几百根 K 线，而不是全部原始采样点。
+ * </p>
+ *
+ * <h3>写入方式：</h3>
+ * <ul>
+ * <li><b>增量</b>：每次写入 rate_history 后在内存中聚合本批数据，再通过 ON DUPLICATE KEY UPDATE 合并</li>
+ * <li><b>回补</b>：按币种重新扫描 rate_history，以完整周期为单位覆盖写入</li>
+ * </ul>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Service
+public class CandleServiceImpl implements CandleService {
+
+    /** 单次查询最多返回的 K 线数量，用于自动选择周期 */
+    private static final int MAX_CANDLES = 500;
+
+    /** 单条 SQL 最多写入的 K 线数量 */
+    private static final int WRITE_CHUNK_SIZE = 500;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final RateCandleMapper rateCandleMapper;
+    private final RateHistoryMapper rateHistoryMapper;
+    private final SymbolCatalog symbolCatalog;
+
+    @Autowired
+    public CandleServiceImpl(RateCandleMapper rateCandleMapper, RateHistoryMapper rateHistoryMapper,
+            SymbolCatalog symbolCatalog) {
+        this.rateCandleMapper = rateCandleMapper;
+        this.rateHistoryMapper = rateHistoryMapper;
+        this.symbolCatalog = symbolCatalog;
+    }
+
+    @Override
+    public void rollup(Collection<RateHistory> histories) {
+        if (histories == null || histories.isEmpty()) {
+            return;
+        }
+        Map<String, RateCandle> candles = new LinkedHashMap<>();
+        for (RateHistory history : histories) {
+            aggregate(candles, history);
+        }
+        writeInChunks(new ArrayList<>(candles.values()), rateCandleMapper::batchMerge);
+        log.debug("[Candle] 增量合并 {} 个采样点，更新 {} 根 K 线", histories.size(), candles.size());
+    }
+
+    @Override
+    public int backfill(int days) {
+        // 起点对齐到周线边界，保证被覆盖写入的每根 K 线都由完整数据计算
+        long now = Instant.now().getEpochSecond();
+        long start = CandleInterval.WEEK.bucketStart(now - days * 24 * 3600L);
+
+        List<String> symbols = symbolCatalog.listing().symbols();
+        log.info("[Candle] 开始回补最近 {} 天 K 线，共 {} 个币种", days, symbols.size());
+
+        int total = 0;
+        for (String symbol : symbols) {
+            List<RateHistory> points = rateHistoryMapper.selectBySymbolAndTimeRange(symbol, start, now);
+            Map<String, RateCandle> candles = new LinkedHashMap<>();
+            for (RateHistory point : points) {
+                aggregate(candles, point);
+            }
+            List<RateCandle> list = new ArrayList<>(candles.values());
+            writeInChunks(list, rateCandleMapper::batchReplace);
+            total += list.size();
+        }
+        log.info("[Candle] 回补完成，共写入 {} 根 K 线", total);
+        return total;
+    }
+
+    @Override
+    public int compact(long start, long end) {
+        int total = 0;
+        for (String symbol : symbolCatalog.listing().symbols()) {
+            List<RateHistory> points = rateHistoryMapper.selectBySymbolAndTimeRange(symbol, start, end - 1);
+            if (points.isEmpty()) {
+                continue;
+            }
+            Map<String, RateCandle> candles = new LinkedHashMap<>();
+            for (RateHistory point : points) {
+                aggregate(candles, point);
+            }
+            List<RateCandle> list = new ArrayList<>(candles.size());
+            for (RateCandle candle : candles.values()) {
+                CandleInterval interval = CandleInterval.fromCode(candle.getIntervalType());
+                if (candle.getBucketStart() >= start && candle.getBucketStart() + interval.getSeconds() <= end) {
+                    list.add(candle);
+                }
+            }
+            writeInChunks(list, rateCandleMapper::batchReplace);
+            total += list.size();
+        }
+        log.info("[Candle] 降采样 {} - {} 完成，共重算 {} 根 K 线", start, end, total);
+        return total;
+    }
+
+    @Override
+    public CandleSeriesDTO getCandles(String symbol, String start, String end, String interval) {
+        long startTime = parseDate(start).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+        long endTime = parseDate(end).plusDays(1).atStartOfDay(ZoneId.systemDefault()).toEpochSecond() - 1;
+        if (endTime < startTime) {
+            throw new ApiException(400, "结束日期不能早于开始日期");
+        }
+
+        CandleInterval resolved = resolveInterval(interval, endTime - startTime);
+        log.info("查询 K 线，币种: {}, 范围: {} - {}, 周期: {}", symbol, start, end, resolved.getCode());
+
+        // 起点对齐到周期边界，使第一根 K 线也能被查到
+        List<RateCandle> rows = rateCandleMapper.selectBySymbolAndRange(symbol, resolved.getCode(),
+                resolved.bucketStart(startTime), endTime);
+
+        List<CandleDTO> candles = new ArrayList<>(rows.size());
+        for (RateCandle row : rows) {
+            candles.add(convertToCandleDTO(row));
+        }
+
+        CandleSeriesDTO dto = new CandleSeriesDTO();
+        dto.setSymbol(symbol.toUpperCase(Locale.ROOT));
+        dto.setInterval(resolved.getCode());
+        dto.setCandles(candles);
+        return dto;
+    }
+
+    /**
+     * 确定 K 线周期
+     *
+     * <p>显式指定时直接使用；否则从细到粗选择第一个 K 线数量不超过 {@link #MAX_CANDLES} 的周期，
+     * 范围再长也至少使用周线覆盖。</p>
+     */
+    private CandleInterval resolveInterval(String interval, long rangeSeconds) {
+        if (interval != null && !interval.isEmpty()) {
+            CandleInterval explicit = CandleInterval.fromCode(interval);
+            if (explicit == null) {
+                throw new ApiException(400, "不支持的 K 线周期: " + interval + "（可选 1h、1d、1w）");
+            }
+            return explicit;
+        }
+        for (CandleInterval candidate : CandleInterval.values()) {
+            if (rangeSeconds / candidate.getSeconds() <= MAX_CANDLES) {
+                return candidate;
+            }
+        }
+        return CandleInterval.WEEK;
+    }
+
+    /** 把一个采样点合并到三种周期的 K 线中 */
+    private void aggregate(Map<String, RateCandle> candles, RateHistory history) {
+        if (history.getSymbol() == null || history.getRate() == null || history.getTimestamp() == null) {
+            return;
+        }
+        long ts = history.getTimestamp();
+        for (CandleInterval interval : CandleInterval.values()) {
+            long bucket = interval.bucketStart(ts);
+            String key = history.getSymbol() + '|' + interval.getCode() + '|' + bucket;
+            RateCandle candle = candles.get(key);
+            if (candle == null) {
+                candle = new RateCandle();
+                candle.setSymbol(history.getSymbol());
+                candle.setIntervalType(interval.getCode());
+                candle.setBucketStart(bucket);
+                candle.setOpen(history.getRate());
+                candle.setHigh(history.getRate());
+                candle.setLow(history.getRate());
+                candle.setClose(history.getRate());
+                candle.setFirstTs(ts);
+                candle.setLastTs(ts);
+                candle.setSampleCount(1);
+                candles.put(key, candle);
+                continue;
+            }
+            if (ts < candle.getFirstTs()) {
+                candle.setOpen(history.getRate());
+                candle.setFirstTs(ts);
+            }
+            if (ts >= candle.getLastTs()) {
+                candle.setClose(history.getRate());
+                candle.setLastTs(ts);
+            }
+            if (history.getRate().compareTo(candle.getHigh()) > 0) {
+                candle.setHigh(history.getRate());
+            }
+            if (history.getRate().compareTo(candle.getLow()) < 0) {
+                candle.setLow(history.getRate());
+            }
+            candle.setSampleCount(candle.getSampleCount() + 1);
+        }
+    }
+
+    /** 分块写入，避免单条 SQL 过大 */
+    private void writeInChunks(List<RateCandle> candles, Consumer<List<RateCandle>> writer) {
+        for (int from = 0; from < candles.size(); from += WRITE_CHUNK_SIZE) {
+            writer.accept(candles.subList(from, Math.min(from + WRITE_CHUNK_SIZE, candles.size())));
+        }
+    }
+
+    /** 将 RateCandle 转换为 CandleDTO */
+    private CandleDTO convertToCandleDTO(RateCandle candle) {
+        CandleDTO dto = new CandleDTO();
+        dto.setTime(candle.getBucketStart());
+        dto.setDate(LocalDateTime.ofInstant(Instant.ofEpochSecond(candle.getBucketStart()), ZoneId.systemDefault())
+                .format(TIME_FORMATTER));
+        dto.setOpen(candle.getOpen());
+        dto.setHigh(candle.getHigh());
+        dto.setLow(candle.getLow());
+        dto.setClose(candle.getClose());
+        return dto;
+    }
+
+    private LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "日期格式错误，应为 yyyy-MM-dd: " + date);
+        }
+    }
+}
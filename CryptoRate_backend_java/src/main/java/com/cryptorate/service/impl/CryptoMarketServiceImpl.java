@@ -1,30 +1,47 @@
 package com.cryptorate.service.impl;
 
+import com.cryptorate.alert.PriceAlertEngine;
+import com.cryptorate.backfill.HistoricalBackfillEngine;
+import com.cryptorate.cache.LatestRateStore;
+import com.cryptorate.cache.LiveRateCache;
+import com.cryptorate.cache.RollingStatsStore;
+import com.cryptorate.cache.RateSnapshot;
+import com.cryptorate.cache.SymbolRegistry;
 import com.cryptorate.common.exception.ApiException;
 import com.cryptorate.config.CoinlayerConfig;
-import com.cryptorate.dto.CoinlayerResponse;
+import com.cryptorate.dto.AiAlertRequest;
+import com.cryptorate.dto.AlertSubscriptionDTO;
 import com.cryptorate.entity.RateHistory;
-import com.cryptorate.entity.User;
-import com.cryptorate.mapper.RateHistoryMapper;
+import com.cryptorate.event.RatesPublishedEvent;
+import com.cryptorate.ingest.CoinlayerRatesParser;
+import com.cryptorate.ingest.RateColumns;
+import com.cryptorate.ingest.RateHistoryWriter;
 import com.cryptorate.mapper.UserFavoriteMapper;
-import com.cryptorate.mapper.UserMapper;
+import com.cryptorate.service.CandleService;
 import com.cryptorate.service.CryptoMarketService;
 import com.cryptorate.service.FeishuAlertService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -43,41 +60,91 @@ import java.util.Map;
 @Service
 public class CryptoMarketServiceImpl implements CryptoMarketService {
 
+    /** 行情异动告警阈值（涨跌幅绝对值，单位 %） */
+    private static final BigDecimal FLUCTUATION_THRESHOLD = new BigDecimal("5");
+
     private final OkHttpClient okHttpClient;
-    private final ObjectMapper objectMapper;
+    private final CoinlayerRatesParser ratesParser;
+    private final SymbolRegistry symbolRegistry;
     private final CoinlayerConfig coinlayerConfig;
-    private final RateHistoryMapper rateHistoryMapper;
-    private final UserMapper userMapper;
     private final UserFavoriteMapper userFavoriteMapper;
     private final FeishuAlertService feishuAlertService;
+    private final LatestRateStore latestRateStore;
+    private final LiveRateCache liveRateCache;
+    private final PriceAlertEngine priceAlertEngine;
+    private final RollingStatsStore rollingStatsStore;
+    private final CandleService candleService;
+    private final HistoricalBackfillEngine backfillEngine;
+    private final RateHistoryWriter rateHistoryWriter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** 定时同步复用的列式缓冲区，同时作为同步互斥锁 */
+    private final RateColumns syncBuffer = new RateColumns();
 
     @Autowired
     public CryptoMarketServiceImpl(OkHttpClient okHttpClient,
-            ObjectMapper objectMapper,
+            CoinlayerRatesParser ratesParser,
+            SymbolRegistry symbolRegistry,
             CoinlayerConfig coinlayerConfig,
-            RateHistoryMapper rateHistoryMapper,
-            UserMapper userMapper,
             UserFavoriteMapper userFavoriteMapper,
-            @Lazy FeishuAlertService feishuAlertService) {
+            @Lazy FeishuAlertService feishuAlertService,
+            LatestRateStore latestRateStore,
+            LiveRateCache liveRateCache,
+            PriceAlertEngine priceAlertEngine,
+            RollingStatsStore rollingStatsStore,
+            CandleService candleService,
+            HistoricalBackfillEngine backfillEngine,
+            RateHistoryWriter rateHistoryWriter,
+            ApplicationEventPublisher eventPublisher) {
         this.okHttpClient = okHttpClient;
-        this.objectMapper = objectMapper;
+        this.ratesParser = ratesParser;
+        this.symbolRegistry = symbolRegistry;
         this.coinlayerConfig = coinlayerConfig;
-        this.rateHistoryMapper = rateHistoryMapper;
-        this.userMapper = userMapper;
         this.userFavoriteMapper = userFavoriteMapper;
         this.feishuAlertService = feishuAlertService;
+        this.latestRateStore = latestRateStore;
+        this.liveRateCache = liveRateCache;
+        this.priceAlertEngine = priceAlertEngine;
+        this.rollingStatsStore = rollingStatsStore;
+        this.candleService = candleService;
+        this.backfillEngine = backfillEngine;
+        this.rateHistoryWriter = rateHistoryWriter;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public Map<String, BigDecimal> getRealTimeRates() {
+        return liveRateCache.get(this::fetchLiveRates);
+    }
+
+    @Override
+    public Map<String, Object> getRealTimeCacheStats() {
+        return liveRateCache.getStats();
+    }
+
+    /**
+     * 直接调用 Coinlayer /live 接口获取实时汇率（不经过缓存）
+     *
+     * @return 加密货币汇率映射
+     */
+    private Map<String, BigDecimal> fetchLiveRates() {
+        RateColumns columns = new RateColumns();
+        fetchLiveRates(columns);
+        return toRateMap(columns);
+    }
+
+    /**
+     * 调用 Coinlayer /live 接口，把响应流式解析到列式缓冲区
+     *
+     * @param out 接收汇率的缓冲区（会被清空）
+     */
+    private void fetchLiveRates(RateColumns out) {
         log.info("开始获取 Coinlayer 实时汇率数据...");
 
         String url = String.format("%s/live?access_key=%s",
                 coinlayerConfig.getBaseUrl(),
                 coinlayerConfig.getAccessKey());
 
-        log.debug("请求 URL: {}", url);
-
         Request request = new Request.Builder()
                 .url(url)
                 .get()
@@ -105,31 +172,23 @@ public class CryptoMarketServiceImpl implements CryptoMarketService {
                 throw new ApiException("API 响应内容为空");
             }
 
-            String jsonBody = response.body().string();
-            log.debug("响应 Body: {}", jsonBody);
+            CoinlayerRatesParser.Header header = ratesParser.parse(response.body().byteStream(), out);
 
-            CoinlayerResponse coinlayerResponse = objectMapper.readValue(jsonBody, CoinlayerResponse.class);
-
-            if (coinlayerResponse.getSuccess() == null || !coinlayerResponse.getSuccess()) {
+            if (!header.success()) {
                 String errorMsg = "Coinlayer API 调用失败";
-                if (coinlayerResponse.getError() != null) {
-                    errorMsg = String.format("Coinlayer API 错误: [%d] %s",
-                            coinlayerResponse.getError().getCode(),
-                            coinlayerResponse.getError().getInfo());
+                if (header.errorCode() != null) {
+                    errorMsg = String.format("Coinlayer API 错误: [%d] %s", header.errorCode(), header.errorInfo());
                 }
                 log.error(errorMsg);
                 throw new ApiException(errorMsg);
             }
 
-            Map<String, BigDecimal> rates = coinlayerResponse.getRates();
-
-            if (rates == null || rates.isEmpty()) {
+            if (out.isEmpty()) {
                 log.warn("汇率数据为空");
                 throw new ApiException("汇率数据为空");
             }
 
-            log.info("成功获取 {} 个加密货币的实时汇率", rates.size());
-            return rates;
+            log.info("成功获取 {} 个加密货币的实时汇率", out.size());
 
         } catch (IOException e) {
             log.error("调用 Coinlayer API 时发生异常: {}", e.getMessage(), e);
@@ -137,11 +196,20 @@ public class CryptoMarketServiceImpl implements CryptoMarketService {
         }
     }
 
+    /** 列式数据转换为 币种 -> 汇率 映射，供实时汇率缓存与 /market 接口使用（保持 Coinlayer 原始精度） */
+    private Map<String, BigDecimal> toRateMap(RateColumns columns) {
+        Map<String, BigDecimal> rates = new LinkedHashMap<>(columns.size() * 2);
+        for (int row = 0; row < columns.size(); row++) {
+            rates.put(symbolRegistry.symbol(columns.symbolId(row)), columns.exactPrice(row));
+        }
+        return rates;
+    }
+
     @Override
     public BigDecimal getRateBySymbol(String symbol) {
         Map<String, BigDecimal> rates = getRealTimeRates();
 
-        BigDecimal rate = rates.get(symbol.toUpperCase());
+        BigDecimal rate = rates.get(symbolRegistry.canonical(symbol));
         if (rate == null) {
             throw new ApiException(String.format("未找到货币 %s 的汇率数据", symbol));
         }
@@ -152,119 +220,200 @@ public class CryptoMarketServiceImpl implements CryptoMarketService {
     @Override
     public int syncRatesToDatabase() {
         log.info("开始同步汇率数据到数据库...");
- 
-        try {
-            Map<String, BigDecimal> rates = fetchRatesWithRetry();
- 
-            if (rates == null || rates.isEmpty()) {
-                log.warn("未获取到任何汇率数据，同步取消");
-                return 0;
-            }
- 
-            long timestamp = System.currentTimeMillis() / 1000;
-            LocalDateTime now = LocalDateTime.now();
- 
-            List<RateHistory> historyList = new ArrayList<>();
-            for (Map.Entry<String, BigDecimal> entry : rates.entrySet()) {
-                RateHistory history = new RateHistory();
-                history.setSymbol(entry.getKey());
-                history.setRate(entry.getValue());
-                history.setTimestamp(timestamp);
-                history.setCreatedAt(now);
-                historyList.add(history);
-            }
- 
-            if (!historyList.isEmpty()) {
+
+        // 复用同一个列式缓冲区，同步之间串行执行
+        synchronized (syncBuffer) {
+            try {
+                fetchRatesWithRetry(syncBuffer);
+
+                if (syncBuffer.isEmpty()) {
+                    log.warn("未获取到任何汇率数据，同步取消");
+                    return 0;
+                }
+
+                // 以 Coinlayer 报价时间为准，同一报价重复同步时 (symbol, timestamp) 不变，由唯一键去重
+                if (syncBuffer.getTimestamp() <= 0) {
+                    syncBuffer.setTimestamp(System.currentTimeMillis() / 1000);
+                }
+
                 try {
-                    int rows = rateHistoryMapper.batchInsert(historyList);
+                    // 发布前的快照即为"上一次采样"，供异动检查对比
+                    RateSnapshot previous = latestRateStore.current();
+
+                    List<RateHistory> written = rateHistoryWriter.write(syncBuffer);
+                    int rows = written.size();
                     log.info("成功同步 {} 条汇率数据到数据库", rows);
-                    
+
+                    // 入库成功后刷新最新汇率快照等派生数据（只处理新增的数据点）
+                    afterPersist(written);
+
                     // 触发异动预警检查
-                    checkMarketFluctuations(rates);
-                    
+                    checkMarketFluctuations(syncBuffer, previous);
+
+                    // 评估用户自定义价格告警规则
+                    evaluatePriceAlerts(syncBuffer);
+
                     return rows;
                 } catch (Exception e) {
                     log.error("批量插入汇率数据失败: {}. 请确保数据库表已创建。", e.getMessage());
                     throw new ApiException("数据库写入失败: " + e.getMessage(), e);
                 }
+            } catch (Exception e) {
+                log.error("同步汇率数据失败: {}", e.getMessage(), e);
+                throw new ApiException("同步汇率数据失败: " + e.getMessage(), e);
             }
- 
-            return 0;
-        } catch (Exception e) {
-            log.error("同步汇率数据失败: {}", e.getMessage(), e);
-            throw new ApiException("同步汇率数据失败: " + e.getMessage(), e);
         }
     }
 
     /**
      * 检查行情异动并发送告警
      *
-     * @param currentRates 当前最新的汇率数据
+     * <p>
+     * 按"集合"而非"逐用户"处理，数据库查询次数与用户数量无关：
+     * </p>
+     * <ol>
+     * <li>一次联表查询加载所有 用户 -> 收藏币种 订阅关系</li>
+     * <li>每个去重后的币种只从入库前快照取一次上一次采样价，并只计算一次涨跌幅</li>
+     * <li>把超过阈值的币种分发给所有订阅了它的用户</li>
+     * </ol>
+     *
+     * @param current  当前最新的汇率数据
+     * @param previous 本次入库前的最新汇率快照
      */
-    private void checkMarketFluctuations(Map<String, BigDecimal> currentRates) {
+    private void checkMarketFluctuations(RateColumns current, RateSnapshot previous) {
         log.info("开始执行行情异动预警检查...");
 
-        // 1. 获取所有开启了飞书预警的活跃用户
-        List<User> alertUsers = userMapper.selectUsersWithFeishuAlertEnabled();
-        if (alertUsers == null || alertUsers.isEmpty()) {
+        // 1. 一次性加载所有开启飞书预警用户的收藏币种
+        List<AlertSubscriptionDTO> subscriptions = userFavoriteMapper.selectAlertSubscriptions();
+        if (subscriptions == null || subscriptions.isEmpty()) {
             log.debug("当前没有用户开启飞书预警，跳过检查");
             return;
         }
 
-        for (User user : alertUsers) {
-            // 2. 获取该用户的自选币种
-            List<String> userSymbols = userFavoriteMapper.selectSymbolsByUserId(user.getId());
-            if (userSymbols == null || userSymbols.isEmpty()) {
+        // 2. 每个币种只计算一次涨跌幅，仅保留达到阈值的异动（按币种 ID 下标记录）
+        int symbolCount = symbolRegistry.size();
+        Fluctuation[] fluctuations = new Fluctuation[symbolCount];
+        BitSet evaluated = new BitSet(symbolCount);
+        int fluctuating = 0;
+        for (AlertSubscriptionDTO subscription : subscriptions) {
+            int id = symbolRegistry.find(subscription.getSymbol());
+            if (id < 0 || id >= symbolCount || evaluated.get(id)) {
                 continue;
             }
-
-            for (String symbol : userSymbols) {
-                BigDecimal currentPrice = currentRates.get(symbol);
-                if (currentPrice == null) continue;
-
-                // 3. 获取该币种在数据库中的上一条记录（由于当前数据刚插入，最新一条是 currentPrice，所以找倒数第二条）
-                // 为了简化，我们直接取数据库中最近的一条记录（它是 currentPrice 插入之前的最后一条）
-                RateHistory lastHistory = rateHistoryMapper.selectLatestBySymbol(symbol);
-                if (lastHistory == null || lastHistory.getRate() == null) continue;
-
-                BigDecimal lastPrice = lastHistory.getRate();
-                
-                // 4. 计算波动幅度 ( (current - last) / last )
-                // 如果 lastPrice 为 0 则跳过防止除以 0
-                if (lastPrice.compareTo(BigDecimal.ZERO) == 0) continue;
-
-                BigDecimal diff = currentPrice.subtract(lastPrice);
-                BigDecimal changeRate = diff.divide(lastPrice, 4, RoundingMode.HALF_UP)
-                        .multiply(new BigDecimal("100"));
-
-                // 5. 判定阈值（绝对值是否 >= 5%）
-                if (changeRate.abs().compareTo(new BigDecimal("5")) >= 0) {
-                    String trend = changeRate.signum() >= 0 ? "up" : "down";
-                    String reason = String.format("行情剧烈波动：较上一次采样价格 (%s) %s 了 %s%%",
-                            lastPrice.toPlainString(),
-                            trend.equals("up") ? "上涨" : "下跌",
-                            changeRate.abs().setScale(2, RoundingMode.HALF_UP).toPlainString());
-
-                    log.info("检测到异动！用户: {}, 币种: {}, 涨跌幅: {}%", user.getUsername(), symbol, changeRate);
-                    feishuAlertService.sendPriceAlert(symbol, currentPrice, lastPrice, trend, reason, user.getFeishuWebhook());
-                }
+            evaluated.set(id);
+            int row = current.rowOf(id);
+            if (row < 0) {
+                continue;
             }
+            Fluctuation fluctuation = evaluateFluctuation(symbolRegistry.symbol(id), current.price(row),
+                    previous.get(id));
+            if (fluctuation != null) {
+                fluctuations[id] = fluctuation;
+                fluctuating++;
+            }
+        }
+
+        if (fluctuating == 0) {
+            log.info("行情异动检查完成，{} 个订阅币种均未达到告警阈值", evaluated.cardinality());
+            return;
+        }
+
+        // 3. 分发给订阅了异动币种的用户（整轮一次性交给异步分发队列，同一 Webhook 的多条告警会被合并）
+        List<AiAlertRequest> alerts = new ArrayList<>();
+        for (AlertSubscriptionDTO subscription : subscriptions) {
+            int id = symbolRegistry.find(subscription.getSymbol());
+            Fluctuation f = id >= 0 && id < symbolCount ? fluctuations[id] : null;
+            if (f == null) continue;
+
+            log.info("检测到异动！用户: {}, 币种: {}, 涨跌幅: {}%", subscription.getUsername(), f.symbol(), f.changeRate());
+            alerts.add(feishuAlertService.buildPriceAlert(f.symbol(), f.currentPrice(), f.lastPrice(), f.reason(),
+                    subscription.getFeishuWebhook()));
+        }
+        feishuAlertService.sendPriceAlerts(alerts);
+    }
+
+    /**
+     * 入库成功后刷新派生数据：原子发布最新汇率快照、增量更新滚动统计窗口与 K 线，
+     * 快照版本变化时发布 {@link RatesPublishedEvent} 供实时推送使用
+     *
+     * @param histories 刚写入 rate_history 的记录
+     */
+    private void afterPersist(List<RateHistory> histories) {
+        RateSnapshot previous = latestRateStore.current();
+        RateSnapshot current = latestRateStore.publish(histories);
+        if (current != previous) {
+            eventPublisher.publishEvent(new RatesPublishedEvent(previous, current, histories));
+        }
+        rollingStatsStore.append(histories);
+        try {
+            candleService.rollup(histories);
+        } catch (Exception e) {
+            // K 线可通过回补重建，失败不影响本次同步
+            log.error("K 线增量合并失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 用内存告警引擎评估用户价格规则，失败不影响本次同步结果
+     */
+    private void evaluatePriceAlerts(RateColumns rates) {
+        try {
+            priceAlertEngine.evaluate(rates);
+        } catch (Exception e) {
+            log.error("价格告警规则评估失败: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * 计算单个币种相对上一次采样的波动，未达到阈值时返回 null
+     */
+    private Fluctuation evaluateFluctuation(String symbol, BigDecimal currentPrice, RateHistory lastHistory) {
+        if (currentPrice == null || lastHistory == null || lastHistory.getRate() == null) {
+            return null;
+        }
+
+        BigDecimal lastPrice = lastHistory.getRate();
+
+        // 计算波动幅度 ( (current - last) / last )，lastPrice 为 0 时跳过防止除以 0
+        if (lastPrice.compareTo(BigDecimal.ZERO) == 0) {
+            return null;
+        }
+
+        BigDecimal diff = currentPrice.subtract(lastPrice);
+        BigDecimal changeRate = diff.divide(lastPrice, 4, RoundingMode.HALF_UP)
+                .multiply(new BigDecimal("100"));
+
+        // 判定阈值（绝对值是否 >= 5%）
+        if (changeRate.abs().compareTo(FLUCTUATION_THRESHOLD) < 0) {
+            return null;
+        }
+
+        String trend = changeRate.signum() >= 0 ? "up" : "down";
+        String reason = String.format("行情剧烈波动：较上一次采样价格 (%s) %s 了 %s%%",
+                lastPrice.toPlainString(),
+                trend.equals("up") ? "上涨" : "下跌",
+                changeRate.abs().setScale(2, RoundingMode.HALF_UP).toPlainString());
+        return new Fluctuation(symbol, currentPrice, lastPrice, changeRate, trend, reason);
+    }
+
+    /** 单个币种的异动计算结果 */
+    private record Fluctuation(String symbol, BigDecimal currentPrice, BigDecimal lastPrice,
+            BigDecimal changeRate, String trend, String reason) {
+    }
+
     @Override
     public int syncHistoricalRates(List<String> symbols, int days) {
         log.info("开始执行历史数据智能采样同步，币种: {}, 回溯天数: {}", symbols, days);
-        int totalRows = 0;
-        java.time.LocalDate today = java.time.LocalDate.now();
-        
+        LocalDate today = LocalDate.now();
+
         // 智能采样策略：
         // 1. 最近 7 天：每天一个点
         // 2. 1个月内：每 2 天一个点
         // 3. 3个月内：每 7 天一个点
         // 4. 1年内：每 30 天一个点
-        List<java.time.LocalDate> targetDates = new ArrayList<>();
-        for (int i = 0; i <= days; i++) {
+        // 今天的数据尚不完整，由实时同步负责，不在回补范围内
+        List<LocalDate> targetDates = new ArrayList<>();
+        for (int i = 1; i <= days; i++) {
             if (i <= 7 || (i <= 30 && i % 2 == 0) || (i <= 90 && i % 7 == 0) || (i % 30 == 0)) {
                 targetDates.add(today.minusDays(i));
             }
@@ -272,52 +421,82 @@ public class CryptoMarketServiceImpl implements CryptoMarketService {
 
         log.info("计算得出共需同步 {} 个日期的采样数据", targetDates.size());
 
-        for (java.time.LocalDate date : targetDates) {
-            String dateStr = date.toString();
-            String url = String.format("%s/%s?access_key=%s&symbols=%s",
-                    coinlayerConfig.getBaseUrl(),
-                    dateStr,
-                    coinlayerConfig.getAccessKey(),
-                    String.join(",", symbols));
-
-            Request request = new Request.Builder().url(url).get().build();
-            try (Response response = okHttpClient.newCall(request).execute()) {
-                if (response.isSuccessful() && response.body() != null) {
-                    CoinlayerResponse res = objectMapper.readValue(response.body().string(), CoinlayerResponse.class);
-                    if (res != null && res.getSuccess() && res.getRates() != null) {
-                        List<RateHistory> batch = new ArrayList<>();
-                        long timestamp = res.getTimestamp() != null ? res.getTimestamp() : 
-                                       date.atStartOfDay(java.time.ZoneId.systemDefault()).toEpochSecond();
-                        
-                        for (Map.Entry<String, BigDecimal> entry : res.getRates().entrySet()) {
-                            RateHistory rh = new RateHistory();
-                            rh.setSymbol(entry.getKey());
-                            rh.setRate(entry.getValue());
-                            rh.setTimestamp(timestamp);
-                            rh.setCreatedAt(LocalDateTime.now());
-                            batch.add(rh);
-                        }
-                        if (!batch.isEmpty()) {
-                            totalRows += rateHistoryMapper.batchInsert(batch);
-                        }
-                    }
+        List<String> normalized = symbols.stream()
+                .map(sym -> sym.trim().toUpperCase(Locale.ROOT))
+                .filter(sym -> !sym.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+        // 同一组币种共享回补进度
+        String jobKey = DigestUtils.md5DigestAsHex(String.join(",", normalized).getBytes(StandardCharsets.UTF_8));
+        HistoricalBackfillEngine.Result result = backfillEngine.run(jobKey, targetDates,
+                date -> fetchHistoricalRates(date, normalized),
+                batch -> {
+                    List<RateHistory> written = rateHistoryWriter.write(batch);
+                    afterPersist(written);
+                    return written.size();
+                });
+
+        log.info("同步完成，共计入库 {} 条记录（跳过已完成日期 {} 个，失败 {} 个）",
+                result.rows(), result.skipped(), result.failed());
+        return result.rows();
+    }
+
+    /**
+     * 调用 Coinlayer 历史接口获取指定日期的汇率
+     *
+     * @param date    目标日期
+     * @param symbols 币种列表
+     * @return 该日期的汇率记录
+     */
+    private List<RateHistory> fetchHistoricalRates(LocalDate date, List<String> symbols) throws IOException {
+        String url = String.format("%s/%s?access_key=%s&symbols=%s",
+                coinlayerConfig.getBaseUrl(),
+                date,
+                coinlayerConfig.getAccessKey(),
+                String.join(",", symbols));
+
+        Request request = new Request.Builder().url(url).get().build();
+        try (Response response = okHttpClient.newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("HTTP " + response.code());
+            }
+            RateColumns columns = new RateColumns(symbols.size());
+            CoinlayerRatesParser.Header header = ratesParser.parse(response.body().byteStream(), columns);
+            if (!header.success()) {
+                String info = header.errorInfo() != null ? header.errorInfo() : "响应无数据";
+                throw new IOException("Coinlayer 返回失败: " + info);
+            }
+
+            long timestamp = columns.getTimestamp() > 0 ? columns.getTimestamp()
+                    : date.atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+            LocalDateTime now = LocalDateTime.now();
+            List<RateHistory> batch = new ArrayList<>(columns.size());
+            for (int row = 0; row < columns.size(); row++) {
+                if (!columns.isStorable(row)) {
+                    continue;
                 }
-                // 频率限制保护
-                Thread.sleep(300); 
-            } catch (Exception e) {
-                log.error("同步日期 {} 数据失败: {}", dateStr, e.getMessage());
+                RateHistory rh = new RateHistory();
+                rh.setSymbol(symbolRegistry.symbol(columns.symbolId(row)));
+                rh.setRate(columns.price(row));
+                rh.setTimestamp(timestamp);
+                rh.setCreatedAt(now);
+                batch.add(rh);
             }
+            return batch;
         }
-        log.info("同步完成，共计入库 {} 条记录", totalRows);
-        return totalRows;
     }
 
     /**
      * 带重试机制的获取汇率数据（首次失败后等待 2 秒重试一次）
+     *
+     * <p>定时同步始终直连上游获取最新数据，并顺带刷新实时汇率缓存。</p>
+     *
+     * @param out 接收汇率的缓冲区
      */
-    private Map<String, BigDecimal> fetchRatesWithRetry() {
+    private void fetchRatesWithRetry(RateColumns out) {
         try {
-            return getRealTimeRates();
+            fetchLiveRates(out);
         } catch (ApiException e) {
             String msg = e.getMessage();
             // 如果是限流错误，不重试
@@ -331,7 +510,8 @@ public class CryptoMarketServiceImpl implements CryptoMarketService {
             } catch (InterruptedException ie) {
                 Thread.currentThread().interrupt();
             }
-            return getRealTimeRates();
+            fetchLiveRates(out);
         }
+        liveRateCache.put(toRateMap(out));
     }
 }
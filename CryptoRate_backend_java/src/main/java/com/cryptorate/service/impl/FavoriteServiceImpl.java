@@ -1,11 +1,14 @@
 package com.cryptorate.service.impl;
 
+import com.cryptorate.cache.SymbolRegistry;
 import com.cryptorate.common.exception.ApiException;
 import com.cryptorate.entity.UserFavorite;
+import com.cryptorate.event.FavoriteChangedEvent;
 import com.cryptorate.mapper.UserFavoriteMapper;
 import com.cryptorate.service.FavoriteService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,10 +33,15 @@ import java.util.List;
 public class FavoriteServiceImpl implements FavoriteService {
 
     private final UserFavoriteMapper favoriteMapper;
+    private final SymbolRegistry symbolRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public FavoriteServiceImpl(UserFavoriteMapper favoriteMapper) {
+    public FavoriteServiceImpl(UserFavoriteMapper favoriteMapper, SymbolRegistry symbolRegistry,
+            ApplicationEventPublisher eventPublisher) {
         this.favoriteMapper = favoriteMapper;
+        this.symbolRegistry = symbolRegistry;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -44,7 +52,7 @@ public class FavoriteServiceImpl implements FavoriteService {
         }
         
         log.info("用户 {} 尝试添加收藏: {}", userId, symbol);
-        String upperSymbol = symbol.toUpperCase();
+        String upperSymbol = symbolRegistry.canonical(symbol);
 
         // 幂等校验：如果库中已存在，则记录并返回，不报错
         UserFavorite existing = favoriteMapper.selectByUserIdAndSymbol(userId, upperSymbol);
@@ -70,13 +78,17 @@ public class FavoriteServiceImpl implements FavoriteService {
             log.error("执行收藏插入 SQL 时发生异常: {}", e.getMessage(), e);
             throw new ApiException(500, "服务异常，请稍后再试");
         }
+        eventPublisher.publishEvent(new FavoriteChangedEvent(userId));
     }
 
     @Override
     public void removeFavorite(Long userId, String symbol) {
         log.info("用户 {} 取消收藏: {}", userId, symbol);
-        int rows = favoriteMapper.deleteByUserIdAndSymbol(userId, symbol.toUpperCase());
+        int rows = favoriteMapper.deleteByUserIdAndSymbol(userId, symbolRegistry.canonical(symbol));
         log.info("取消收藏结果: userId={}, symbol={}, affected={}", userId, symbol, rows);
+        if (rows > 0) {
+            eventPublisher.publishEvent(new FavoriteChangedEvent(userId));
+        }
     }
 
     @Override
@@ -86,11 +98,14 @@ public class FavoriteServiceImpl implements FavoriteService {
             log.warn("批量取消收藏：symbols 为空，跳过");
             return;
         }
-        // 统一转大写
-        List<String> upperSymbols = symbols.stream().map(String::toUpperCase).toList();
+        // 统一为大写代码（已登记的币种直接复用字典中的实例）
+        List<String> upperSymbols = symbols.stream().map(symbolRegistry::canonical).toList();
         log.info("用户 {} 批量取消收藏: {}", userId, upperSymbols);
         int rows = favoriteMapper.batchDeleteBySymbols(userId, upperSymbols);
         log.info("批量取消完成，affected={}", rows);
+        if (rows > 0) {
+            eventPublisher.publishEvent(new FavoriteChangedEvent(userId));
+        }
     }
 
     @Override
@@ -108,7 +123,7 @@ public class FavoriteServiceImpl implements FavoriteService {
     @Override
     public void updateNote(Long userId, String symbol, String note) {
         log.info("更新备注: userId={}, symbol={}, note={}", userId, symbol, note);
-        int rows = favoriteMapper.updateNote(userId, symbol.toUpperCase(), note);
+        int rows = favoriteMapper.updateNote(userId, symbolRegistry.canonical(symbol), note);
         if (rows <= 0) {
             log.warn("备注更新失败（可能未收藏该币种）: userId={}, symbol={}", userId, symbol);
             throw new ApiException(404, "未找到该收藏记录");
@@ -118,7 +133,7 @@ public class FavoriteServiceImpl implements FavoriteService {
     @Override
     public void updatePriceAlert(Long userId, String symbol, BigDecimal priceUpper, BigDecimal priceLower) {
         log.info("设置价格提醒: userId={}, symbol={}, upper={}, lower={}", userId, symbol, priceUpper, priceLower);
-        int rows = favoriteMapper.updatePriceAlert(userId, symbol.toUpperCase(), priceUpper, priceLower);
+        int rows = favoriteMapper.updatePriceAlert(userId, symbolRegistry.canonical(symbol), priceUpper, priceLower);
         if (rows <= 0) {
             log.warn("价格提醒设置失败: userId={}, symbol={}", userId, symbol);
             throw new ApiException(404, "未找到该收藏记录");
@@ -129,6 +144,6 @@ public class FavoriteServiceImpl implements FavoriteService {
     @Transactional(rollbackFor = Exception.class)
     public void updateSortOrder(Long userId, String symbol, Integer sortOrder) {
         log.info("更新排序: userId={}, symbol={}, sortOrder={}", userId, symbol, sortOrder);
-        favoriteMapper.updateSortOrder(userId, symbol.toUpperCase(), sortOrder);
+        favoriteMapper.updateSortOrder(userId, symbolRegistry.canonical(symbol), sortOrder);
     }
 }
@@ -1,5 +1,6 @@
 package com.cryptorate.service.impl;
 
+import com.cryptorate.alert.AlertDispatcher;
 import com.cryptorate.dto.AiAlertRequest;
 import com.cryptorate.service.FeishuAlertService;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +14,7 @@ import org.springframework.web.client.RestTemplate;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -24,23 +26,26 @@ import java.util.Map;
  * 该实现将行情异动数据转发给 Python AI Agent，
  * 由 Agent 联通 feishu_mcp_server (@Chenzhi-Ana) 进行市场解读并播报。
  * </p>
+ *
+ * <p>
+ * 价格告警经 {@link AlertDispatcher} 异步投递（合并、重试、死信），调用方不会被 AI 服务阻塞。
+ * </p>
  */
 @Slf4j
 @Service
 public class FeishuAlertServiceImpl implements FeishuAlertService {
 
-    /** Python AI 告警分析接口地址 */
-    private static final String AI_ALERT_URL = "http://127.0.0.1:8000/ai/alert";
-
     private final RestTemplate restTemplate;
+    private final AlertDispatcher alertDispatcher;
 
     @Autowired
-    public FeishuAlertServiceImpl(RestTemplate restTemplate) {
+    public FeishuAlertServiceImpl(RestTemplate restTemplate, AlertDispatcher alertDispatcher) {
         this.restTemplate = restTemplate;
+        this.alertDispatcher = alertDispatcher;
     }
 
     /**
-     * 发送智能价格告警
+     * 发送智能价格告警（交给 {@link AlertDispatcher} 异步投递）
      * 
      * @param coinSymbol   币种
      * @param currentPrice 当前价
@@ -51,37 +56,32 @@ public class FeishuAlertServiceImpl implements FeishuAlertService {
      */
     @Override
     public void sendPriceAlert(String coinSymbol, BigDecimal currentPrice, BigDecimal triggerPrice, String trend, String reason, String webhookUrl) {
-        log.info("[System] 检测到行情异动，正在启动 AI 智能告警流程: {}, Webhook: {}", coinSymbol, webhookUrl != null ? "User-Specific" : "Default");
-
-        try {
-            // 1. 计算波动百分比
-            BigDecimal change = currentPrice.subtract(triggerPrice)
-                    .divide(triggerPrice, 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
-
-            // 2. 构造 AI 请求
-            AiAlertRequest alertRequest = AiAlertRequest.builder()
-                    .symbol(coinSymbol)
-                    .price(currentPrice)
-                    .change(change)
-                    .reason(reason) 
-                    .webhookUrl(webhookUrl) // 填充 Webhook
-                    .build();
-
-            // 3. 构造 Http Header
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<AiAlertRequest> entity = new HttpEntity<>(alertRequest, headers);
+        log.info("[System] 检测到行情异动，告警已加入投递队列: {}, Webhook: {}", coinSymbol, webhookUrl != null ? "User-Specific" : "Default");
+        sendPriceAlerts(List.of(buildPriceAlert(coinSymbol, currentPrice, triggerPrice, reason, webhookUrl)));
+    }
 
-            // 4. 调用 Python AI Alert 接口 (触发 Agent + MCP 流程)
-            log.info("[Agent] 正在请求 AI Agent 生成异动播报并发送到指定飞书 Webhook...");
-            restTemplate.postForEntity(AI_ALERT_URL, entity, String.class);
-            
-            log.info("[System] AI 智能告警指令下达成功。");
+    @Override
+    public void sendPriceAlerts(Collection<AiAlertRequest> alerts) {
+        alertDispatcher.submit(alerts);
+    }
 
-        } catch (Exception e) {
-            log.error("[System] AI 智能告警系统故障: {}", e.getMessage());
-        }
+    @Override
+    public AiAlertRequest buildPriceAlert(String coinSymbol, BigDecimal currentPrice, BigDecimal referencePrice,
+            String reason, String webhookUrl) {
+        // 计算波动百分比，参考价为 0 时不计算
+        BigDecimal change = referencePrice == null || referencePrice.signum() == 0
+                ? BigDecimal.ZERO
+                : currentPrice.subtract(referencePrice)
+                        .divide(referencePrice, 4, RoundingMode.HALF_UP)
+                        .multiply(new BigDecimal("100"));
+
+        return AiAlertRequest.builder()
+                .symbol(coinSymbol)
+                .price(currentPrice)
+                .change(change)
+                .reason(reason)
+                .webhookUrl(webhookUrl)
+                .build();
     }
 
     /**
@@ -98,27 +98,7 @@ public class FeishuAlertServiceImpl implements FeishuAlertService {
         }
 
         try {
-            // 构造飞书 Markdown 消息格式
-            // 格式参考: https://open.feishu.cn/document/common-capabilities/dispatch-messages-and-groups/message-types/content-types/post
-            Map<String, Object> body = Map.of(
-                "msg_type", "interactive",
-                "card", Map.of(
-                    "header", Map.of(
-                        "title", Map.of("tag", "plain_text", "content", "📊 CryptoRate AI 市场每日简报"),
-                        "template", "blue"
-                    ),
-                    "elements", List.of(
-                        Map.of(
-                            "tag", "markdown",
-                            "content", content
-                        ),
-                        Map.of(
-                            "tag", "note",
-                            "elements", List.of(Map.of("tag", "plain_text", "content", "生成时间: " + LocalDateTime.now()))
-                        )
-                    )
-                )
-            );
+            Map<String, Object> body = buildMarketBriefingCard(content, LocalDateTime.now());
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
@@ -131,4 +111,29 @@ public class FeishuAlertServiceImpl implements FeishuAlertService {
             log.error("[Feishu] 发送每日简报失败: {}", e.getMessage());
         }
     }
+
+    @Override
+    public Map<String, Object> buildMarketBriefingCard(String content, LocalDateTime generatedAt) {
+        // 构造飞书 Markdown 消息格式
+        // 格式参考: https://open.feishu.cn/document/common-capabilities/dispatch-messages-and-groups/message-types/content-types/post
+        return Map.of(
+            "msg_type", "interactive",
+            "card", Map.of(
+                "header", Map.of(
+                    "title", Map.of("tag", "plain_text", "content", "📊 CryptoRate AI 市场每日简报"),
+                    "template", "blue"
+                ),
+                "elements", List.of(
+                    Map.of(
+                        "tag", "markdown",
+                        "content", content
+                    ),
+                    Map.of(
+                        "tag", "note",
+                        "elements", List.of(Map.of("tag", "plain_text", "content", "生成时间: " + generatedAt))
+                    )
+                )
+            )
+        );
+    }
 }
@@ -1,19 +1,35 @@
 package com.cryptorate.service.impl;
 
+import com.cryptorate.cache.LatestRateStore;
+import com.cryptorate.cache.RateSnapshot;
+import com.cryptorate.cache.SymbolCatalog;
+import com.cryptorate.cache.SymbolSearchIndex;
+import com.cryptorate.common.exception.ApiException;
 import com.cryptorate.dto.HistoryRateDTO;
 import com.cryptorate.dto.LatestRateDTO;
 import com.cryptorate.entity.RateHistory;
 import com.cryptorate.mapper.RateHistoryMapper;
 import com.cryptorate.service.RateService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -38,56 +54,88 @@ public class RateServiceImpl implements RateService {
             "BTC", "ETH", "BNB", "SOL", "XRP", "DOGE", "ADA", "AVAX", "DOT", "MATIC",
             "LINK", "UNI", "LTC", "ATOM", "ETC", "XLM", "BCH", "NEAR", "APT", "FIL");
 
+    /** 默认币种列表对应的版本（版本号 0，与目录的任何版本都不冲突） */
+    private static final SymbolCatalog.Listing DEFAULT_LISTING =
+            SymbolCatalog.Listing.of(0, DEFAULT_SYMBOLS.stream().sorted().toList());
+
+    /** 币种搜索最多返回的数量 */
+    private static final int MAX_SEARCH_RESULTS = 50;
+
+    /** 单次导出最多允许的币种数量 */
+    private static final int MAX_EXPORT_SYMBOLS = 50;
+
+    /** 单次导出最多允许的「币种数 × 天数」（如 10 个币种导出一年） */
+    private static final long MAX_EXPORT_SYMBOL_DAYS = 3660;
+
+    /** 导出格式：每行一个 JSON 对象 */
+    private static final String FORMAT_NDJSON = "ndjson";
+
+    /** 导出格式：CSV */
+    private static final String FORMAT_CSV = "csv";
+
     private final RateHistoryMapper rateHistoryMapper;
+    private final LatestRateStore latestRateStore;
+    private final SymbolSearchIndex symbolSearchIndex;
+    private final SymbolCatalog symbolCatalog;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public RateServiceImpl(RateHistoryMapper rateHistoryMapper) {
+    public RateServiceImpl(RateHistoryMapper rateHistoryMapper, LatestRateStore latestRateStore,
+            SymbolSearchIndex symbolSearchIndex, SymbolCatalog symbolCatalog, ObjectMapper objectMapper) {
         this.rateHistoryMapper = rateHistoryMapper;
+        this.latestRateStore = latestRateStore;
+        this.symbolSearchIndex = symbolSearchIndex;
+        this.symbolCatalog = symbolCatalog;
+        this.objectMapper = objectMapper;
     }
 
     @Override
-    public List<String> getSupportedSymbols() {
-        log.info("获取系统支持的币种");
-        List<String> symbols = rateHistoryMapper.selectAllSymbols();
-        if (symbols == null || symbols.isEmpty()) {
-            log.info("数据库暂无币种数据，使用默认币种列表（共 {} 个）", DEFAULT_SYMBOLS.size());
-            return new ArrayList<>(DEFAULT_SYMBOLS);
+    public SymbolCatalog.Listing getSupportedSymbols() {
+        // 读取内存中的币种目录，不访问数据库
+        SymbolCatalog.Listing listing = symbolCatalog.listing();
+        if (listing.symbols().isEmpty()) {
+            log.debug("币种目录为空，使用默认币种列表（共 {} 个）", DEFAULT_SYMBOLS.size());
+            return DEFAULT_LISTING;
         }
-        log.info("共支持 {} 个币种", symbols.size());
-        return symbols;
+        return listing;
     }
 
     @Override
     public List<String> searchSymbols(String keyword) {
-        log.info("搜索币种，关键词: {}", keyword);
-        List<String> allSymbols = rateHistoryMapper.selectAllSymbols();
-        if (allSymbols == null || allSymbols.isEmpty()) {
-            allSymbols = new ArrayList<>(DEFAULT_SYMBOLS);
+        log.debug("搜索币种，关键词: {}", keyword);
+        if (symbolSearchIndex.isEmpty()) {
+            // rate_history 尚无数据时在默认币种列表中查找
+            return searchDefaultSymbols(keyword);
         }
+        List<String> matched = symbolSearchIndex.search(keyword, MAX_SEARCH_RESULTS);
+        log.debug("搜索到 {} 个匹配币种", matched.size());
+        return matched;
+    }
+
+    private List<String> searchDefaultSymbols(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
-            int limit = Math.min(50, allSymbols.size());
-            return new ArrayList<>(allSymbols.subList(0, limit));
+            return new ArrayList<>(DEFAULT_SYMBOLS);
         }
-        String lowerKeyword = keyword.trim().toLowerCase();
-        List<String> matched = allSymbols.stream()
-                .filter(symbol -> symbol != null && symbol.toLowerCase().contains(lowerKeyword))
-                .limit(50)
+        String upperKeyword = keyword.trim().toUpperCase();
+        return DEFAULT_SYMBOLS.stream()
+                .filter(symbol -> symbol.contains(upperKeyword))
+                .limit(MAX_SEARCH_RESULTS)
                 .collect(Collectors.toList());
-        log.info("搜索到 {} 个匹配币种", matched.size());
-        return matched;
     }
 
     @Override
     public List<LatestRateDTO> getLatestRates(String symbol) {
         log.info("获取最新实时汇率，筛选币种: {}", symbol);
 
+        // 直接读取内存快照，不访问数据库
+        RateSnapshot snapshot = latestRateStore.current();
         List<RateHistory> historyList;
 
         if (symbol != null && !symbol.isEmpty()) {
-            RateHistory history = rateHistoryMapper.selectLatestBySymbol(symbol);
+            RateHistory history = snapshot.get(symbol);
             historyList = history != null ? List.of(history) : List.of();
         } else {
-            historyList = rateHistoryMapper.selectAllLatestRates();
+            historyList = snapshot.getSortedRates();
         }
 
         return historyList.stream().map(this::convertToLatestRateDTO).collect(Collectors.toList());
@@ -105,6 +153,119 @@ public class RateServiceImpl implements RateService {
         return historyList.stream().map(this::convertToHistoryRateDTO).collect(Collectors.toList());
     }
 
+    @Override
+    public StreamingResponseBody exportHistoryRates(List<String> symbols, String start, String end, String format) {
+        List<String> normalized = symbols.stream()
+                .map(String::trim)
+                .filter(sym -> !sym.isEmpty())
+                .map(String::toUpperCase)
+                .distinct()
+                .collect(Collectors.toList());
+        if (normalized.isEmpty() || normalized.size() > MAX_EXPORT_SYMBOLS) {
+            throw new ApiException(400, "币种数量需在 1 到 " + MAX_EXPORT_SYMBOLS + " 之间");
+        }
+        boolean csv = FORMAT_CSV.equalsIgnoreCase(format);
+        if (!csv && !FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            throw new ApiException(400, "不支持的导出格式: " + format + "（可选 ndjson、csv）");
+        }
+        long startTime;
+        long endTime;
+        try {
+            startTime = parseDate(start);
+            endTime = parseDate(end) + 24 * 3600L - 1;
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "日期格式错误，应为 yyyy-MM-dd");
+        }
+        if (endTime < startTime) {
+            throw new ApiException(400, "结束日期不能早于开始日期");
+        }
+        long days = (endTime - startTime + 1) / (24 * 3600L);
+        if (days * normalized.size() > MAX_EXPORT_SYMBOL_DAYS) {
+            throw new ApiException(400, "导出范围过大：币种数 × 天数不能超过 " + MAX_EXPORT_SYMBOL_DAYS
+                    + "（当前 " + normalized.size() + " × " + days + "），请缩小时间范围或分批导出");
+        }
+
+        log.info("流式导出历史汇率，币种: {}, 范围: {} - {}, 格式: {}", normalized, start, end, format);
+
+        // 参数校验在响应提交前完成；真正的读写在返回的回调中进行
+        return out -> {
+            long rows = csv
+                    ? writeCsv(normalized, startTime, endTime, out)
+                    : writeNdjson(normalized, startTime, endTime, out);
+            log.info("历史汇率导出完成，币种: {}, 共 {} 行", normalized, rows);
+        };
+    }
+
+    /** 逐行写出 CSV */
+    private long writeCsv(List<String> symbols, long startTime, long endTime, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("symbol,timestamp,rate\n");
+        long[] rows = {0};
+        stream(symbols, startTime, endTime, row -> {
+            writer.write(row.getSymbol());
+            writer.write(',');
+            writer.write(Long.toString(row.getTimestamp()));
+            writer.write(',');
+            writer.write(row.getRate().toPlainString());
+            writer.write('\n');
+            rows[0]++;
+        });
+        writer.flush();
+        return rows[0];
+    }
+
+    /** 逐行写出 NDJSON（每行一个 JSON 对象） */
+    private long writeNdjson(List<String> symbols, long startTime, long endTime, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 与 CSV 一致输出普通小数，避免小额汇率写成科学计数法（如 1.2E-7）
+        generator.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        generator.setRootValueSeparator(null);
+        long[] rows = {0};
+        stream(symbols, startTime, endTime, row -> {
+            generator.writeStartObject();
+            generator.writeStringField("symbol", row.getSymbol());
+            generator.writeNumberField("timestamp", row.getTimestamp());
+            generator.writeNumberField("rate", row.getRate());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            rows[0]++;
+        });
+        generator.close();
+        return rows[0];
+    }
+
+    /**
+     * 以流式结果集逐行回调，写出异常原样抛出
+     *
+     * <p>MyBatis 会把回调中的异常包装为运行时异常，这里解开后还原为 IOException，
+     * 以便容器识别客户端断开。</p>
+     */
+    private void stream(List<String> symbols, long startTime, long endTime, RowWriter writer) throws IOException {
+        try {
+            rateHistoryMapper.streamBySymbolsAndTimeRange(symbols, startTime, endTime, context -> {
+                try {
+                    writer.write(context.getResultObject());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /** 单行写出回调 */
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(RateHistory row) throws IOException;
+    }
+
     /** 将 RateHistory 转换为 LatestRateDTO */
     private LatestRateDTO convertToLatestRateDTO(RateHistory history) {
         LatestRateDTO dto = new LatestRateDTO();
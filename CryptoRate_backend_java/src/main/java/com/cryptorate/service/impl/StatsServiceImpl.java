@@ -1,8 +1,7 @@
 package com.cryptorate.service.impl;
 
+import com.cryptorate.cache.RollingStatsStore;
 import com.cryptorate.dto.StatsSummaryDTO;
-import com.cryptorate.entity.RateHistory;
-import com.cryptorate.mapper.RateHistoryMapper;
 import com.cryptorate.service.StatsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,66 +9,56 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
 
 /**
  * 数据统计分析业务实现类
  *
  * <p>
  * 实现 {@link StatsService} 接口，提供加密货币汇率的统计数据查询。
+ * 统计值直接读取 {@link RollingStatsStore} 中增量维护的滚动窗口，不再逐次扫描 rate_history。
  * </p>
  *
  * @author CryptoRate Team
- * @version 1.0
+ * @version 1.1
  * @since 2026-03-07
  */
 @Slf4j
 @Service
 public class StatsServiceImpl implements StatsService {
 
-    private final RateHistoryMapper rateHistoryMapper;
+    private final RollingStatsStore rollingStatsStore;
 
     @Autowired
-    public StatsServiceImpl(RateHistoryMapper rateHistoryMapper) {
-        this.rateHistoryMapper = rateHistoryMapper;
+    public StatsServiceImpl(RollingStatsStore rollingStatsStore) {
+        this.rollingStatsStore = rollingStatsStore;
     }
 
     @Override
     public StatsSummaryDTO getSummary(String symbol, String range) {
         log.info("获取统计摘要，币种: {}, 范围: {}", symbol, range);
 
-        // 计算时间范围
-        long endTime = Instant.now().getEpochSecond();
-        long startTime;
-
+        // 选择统计窗口（默认 7 天）
+        long window;
         if ("30d".equals(range)) {
-            startTime = Instant.now().minus(30, ChronoUnit.DAYS)
-                    .atZone(ZoneId.systemDefault())
-                    .toEpochSecond();
+            window = RollingStatsStore.WINDOW_30D;
+        } else if ("24h".equals(range) || "1d".equals(range)) {
+            window = RollingStatsStore.WINDOW_24H;
         } else {
-            // 默认 7 天
-            startTime = Instant.now().minus(7, ChronoUnit.DAYS)
-                    .atZone(ZoneId.systemDefault())
-                    .toEpochSecond();
+            window = RollingStatsStore.WINDOW_7D;
         }
 
-        // 查询统计数据
-        BigDecimal maxValue = rateHistoryMapper.selectMaxRate(symbol, startTime, endTime);
-        BigDecimal minValue = rateHistoryMapper.selectMinRate(symbol, startTime, endTime);
-        BigDecimal avgValue = rateHistoryMapper.selectAvgRate(symbol, startTime, endTime);
-
-        // 获取最新价格和起始价格，计算涨跌
-        List<RateHistory> historyList = rateHistoryMapper.selectBySymbolAndTimeRange(symbol, startTime, endTime);
+        RollingStatsStore.Summary summary = rollingStatsStore.summary(symbol, window);
 
+        BigDecimal avgValue = null;
         BigDecimal priceChange = BigDecimal.ZERO;
         String priceChangePercent = "0.0%";
 
-        if (!historyList.isEmpty()) {
-            BigDecimal firstPrice = historyList.get(0).getRate();
-            BigDecimal lastPrice = historyList.get(historyList.size() - 1).getRate();
+        if (summary.count() > 0) {
+            avgValue = summary.sum().divide(BigDecimal.valueOf(summary.count()), 8, RoundingMode.HALF_UP);
+
+            // 获取最新价格和起始价格，计算涨跌
+            BigDecimal firstPrice = summary.first();
+            BigDecimal lastPrice = summary.last();
 
             priceChange = lastPrice.subtract(firstPrice);
 
@@ -83,8 +72,8 @@ public class StatsServiceImpl implements StatsService {
         // 构建响应
         StatsSummaryDTO dto = new StatsSummaryDTO();
         dto.setSymbol(symbol);
-        dto.setMaxValue(maxValue != null ? maxValue : BigDecimal.ZERO);
-        dto.setMinValue(minValue != null ? minValue : BigDecimal.ZERO);
+        dto.setMaxValue(summary.max() != null ? summary.max() : BigDecimal.ZERO);
+        dto.setMinValue(summary.min() != null ? summary.min() : BigDecimal.ZERO);
         dto.setAvgValue(avgValue != null ? avgValue.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO);
         dto.setPriceChange(priceChange.setScale(2, RoundingMode.HALF_UP));
         dto.setPriceChangePercent(priceChangePercent);
@@ -6,11 +6,13 @@ import com.cryptorate.dto.ProfileUpdateDTO;
 import com.cryptorate.dto.UserLoginDTO;
 import com.cryptorate.dto.UserRegisterDTO;
 import com.cryptorate.entity.User;
+import com.cryptorate.event.UserStatusChangedEvent;
 import com.cryptorate.mapper.UserMapper;
 import com.cryptorate.service.UserService;
 import com.cryptorate.utils.JwtUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -41,13 +43,15 @@ public class UserServiceImpl implements UserService {
     private final UserMapper userMapper;
     private final BCryptPasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public UserServiceImpl(UserMapper userMapper, JwtUtils jwtUtils) {
+    public UserServiceImpl(UserMapper userMapper, JwtUtils jwtUtils, ApplicationEventPublisher eventPublisher) {
         this.userMapper = userMapper;
         // BCryptPasswordEncoder 默认强度为 10，安全强度与性能的平衡点
         this.passwordEncoder = new BCryptPasswordEncoder();
         this.jwtUtils = jwtUtils;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -215,6 +219,7 @@ public class UserServiceImpl implements UserService {
         int rows = userMapper.deleteById(id);
         if (rows > 0) {
             log.info("用户删除成功，ID: {}", id);
+            eventPublisher.publishEvent(new UserStatusChangedEvent(id));
         } else {
             log.error("用户删除失败，ID: {}", id);
             throw new ApiException(500, "用户删除失败");
@@ -306,6 +311,8 @@ public class UserServiceImpl implements UserService {
         if (rows <= 0) {
             throw new ApiException(404, "用户不存在");
         }
+        // 立即失效鉴权拦截器中的状态缓存，禁用操作对下一个请求生效
+        eventPublisher.publishEvent(new UserStatusChangedEvent(id));
     }
 
     @Override
@@ -0,0 +1,134 @@
+package com.cryptorate.stream;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 单个推送连接的有界发件箱
+ *
+ * <p>
+ * SSE 与 WebSocket 两条推送通道共用：广播线程只把消息放入有界队列，由共享的写出线程池异步发送，
+ * 同一连接同时只有一个线程在写，消息按入队顺序送达。慢连接从两个方向受限：
+ * </p>
+ * <ul>
+ * <li><b>积压</b>：队列写满时 {@link #offer} 返回 false，由调用方断开</li>
+ * <li><b>单次发送时长</b>：对端 TCP 窗口写满时发送会一直阻塞，{@link #isStalled} 供调用方定时检查并断开，
+ * 避免少数卡住的连接占满写出线程、让其他健康连接的队列跟着溢出</li>
+ * </ul>
+ *
+ * @param <M> 消息类型
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+final class ConnectionOutbox<M> {
+
+    /** 没有发送在进行 */
+    private static final long IDLE = Long.MIN_VALUE;
+
+    /**
+     * 实际写出一条消息（可能阻塞）
+     */
+    @FunctionalInterface
+    interface Sender<M> {
+        void send(M message) throws Exception;
+    }
+
+    private final BlockingQueue<M> queue;
+    private final Executor writers;
+    private final Sender<M> sender;
+    private final Consumer<Exception> onFailure;
+
+    /** 是否已有写出线程在处理该连接 */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /** 当前这次发送的开始时间（System.nanoTime），没有发送时为 {@link #IDLE} */
+    private volatile long sendStartedAt = IDLE;
+
+    private volatile boolean closed;
+
+    /**
+     * @param capacity  最多积压的消息数
+     * @param writers   共享的写出线程池
+     * @param sender    写出一条消息
+     * @param onFailure 写出失败时回调（写出线程），发件箱此时已关闭
+     */
+    ConnectionOutbox(int capacity, Executor writers, Sender<M> sender, Consumer<Exception> onFailure) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(2, capacity));
+        this.writers = writers;
+        this.sender = sender;
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * 放入一条消息并安排写出
+     *
+     * @return 队列已满时返回 false；发件箱已关闭时直接丢弃并返回 true
+     */
+    boolean offer(M message) {
+        if (closed) {
+            return true;
+        }
+        if (!queue.offer(message)) {
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * @param now        当前时间（System.nanoTime）
+     * @param limitNanos 单次发送时限
+     * @return 当前这次发送是否已超过时限
+     */
+    boolean isStalled(long now, long limitNanos) {
+        long started = sendStartedAt;
+        return started != IDLE && now - started > limitNanos;
+    }
+
+    /**
+     * 关闭发件箱并丢弃积压的消息；正在进行的发送在连接关闭后返回
+     */
+    void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private void schedule() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                writers.execute(this::drain);
+            } catch (Exception e) {
+                draining.set(false);
+            }
+        }
+    }
+
+    /** 依次写出队列中的消息（写出线程） */
+    private void drain() {
+        try {
+            M message;
+            while (!closed && (message = queue.poll()) != null) {
+                sendStartedAt = System.nanoTime();
+                try {
+                    sender.send(message);
+                } finally {
+                    sendStartedAt = IDLE;
+                }
+            }
+        } catch (Exception e) {
+            close();
+            onFailure.accept(e);
+            return;
+        } finally {
+            draining.set(false);
+        }
+        // 释放标记与新消息入队之间可能有竞争，再检查一次
+        if (!closed && !queue.isEmpty()) {
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.cryptorate.stream;
+
+import com.cryptorate.cache.RateSnapshot;
+import com.cryptorate.cache.SymbolRegistry;
+import com.cryptorate.dto.RateTickDTO;
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.event.RatesPublishedEvent;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 一次快照发布中某个币种的价格变动
+ *
+ * <p>SSE 与 WebSocket 两条推送通道共用同一套增量计算：只比较本次写入涉及的币种，价格不变的不算变动。</p>
+ *
+ * @param symbolId 币种 ID（{@link SymbolRegistry}）
+ * @param tick     变动内容
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+record RateChange(int symbolId, RateTickDTO tick) {
+
+    /**
+     * 计算一次发布中价格发生变化的币种（每个币种最多一条）
+     *
+     * @param event          快照发布事件
+     * @param symbolRegistry 币种注册表
+     * @return 变动列表，按写入顺序排列
+     */
+    static List<RateChange> of(RatesPublishedEvent event, SymbolRegistry symbolRegistry) {
+        RateSnapshot previous = event.getPrevious();
+        RateSnapshot current = event.getCurrent();
+        BitSet seen = new BitSet();
+        List<RateChange> changes = new ArrayList<>();
+        for (RateHistory history : event.getWritten()) {
+            int id = symbolRegistry.find(history.getSymbol());
+            if (id < 0 || seen.get(id)) {
+                continue;
+            }
+            seen.set(id);
+            RateHistory latest = current.get(id);
+            RateHistory before = previous.get(id);
+            if (latest == null || latest == before || latest.getRate() == null
+                    || (before != null && before.getRate() != null && before.getRate().compareTo(latest.getRate()) == 0)) {
+                continue;
+            }
+            RateTickDTO tick = new RateTickDTO();
+            tick.setSymbol(symbolRegistry.symbol(id));
+            tick.setRate(latest.getRate());
+            tick.setPreviousRate(before != null ? before.getRate() : null);
+            tick.setTimestamp(latest.getTimestamp());
+            changes.add(new RateChange(id, tick));
+        }
+        return changes;
+    }
+}
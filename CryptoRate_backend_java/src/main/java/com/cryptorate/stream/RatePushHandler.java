@@ -0,0 +1,531 @@
+package com.cryptorate.stream;
+
+import com.cryptorate.cache.LatestRateStore;
+import com.cryptorate.cache.RateSnapshot;
+import com.cryptorate.cache.SymbolRegistry;
+import com.cryptorate.common.DaemonThreads;
+import com.cryptorate.config.RatePushConfig;
+import com.cryptorate.dto.RateTickDTO;
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.event.PriceAlertFiredEvent;
+import com.cryptorate.event.RatesPublishedEvent;
+import com.cryptorate.mapper.UserFavoriteMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket 行情与告警推送通道
+ *
+ * <p>
+ * 交易终端通过 {@code /api/v1/ws} 建立一条长连接，在同一连接上接收所订阅币种的价格变动与本人的价格告警。
+ * 连接建立时按用户收藏初始化订阅集合，之后客户端可以随时增减订阅。
+ * </p>
+ *
+ * <h3>实现要点：</h3>
+ * <ul>
+ * <li><b>认证</b>：握手时由 {@link com.cryptorate.interceptor.WebSocketAuthInterceptor} 校验一次 JWT，
+ * 连接上的消息不再逐条校验</li>
+ * <li><b>倒排索引</b>：维护「币种 ID -&gt; 订阅连接」与「用户ID -&gt; 连接」两个索引；
+ * 每个价格变动只编码一次，只投递给订阅了该币种的连接，告警只投递给该用户的连接</li>
+ * <li><b>顺序</b>：订阅变更与变动分发都在同一个广播线程执行，新订阅币种的当前价总是先于它的后续变动到达</li>
+ * <li><b>有界缓冲</b>：与 SSE 通道共用 {@link ConnectionOutbox}，每个连接一个有界队列，由写出线程池异步发送；
+ * 队列写满或单次写出超过时限即视为慢消费者并断开</li>
+ * <li><b>心跳</b>：定时发送 Ping 帧，保持代理连接并及时清理已断开的客户端</li>
+ * </ul>
+ *
+ * <h3>消息格式（紧凑 JSON 文本帧）：</h3>
+ * <ul>
+ * <li>客户端：{@code {"action":"subscribe|unsubscribe","symbols":["BTC"]}}、{@code {"action":"ping"}}</li>
+ * <li>服务端：{@code welcome}、{@code subscribed}、{@code snapshot}、{@code tick}、{@code alert}、
+ * {@code pong}、{@code error}，以 {@code type} 字段区分</li>
+ * </ul>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class RatePushHandler extends TextWebSocketHandler {
+
+    /** 握手时存入会话属性的用户ID */
+    public static final String ATTR_USER_ID = "userId";
+
+    private static final String ACTION_SUBSCRIBE = "subscribe";
+    private static final String ACTION_UNSUBSCRIBE = "unsubscribe";
+    private static final String ACTION_PING = "ping";
+
+    /** 告警触发时间格式，与实体类的 @JsonFormat 一致 */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** pong 回复，所有连接共享 */
+    private static final TextMessage PONG = new TextMessage("{\"type\":\"pong\"}");
+
+    private final LatestRateStore latestRateStore;
+    private final SymbolRegistry symbolRegistry;
+    private final UserFavoriteMapper userFavoriteMapper;
+    private final ObjectMapper compactMapper;
+    private final RatePushConfig config;
+
+    /** 会话ID -> 连接 */
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+
+    /** 用户ID -> 该用户的连接（告警投递） */
+    private final Map<Long, Set<Client>> clientsByUser = new ConcurrentHashMap<>();
+
+    /** 币种 ID -> 订阅了该币种的连接（只在广播线程中修改） */
+    private final Map<Integer, Set<Client>> clientsBySymbol = new ConcurrentHashMap<>();
+
+    /** 订阅变更与变动分发（单线程，保证每个连接收到的消息顺序与快照版本一致） */
+    private final ExecutorService broadcaster = Executors.newSingleThreadExecutor(DaemonThreads.named("rate-push-broadcast-"));
+
+    /** 写出消息 */
+    private final ExecutorService writers;
+
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            DaemonThreads.named("rate-push-heartbeat-"));
+
+    private final LongAdder connected = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+    private final LongAdder evictedSlow = new LongAdder();
+    private final LongAdder evictedStalled = new LongAdder();
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder alerts = new LongAdder();
+    private final LongAdder messagesEncoded = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder messagesReceived = new LongAdder();
+
+    @Autowired
+    public RatePushHandler(LatestRateStore latestRateStore, SymbolRegistry symbolRegistry,
+            UserFavoriteMapper userFavoriteMapper, ObjectMapper objectMapper, RatePushConfig config) {
+        this.latestRateStore = latestRateStore;
+        this.symbolRegistry = symbolRegistry;
+        this.userFavoriteMapper = userFavoriteMapper;
+        this.compactMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        this.config = config;
+        this.writers = Executors.newFixedThreadPool(Math.max(1, config.getWriterThreads()),
+                DaemonThreads.named("rate-push-writer-"));
+        long interval = Math.max(1, config.getHeartbeatSeconds());
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.SECONDS);
+        heartbeat.scheduleAtFixedRate(this::evictStalled, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return 连接数是否已达上限（握手阶段检查）
+     */
+    public boolean isFull() {
+        return clients.size() >= config.getMaxSessions();
+    }
+
+    /**
+     * 连接建立：登记连接并按用户收藏初始化订阅
+     */
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Long userId = (Long) session.getAttributes().get(ATTR_USER_ID);
+        Client client = new Client(session, userId);
+        clients.put(session.getId(), client);
+        clientsByUser.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(client);
+        connected.increment();
+
+        List<String> favorites;
+        try {
+            favorites = userFavoriteMapper.selectSymbolsByUserId(userId);
+        } catch (Exception e) {
+            log.warn("[RatePush] 加载用户 {} 的收藏失败，以空订阅建立连接: {}", userId, e.getMessage());
+            favorites = List.of();
+        }
+        List<String> initial = favorites;
+        execute(() -> subscribe(client, initial, true));
+        log.debug("[RatePush] 用户 {} 建立连接，当前连接数 {}", userId, clients.size());
+    }
+
+    /**
+     * 处理客户端消息：增减订阅与应用层 ping
+     */
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Client client = clients.get(session.getId());
+        if (client == null) {
+            return;
+        }
+        messagesReceived.increment();
+        JsonNode node;
+        try {
+            node = compactMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            offer(client, error("消息格式错误，应为 JSON"));
+            return;
+        }
+        String action = node.path("action").asText();
+        switch (action) {
+            case ACTION_SUBSCRIBE, ACTION_UNSUBSCRIBE -> {
+                List<String> symbols = new ArrayList<>();
+                node.path("symbols").forEach(s -> {
+                    if (s.isTextual() && !s.asText().isBlank()) {
+                        symbols.add(s.asText().trim());
+                    }
+                });
+                if (ACTION_SUBSCRIBE.equals(action)) {
+                    execute(() -> subscribe(client, symbols, false));
+                } else {
+                    execute(() -> unsubscribe(client, symbols));
+                }
+            }
+            case ACTION_PING -> offer(client, PONG);
+            default -> offer(client, error("不支持的 action: " + action));
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        Client client = clients.get(session.getId());
+        if (client != null) {
+            log.debug("[RatePush] 连接异常，断开: {}", exception.getMessage());
+            close(client, CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Client client = clients.get(session.getId());
+        if (client != null) {
+            remove(client);
+        }
+    }
+
+    /**
+     * 新快照发布后把变动交给广播线程，同步流程不等待推送
+     */
+    @EventListener
+    public void onRatesPublished(RatesPublishedEvent event) {
+        if (!clientsBySymbol.isEmpty()) {
+            execute(() -> broadcast(event));
+        }
+    }
+
+    /**
+     * 价格告警触发后推送给该用户在线的连接
+     */
+    @EventListener
+    public void onPriceAlertFired(PriceAlertFiredEvent event) {
+        Set<Client> targets = clientsByUser.get(event.getUserId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("alertId", event.getAlertId());
+        data.put("symbol", event.getSymbol());
+        data.put("alertType", event.getAlertType());
+        data.put("targetValue", event.getTargetValue());
+        data.put("price", event.getPrice());
+        data.put("reason", event.getReason());
+        data.put("triggeredAt", event.getTriggeredAt() != null ? TIME_FORMAT.format(event.getTriggeredAt()) : null);
+        Map<String, Object> alert = new LinkedHashMap<>();
+        alert.put("type", "alert");
+        alert.put("data", data);
+        TextMessage message = encode(alert);
+        alerts.increment();
+        for (Client client : targets) {
+            offer(client, message);
+        }
+    }
+
+    /**
+     * @return 当前连接数、索引规模与累计推送统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", clients.size());
+        stats.put("users", clientsByUser.size());
+        stats.put("indexedSymbols", clientsBySymbol.size());
+        stats.put("connected", connected.sum());
+        stats.put("disconnected", disconnected.sum());
+        stats.put("evictedSlow", evictedSlow.sum());
+        stats.put("evictedStalled", evictedStalled.sum());
+        stats.put("broadcasts", broadcasts.sum());
+        stats.put("ticks", ticks.sum());
+        stats.put("alerts", alerts.sum());
+        stats.put("messagesEncoded", messagesEncoded.sum());
+        stats.put("messagesSent", messagesSent.sum());
+        stats.put("messagesReceived", messagesReceived.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        broadcaster.shutdownNow();
+        writers.shutdownNow();
+        for (Client client : clients.values()) {
+            try {
+                client.session.close(CloseStatus.GOING_AWAY);
+            } catch (Exception ignored) {
+                // 连接已不可用
+            }
+        }
+        clients.clear();
+    }
+
+    /** 分发价格变动：每个变动编码一次，只投递给订阅了该币种的连接（广播线程） */
+    private void broadcast(RatesPublishedEvent event) {
+        List<RateChange> changes = RateChange.of(event, symbolRegistry);
+        long version = event.getCurrent().getVersion();
+        int delivered = 0;
+        for (RateChange change : changes) {
+            Set<Client> subscribers = clientsBySymbol.get(change.symbolId());
+            if (subscribers == null || subscribers.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> tick = new LinkedHashMap<>();
+            tick.put("type", "tick");
+            tick.put("version", version);
+            tick.put("data", change.tick());
+            TextMessage message = encode(tick);
+            ticks.increment();
+            for (Client client : subscribers) {
+                offer(client, message);
+            }
+            delivered++;
+        }
+        if (delivered > 0) {
+            broadcasts.increment();
+            log.debug("[RatePush] 版本 {}: {} 个币种变动，其中 {} 个有订阅者", version, changes.size(), delivered);
+        }
+    }
+
+    /** 增加订阅并回复订阅集合与新增币种的当前价（广播线程） */
+    private void subscribe(Client client, Collection<String> symbols, boolean welcome) {
+        if (!clients.containsKey(client.session.getId())) {
+            return;
+        }
+        BitSet added = new BitSet();
+        boolean truncated = false;
+        for (String symbol : symbols) {
+            // 只接受已有行情的币种，避免任意字符串占用 ID（尚无行情的收藏币种也无价可推）
+            int id = symbolRegistry.find(symbol);
+            if (id < 0 || client.symbols.get(id)) {
+                continue;
+            }
+            if (client.symbols.cardinality() >= config.getMaxSymbolsPerSession()) {
+                truncated = true;
+                break;
+            }
+            client.symbols.set(id);
+            clientsBySymbol.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(client);
+            added.set(id);
+        }
+
+        Map<String, Object> reply = new LinkedHashMap<>();
+        reply.put("type", welcome ? "welcome" : "subscribed");
+        if (welcome) {
+            reply.put("userId", client.userId);
+        }
+        reply.put("symbols", symbolsOf(client.symbols));
+        if (truncated) {
+            reply.put("msg", "订阅数已达上限 " + config.getMaxSymbolsPerSession());
+        }
+        offer(client, encode(reply));
+        if (!added.isEmpty()) {
+            offer(client, snapshotOf(added));
+        }
+    }
+
+    /** 取消订阅并回复订阅集合（广播线程） */
+    private void unsubscribe(Client client, Collection<String> symbols) {
+        if (!clients.containsKey(client.session.getId())) {
+            return;
+        }
+        BitSet removed = new BitSet();
+        for (String symbol : symbols) {
+            int id = symbolRegistry.find(symbol);
+            if (id >= 0 && client.symbols.get(id)) {
+                removed.set(id);
+            }
+        }
+        unindex(client, removed);
+        Map<String, Object> reply = new LinkedHashMap<>();
+        reply.put("type", "subscribed");
+        reply.put("symbols", symbolsOf(client.symbols));
+        offer(client, encode(reply));
+    }
+
+    /** 从倒排索引中移除连接的部分订阅（广播线程） */
+    private void unindex(Client client, BitSet ids) {
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            client.symbols.clear(id);
+            clientsBySymbol.computeIfPresent(id, (k, set) -> {
+                set.remove(client);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /** 指定币种在当前快照中的价格 */
+    private TextMessage snapshotOf(BitSet ids) {
+        RateSnapshot snapshot = latestRateStore.current();
+        List<RateTickDTO> data = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            RateHistory history = snapshot.get(id);
+            if (history == null) {
+                continue;
+            }
+            RateTickDTO tick = new RateTickDTO();
+            tick.setSymbol(symbolRegistry.symbol(id));
+            tick.setRate(history.getRate());
+            tick.setTimestamp(history.getTimestamp());
+            data.add(tick);
+        }
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "snapshot");
+        message.put("version", snapshot.getVersion());
+        message.put("data", data);
+        return encode(message);
+    }
+
+    private List<String> symbolsOf(BitSet ids) {
+        List<String> symbols = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            symbols.add(symbolRegistry.symbol(id));
+        }
+        return symbols;
+    }
+
+    private TextMessage error(String msg) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("type", "error");
+        error.put("msg", msg);
+        return encode(error);
+    }
+
+    private TextMessage encode(Object message) {
+        try {
+            messagesEncoded.increment();
+            return new TextMessage(compactMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** 交给广播线程执行 */
+    private void execute(Runnable task) {
+        try {
+            broadcaster.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("[RatePush] 推送任务执行失败: {}", e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            log.debug("[RatePush] 广播线程已停止: {}", e.getMessage());
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Client client : clients.values()) {
+            offer(client, new PingMessage());
+        }
+    }
+
+    /** 放入连接的发件箱；队列已满说明客户端跟不上，直接断开 */
+    private void offer(Client client, WebSocketMessage<?> message) {
+        if (!client.outbox.offer(message)) {
+            evictedSlow.increment();
+            log.info("[RatePush] 用户 {} 的连接积压超过 {} 条消息，断开慢连接", client.userId, config.getBufferMessages());
+            close(client, CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+
+    /** 断开单次写出超过时限的连接，释放被其占用的写出线程 */
+    private void evictStalled() {
+        long now = System.nanoTime();
+        long limit = TimeUnit.MILLISECONDS.toNanos(config.getSendTimeLimitMs());
+        for (Client client : clients.values()) {
+            if (client.outbox.isStalled(now, limit)) {
+                evictedStalled.increment();
+                log.info("[RatePush] 用户 {} 的连接单次写出超过 {} ms，断开慢连接", client.userId, config.getSendTimeLimitMs());
+                close(client, CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+    }
+
+    private void close(Client client, CloseStatus status) {
+        remove(client);
+        client.outbox.close();
+        try {
+            client.session.close(status);
+        } catch (Exception ignored) {
+            // 连接已不可用
+        }
+    }
+
+    /** 注销连接；订阅索引交给广播线程清理 */
+    private void remove(Client client) {
+        if (!clients.remove(client.session.getId(), client)) {
+            return;
+        }
+        disconnected.increment();
+        clientsByUser.computeIfPresent(client.userId, (k, set) -> {
+            set.remove(client);
+            return set.isEmpty() ? null : set;
+        });
+        execute(() -> unindex(client, (BitSet) client.symbols.clone()));
+    }
+
+    /** 一个 WebSocket 连接 */
+    private final class Client {
+
+        final WebSocketSession session;
+
+        /** 握手时认证的用户ID */
+        final Long userId;
+
+        /** 待写出的消息 */
+        final ConnectionOutbox<WebSocketMessage<?>> outbox;
+
+        /** 订阅的币种 ID（只在广播线程中访问） */
+        final BitSet symbols = new BitSet();
+
+        Client(WebSocketSession session, Long userId) {
+            this.session = session;
+            this.userId = userId;
+            this.outbox = new ConnectionOutbox<>(config.getBufferMessages(), writers, message -> {
+                session.sendMessage(message);
+                messagesSent.increment();
+            }, e -> {
+                log.debug("[RatePush] 写出失败，断开连接: {}", e.getMessage());
+                close(this, CloseStatus.SERVER_ERROR);
+            });
+        }
+    }
+}
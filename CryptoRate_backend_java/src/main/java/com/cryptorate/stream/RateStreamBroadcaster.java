@@ -0,0 +1,462 @@
+package com.cryptorate.stream;
+
+import com.cryptorate.cache.LatestRateStore;
+import com.cryptorate.cache.RateSnapshot;
+import com.cryptorate.cache.SymbolRegistry;
+import com.cryptorate.common.DaemonThreads;
+import com.cryptorate.common.exception.ApiException;
+import com.cryptorate.config.RateStreamConfig;
+import com.cryptorate.dto.RateTickDTO;
+import com.cryptorate.entity.RateHistory;
+import com.cryptorate.event.FavoriteChangedEvent;
+import com.cryptorate.event.RatesPublishedEvent;
+import com.cryptorate.mapper.UserFavoriteMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实时行情 SSE 广播器
+ *
+ * <p>
+ * 客户端订阅 {@code /api/v1/rates/stream} 后不再需要轮询最新汇率：每次同步发布新快照后，
+ * 只把价格发生变化的币种推送给订阅者。
+ * </p>
+ *
+ * <h3>实现要点：</h3>
+ * <ul>
+ * <li><b>增量</b>：监听 {@link RatesPublishedEvent}，只比较本次写入涉及的币种，价格不变的不推送</li>
+ * <li><b>共享编码</b>：每个变动只序列化一次；订阅全部币种的客户端共享同一帧，
+ * 带过滤条件的客户端按命中的币种组合共享，同一组合只拼接一次</li>
+ * <li><b>有界缓冲</b>：广播线程只把帧放入每个订阅者的 {@link ConnectionOutbox}，由写出线程池异步发送，
+ * 一个慢客户端不会拖住其他订阅者；队列写满或单次写出超过时限即视为慢消费者并断开，客户端重连后从最新快照重新开始</li>
+ * <li><b>心跳</b>：定时发送 SSE 注释帧，保持代理连接并及时清理已断开的客户端</li>
+ * <li><b>收藏过滤</b>：按收藏订阅的客户端在用户收藏变更后自动更新过滤条件</li>
+ * </ul>
+ * <p>
+ * 每个连接首先收到 {@code snapshot} 事件（当前全部匹配币种的最新价），之后是 {@code rates} 事件（变动），
+ * 事件 ID 为快照版本号。
+ * </p>
+ *
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+@Slf4j
+@Component
+public class RateStreamBroadcaster {
+
+    /** 首帧事件名：当前全部匹配币种的最新价 */
+    public static final String EVENT_SNAPSHOT = "snapshot";
+
+    /** 增量事件名：价格发生变化的币种 */
+    public static final String EVENT_RATES = "rates";
+
+    /** 心跳帧（SSE 注释，客户端不会收到事件），所有订阅者共享 */
+    private static final Frame HEARTBEAT = new Frame(SseEmitter.event().comment("heartbeat").build());
+
+    private final LatestRateStore latestRateStore;
+    private final SymbolRegistry symbolRegistry;
+    private final UserFavoriteMapper userFavoriteMapper;
+    private final ObjectMapper compactMapper;
+    private final RateStreamConfig config;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /** 计算增量、编码并分发帧（单线程，保证各订阅者收到的帧顺序与快照版本一致） */
+    private final ExecutorService broadcaster = Executors.newSingleThreadExecutor(DaemonThreads.named("rate-stream-broadcast-"));
+
+    /** 写出帧 */
+    private final ExecutorService writers;
+
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            DaemonThreads.named("rate-stream-heartbeat-"));
+
+    /** 全量首帧缓存：快照版本未变时新连接直接复用 */
+    private volatile SnapshotFrame snapshotFrame;
+
+    private final LongAdder connected = new LongAdder();
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder framesEncoded = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder evictedSlow = new LongAdder();
+    private final LongAdder evictedStalled = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+
+    @Autowired
+    public RateStreamBroadcaster(LatestRateStore latestRateStore, SymbolRegistry symbolRegistry,
+            UserFavoriteMapper userFavoriteMapper, ObjectMapper objectMapper, RateStreamConfig config) {
+        this.latestRateStore = latestRateStore;
+        this.symbolRegistry = symbolRegistry;
+        this.userFavoriteMapper = userFavoriteMapper;
+        this.compactMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        this.config = config;
+        this.writers = Executors.newFixedThreadPool(Math.max(1, config.getWriterThreads()),
+                DaemonThreads.named("rate-stream-writer-"));
+        long interval = Math.max(1, config.getHeartbeatSeconds());
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.SECONDS);
+        heartbeat.scheduleAtFixedRate(this::evictStalled, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 建立订阅
+     *
+     * @param symbols        只接收这些币种（大小写不敏感）；为 null 时接收全部币种
+     * @param favoriteUserId 不为 null 时按该用户的收藏过滤（优先于 symbols），收藏变更后自动更新
+     * @return SSE 连接
+     */
+    public SseEmitter subscribe(Collection<String> symbols, Long favoriteUserId) {
+        if (subscribers.size() >= config.getMaxSubscribers()) {
+            throw new ApiException(503, "实时行情订阅人数已满，请稍后重试");
+        }
+        BitSet filter;
+        if (favoriteUserId != null) {
+            // 收藏过滤在广播线程中登记时读取，与收藏变更的处理串行
+            filter = new BitSet();
+        } else if (symbols != null) {
+            filter = new BitSet();
+            for (String symbol : symbols) {
+                int id = symbolRegistry.find(symbol.trim());
+                if (id >= 0) {
+                    filter.set(id);
+                }
+            }
+        } else {
+            filter = null;
+        }
+
+        SseEmitter emitter = new SseEmitter(config.getTimeoutMs());
+        Subscriber subscriber = new Subscriber(emitter, favoriteUserId);
+        subscriber.filter = filter;
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        // 在广播线程中放入首帧并加入订阅集合：广播任务串行执行，首帧之后的每个新版本都会推送给该订阅者，
+        // 首帧一定排在所有增量之前
+        try {
+            broadcaster.execute(() -> register(subscriber));
+        } catch (Exception e) {
+            throw new ApiException(503, "实时行情推送服务已停止");
+        }
+        return emitter;
+    }
+
+    /** 放入首帧并加入订阅集合（广播线程） */
+    private void register(Subscriber subscriber) {
+        if (subscriber.closed) {
+            return;
+        }
+        try {
+            if (subscriber.favoriteUserId != null) {
+                subscriber.filter = favoritesFilter(subscriber.favoriteUserId);
+            }
+            offer(subscriber, snapshotFrameFor(subscriber.filter));
+        } catch (Exception e) {
+            log.error("[RateStream] 生成首帧失败: {}", e.getMessage(), e);
+            subscriber.emitter.completeWithError(e);
+            return;
+        }
+        subscribers.add(subscriber);
+        connected.increment();
+        // 连接可能在登记期间断开（回调不在广播线程中执行）
+        if (subscriber.closed) {
+            remove(subscriber);
+            return;
+        }
+        log.debug("[RateStream] 新订阅: 过滤 {}，当前订阅数 {}",
+                subscriber.filter == null ? "全部" : subscriber.filter.cardinality() + " 个币种", subscribers.size());
+    }
+
+    /**
+     * 新快照发布后把变动交给广播线程，同步流程不等待推送
+     *
+     * <p>订阅者只在广播线程中加入，是否有订阅者也在广播线程中判断，避免与正在登记的订阅者竞争。</p>
+     */
+    @EventListener
+    public void onRatesPublished(RatesPublishedEvent event) {
+        broadcaster.execute(() -> {
+            try {
+                broadcast(event);
+            } catch (Exception e) {
+                log.error("[RateStream] 推送行情变动失败: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 用户收藏变更后更新其按收藏订阅的连接的过滤条件
+     */
+    @EventListener
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        broadcaster.execute(() -> {
+            BitSet filter = null;
+            for (Subscriber subscriber : subscribers) {
+                if (event.getUserId().equals(subscriber.favoriteUserId)) {
+                    try {
+                        if (filter == null) {
+                            filter = favoritesFilter(event.getUserId());
+                        }
+                        subscriber.filter = filter;
+                    } catch (Exception e) {
+                        log.warn("[RateStream] 刷新用户 {} 的收藏过滤失败: {}", event.getUserId(), e.getMessage());
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return 当前订阅数与累计推送统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("connected", connected.sum());
+        stats.put("disconnected", disconnected.sum());
+        stats.put("evictedSlow", evictedSlow.sum());
+        stats.put("evictedStalled", evictedStalled.sum());
+        stats.put("broadcasts", broadcasts.sum());
+        stats.put("ticks", ticks.sum());
+        stats.put("framesEncoded", framesEncoded.sum());
+        stats.put("framesSent", framesSent.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        broadcaster.shutdownNow();
+        writers.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /** 计算变动并按订阅者的过滤条件分发（广播线程） */
+    private void broadcast(RatesPublishedEvent event) throws JsonProcessingException {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        RateSnapshot current = event.getCurrent();
+
+        // 1. 找出价格变化的币种，每个变动只编码一次
+        List<RateChange> changes = RateChange.of(event, symbolRegistry);
+        List<Integer> changedIds = new ArrayList<>(changes.size());
+        List<String> fragments = new ArrayList<>(changes.size());
+        for (RateChange change : changes) {
+            changedIds.add(change.symbolId());
+            fragments.add(compactMapper.writeValueAsString(change.tick()));
+        }
+        if (changedIds.isEmpty()) {
+            return;
+        }
+        broadcasts.increment();
+        ticks.add(changedIds.size());
+
+        // 2. 订阅全部币种的客户端共享一帧；带过滤的按命中组合共享
+        String id = String.valueOf(current.getVersion());
+        Frame all = null;
+        Map<BitSet, Frame> byMatch = new HashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            BitSet filter = subscriber.filter;
+            Frame frame;
+            if (filter == null) {
+                if (all == null) {
+                    all = encode(EVENT_RATES, id, fragments, null);
+                }
+                frame = all;
+            } else {
+                BitSet match = new BitSet(changedIds.size());
+                for (int i = 0; i < changedIds.size(); i++) {
+                    if (filter.get(changedIds.get(i))) {
+                        match.set(i);
+                    }
+                }
+                if (match.isEmpty()) {
+                    continue;
+                }
+                frame = byMatch.computeIfAbsent(match, m -> encode(EVENT_RATES, id, fragments, m));
+            }
+            offer(subscriber, frame);
+        }
+        log.debug("[RateStream] 版本 {}: {} 个币种变动，推送给 {} 个订阅者，编码 {} 帧",
+                id, changedIds.size(), subscribers.size(), byMatch.size() + (all != null ? 1 : 0));
+    }
+
+    /** 首帧：当前快照中匹配过滤条件的全部币种 */
+    private Frame snapshotFrameFor(BitSet filter) {
+        RateSnapshot snapshot = latestRateStore.current();
+        SnapshotFrame cached = snapshotFrame;
+        if (filter == null && cached != null && cached.version() == snapshot.getVersion()) {
+            return cached.frame();
+        }
+        List<String> fragments = new ArrayList<>();
+        for (RateHistory history : snapshot.getSortedRates()) {
+            int id = symbolRegistry.find(history.getSymbol());
+            if (filter != null && (id < 0 || !filter.get(id))) {
+                continue;
+            }
+            RateTickDTO tick = new RateTickDTO();
+            tick.setSymbol(symbolRegistry.canonical(history.getSymbol()));
+            tick.setRate(history.getRate());
+            tick.setTimestamp(history.getTimestamp());
+            try {
+                fragments.add(compactMapper.writeValueAsString(tick));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        Frame frame = encode(EVENT_SNAPSHOT, String.valueOf(snapshot.getVersion()), fragments, null);
+        if (filter == null) {
+            snapshotFrame = new SnapshotFrame(snapshot.getVersion(), frame);
+        }
+        return frame;
+    }
+
+    /** 把已编码的片段拼接为 JSON 数组并构造 SSE 帧；select 为 null 时取全部片段 */
+    private Frame encode(String event, String id, List<String> fragments, BitSet select) {
+        StringBuilder data = new StringBuilder(fragments.size() * 64).append('[');
+        boolean first = true;
+        for (int i = 0; i < fragments.size(); i++) {
+            if (select != null && !select.get(i)) {
+                continue;
+            }
+            if (!first) {
+                data.append(',');
+            }
+            data.append(fragments.get(i));
+            first = false;
+        }
+        data.append(']');
+        framesEncoded.increment();
+        return new Frame(SseEmitter.event().name(event).id(id).data(data.toString()).build());
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            offer(subscriber, HEARTBEAT);
+        }
+    }
+
+    /** 放入订阅者的发件箱；队列已满说明客户端跟不上，直接断开 */
+    private void offer(Subscriber subscriber, Frame frame) {
+        if (!subscriber.outbox.offer(frame)) {
+            evictedSlow.increment();
+            log.info("[RateStream] 订阅者积压超过 {} 帧，断开慢连接", config.getBufferFrames());
+            close(subscriber);
+        }
+    }
+
+    /** 断开单次写出超过时限的订阅者，释放被其占用的写出线程 */
+    private void evictStalled() {
+        long now = System.nanoTime();
+        long limit = TimeUnit.MILLISECONDS.toNanos(config.getSendTimeLimitMs());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.outbox.isStalled(now, limit)) {
+                evictedStalled.increment();
+                log.info("[RateStream] 订阅者单次写出超过 {} ms，断开慢连接", config.getSendTimeLimitMs());
+                close(subscriber);
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        subscriber.outbox.close();
+        try {
+            subscriber.emitter.complete();
+        } catch (Exception ignored) {
+            // 连接已不可用
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (subscribers.remove(subscriber)) {
+            disconnected.increment();
+        }
+    }
+
+    private BitSet favoritesFilter(Long userId) {
+        BitSet filter = new BitSet();
+        for (String symbol : userFavoriteMapper.selectSymbolsByUserId(userId)) {
+            // 尚无行情的币种没有 ID，也不会有推送
+            int id = symbolRegistry.find(symbol);
+            if (id >= 0) {
+                filter.set(id);
+            }
+        }
+        return filter;
+    }
+
+    /** 一个订阅连接 */
+    private final class Subscriber {
+
+        final SseEmitter emitter;
+
+        /** 按收藏订阅时的用户ID */
+        final Long favoriteUserId;
+
+        /** 待写出的帧 */
+        final ConnectionOutbox<Frame> outbox;
+
+        /** 订阅的币种 ID，null 表示全部；收藏变更时整体替换 */
+        volatile BitSet filter;
+
+        /** 连接已结束（可能早于加入订阅集合） */
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Long favoriteUserId) {
+            this.emitter = emitter;
+            this.favoriteUserId = favoriteUserId;
+            this.outbox = new ConnectionOutbox<>(config.getBufferFrames(), writers, frame -> {
+                emitter.send(frame.items());
+                framesSent.increment();
+            }, e -> {
+                log.debug("[RateStream] 写出失败，断开连接: {}", e.getMessage());
+                close(this);
+            });
+        }
+    }
+
+    /**
+     * 已编码的 SSE 帧，可同时写给多个订阅者
+     *
+     * @param items SSE 帧的各个组成部分
+     */
+    private record Frame(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+    }
+
+    /** 某一快照版本的全量首帧 */
+    private record SnapshotFrame(long version, Frame frame) {
+    }
+}
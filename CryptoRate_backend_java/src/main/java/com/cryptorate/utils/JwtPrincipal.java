@@ -0,0 +1,25 @@
+package com.cryptorate.utils;
+
+/**
+ * 已通过签名校验的 JWT 载荷
+ *
+ * <p>Token 只需解析一次，拦截器后续直接使用该不可变对象中的字段，不再重复验签。</p>
+ *
+ * @param userId    用户 ID
+ * @param username  用户名
+ * @param role      角色（ADMIN / USER）
+ * @param expiresAt 过期时间（毫秒时间戳）
+ * @author CryptoRate Team
+ * @version 1.0
+ * @since 2026-10-16
+ */
+public record JwtPrincipal(Long userId, String username, String role, long expiresAt) {
+
+    /**
+     * @param nowMillis 当前时间（毫秒）
+     * @return 是否已过期
+     */
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAt;
+    }
+}
@@ -2,6 +2,7 @@ package com.cryptorate.utils;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -45,17 +46,25 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private long expiration;
 
+    /** HMAC-SHA256 签名密钥（启动时构建一次） */
+    private SecretKey signingKey;
+
+    /** 复用的 Token 解析器（线程安全） */
+    private JwtParser parser;
+
     /**
-     * 获取 HMAC-SHA256 签名密钥
+     * 构建签名密钥与解析器
      *
-     * <p>将配置文件中的字符串密钥转换为 jjwt 所需的 SecretKey 对象。
-     * 若密钥长度不足，会自动补全以满足 HMAC-SHA256 的 256 位要求。</p>
-     *
-     * @return SecretKey 签名密钥对象
+     * <p>将配置文件中的字符串密钥转换为 jjwt 所需的 SecretKey 对象，
+     * 密钥与解析器均不可变，无需每次签发、解析时重新创建。</p>
      */
-    private SecretKey getSigningKey() {
+    @PostConstruct
+    public void init() {
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     /**
@@ -84,7 +93,7 @@ public class JwtUtils {
                 .claim("role", role)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
 
         log.debug("生成 JWT Token，用户ID: {}, 用户名: {}, 角色: {}, 过期时间: {}", userId, username, role, expiryDate);
@@ -102,11 +111,32 @@ public class JwtUtils {
      * @throws JwtException Token 无效、过期或格式错误时抛出
      */
     public Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * 解析并校验 Token，返回不可变的用户身份
+     *
+     * <p>一次验签即可取得 userId、username、role 与过期时间，
+     * 替代分别调用 {@link #validateToken} 与各个 getXxxFromToken 方法造成的重复解析。</p>
+     *
+     * @param token JWT Token 字符串（不含 "Bearer " 前缀）
+     * @return 用户身份；Token 无效、过期或缺少 userId 时返回 null
+     */
+    public JwtPrincipal authenticate(String token) {
+        Claims claims = parseQuietly(token);
+        if (claims == null) {
+            return null;
+        }
+        Long userId = claims.get("userId", Long.class);
+        if (userId == null || claims.getExpiration() == null) {
+            log.warn("JWT Token 缺少必要的载荷字段");
+            return null;
+        }
+        return new JwtPrincipal(userId,
+                claims.get("username", String.class),
+                claims.get("role", String.class),
+                claims.getExpiration().getTime());
     }
 
     /**
@@ -162,9 +192,13 @@ public class JwtUtils {
      * @return true-有效，false-无效或已过期
      */
     public boolean validateToken(String token) {
+        return parseQuietly(token) != null;
+    }
+
+    /** 解析 Token，失败时记录原因并返回 null */
+    private Claims parseQuietly(String token) {
         try {
-            parseToken(token);
-            return true;
+            return parseToken(token);
         } catch (ExpiredJwtException e) {
             log.warn("JWT Token 已过期: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
@@ -173,7 +207,9 @@ public class JwtUtils {
             log.warn("JWT Token 格式错误: {}", e.getMessage());
         } catch (JwtException e) {
             log.warn("JWT Token 校验失败: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.warn("JWT Token 为空: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 }
@@ -0,0 +1,16 @@
+-- ===============================================
+-- alert_dead_letter 表：投递失败的告警消息
+-- ===============================================
+-- 告警分发队列在重试耗尽、队列已满或服务关闭时把消息写入此表，
+-- payload 为发送给 Python /ai/alert 的原始 JSON，可人工排查或重放
+
+CREATE TABLE IF NOT EXISTS `alert_dead_letter` (
+    `id`          BIGINT        NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `webhook_url` VARCHAR(500)  DEFAULT NULL            COMMENT '目标飞书 Webhook（为空表示默认 Webhook）',
+    `payload`     TEXT          NOT NULL                COMMENT '告警请求体 JSON',
+    `attempts`    INT           NOT NULL DEFAULT 0      COMMENT '已尝试投递次数',
+    `last_error`  VARCHAR(500)  DEFAULT NULL            COMMENT '最后一次失败原因',
+    `created_at`  DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '进入死信的时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='告警死信表';
@@ -0,0 +1,28 @@
+-- ===============================================
+-- rate_history 表迁移：按 timestamp 做月度 RANGE 分区
+-- ===============================================
+-- 分区后按币种 + 时间范围的查询（WHERE symbol = ? AND timestamp BETWEEN ? AND ?）只扫描相关月份的分区，
+-- 过期的整月数据由 RateHistoryRetentionManager 降采样为 K 线后直接 DROP PARTITION。
+--
+-- 本脚本只建立两个初始分区：
+--   p_history：当前月之前的全部历史数据
+--   p_future ：兜底分区，应用启动后的首次维护会把它拆分为当前月及未来若干个月的 pYYYYMM 分区
+-- 执行前请把下方的日期改为执行时所在月份的第一天（按服务器时区）。
+-- 表较大时 ALTER 会重建整张表，请在低峰期执行。
+
+-- 1. 分区键必须包含在所有唯一键中：主键改为 (id, timestamp)，uk_symbol_ts 已包含 timestamp
+ALTER TABLE `rate_history`
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (`id`, `timestamp`);
+
+-- 2. 建立初始分区
+ALTER TABLE `rate_history`
+    PARTITION BY RANGE (`timestamp`) (
+        PARTITION `p_history` VALUES LESS THAN (UNIX_TIMESTAMP('2026-10-01 00:00:00')),
+        PARTITION `p_future`  VALUES LESS THAN MAXVALUE
+    );
+
+-- 3. 查看分区
+-- SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS
+-- FROM information_schema.PARTITIONS
+-- WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'rate_history';
@@ -0,0 +1,17 @@
+-- ===============================================
+-- rate_history 表迁移：(symbol, timestamp) 唯一索引
+-- ===============================================
+-- 同一币种同一时间点只保留一条记录，写入改为 INSERT ... ON DUPLICATE KEY UPDATE，
+-- 重复执行历史回补或同步重试不会再产生重复数据
+
+-- 1. 清理已有的重复数据（每组保留 id 最小的一条）
+DELETE t1 FROM `rate_history` t1
+    JOIN `rate_history` t2
+      ON t1.`symbol` = t2.`symbol`
+     AND t1.`timestamp` = t2.`timestamp`
+     AND t1.`id` > t2.`id`;
+
+-- 2. 用唯一索引替换原普通索引
+ALTER TABLE `rate_history`
+    DROP INDEX `idx_symbol_ts`,
+    ADD UNIQUE KEY `uk_symbol_ts` (`symbol`, `timestamp`);
@@ -0,0 +1,15 @@
+-- ===============================================
+-- backfill_progress 表：历史汇率回补进度
+-- ===============================================
+-- job_key 由回补的币种列表计算得出，同一组币种多次回补共享进度
+-- 每个日期的数据写入 rate_history 后登记一行，
+-- 回补中断后重新执行时跳过已登记的日期，从第一个缺失的日期继续
+
+CREATE TABLE IF NOT EXISTS `backfill_progress` (
+    `id`           BIGINT      NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `job_key`      VARCHAR(64) NOT NULL                COMMENT '回补任务标识',
+    `target_date`  DATE        NOT NULL                COMMENT '已完成的日期',
+    `completed_at` DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '完成时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_job_date` (`job_key`, `target_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='历史汇率回补进度表';
@@ -0,0 +1,32 @@
+-- ===============================================
+-- daily_briefing_run / daily_briefing_delivery 表：AI 每日简报推送进度
+-- ===============================================
+-- 每天的简报内容只生成一次并保存在 daily_briefing_run 中，
+-- 每个用户投递成功或最终失败后在 daily_briefing_delivery 登记一行。
+-- 推送中途服务重启时，启动后用已保存的内容继续推送，跳过已投递成功的用户。
+
+CREATE TABLE IF NOT EXISTS `daily_briefing_run` (
+    `id`            BIGINT      NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `briefing_date` DATE        NOT NULL                COMMENT '简报日期',
+    `content`       MEDIUMTEXT  NOT NULL                COMMENT '简报 Markdown 内容',
+    `status`        VARCHAR(20) NOT NULL DEFAULT 'RUNNING' COMMENT '状态：RUNNING / COMPLETED',
+    `user_total`    INT         NOT NULL DEFAULT 0      COMMENT '订阅用户数',
+    `delivered`     INT         NOT NULL DEFAULT 0      COMMENT '已投递成功的用户数',
+    `failed`        INT         NOT NULL DEFAULT 0      COMMENT '投递失败的用户数',
+    `started_at`    DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '开始时间',
+    `finished_at`   DATETIME    DEFAULT NULL            COMMENT '完成时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_briefing_date` (`briefing_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每日简报推送批次表';
+
+CREATE TABLE IF NOT EXISTS `daily_briefing_delivery` (
+    `id`            BIGINT       NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `briefing_date` DATE         NOT NULL                COMMENT '简报日期',
+    `user_id`       BIGINT       NOT NULL                COMMENT '用户ID',
+    `status`        VARCHAR(20)  NOT NULL                COMMENT '状态：SENT / FAILED',
+    `attempts`      INT          NOT NULL DEFAULT 0      COMMENT '已尝试投递次数',
+    `last_error`    VARCHAR(500) DEFAULT NULL            COMMENT '最后一次失败原因',
+    `updated_at`    DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_date_user` (`briefing_date`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每日简报投递记录表';
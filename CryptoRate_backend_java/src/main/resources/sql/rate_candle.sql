@@ -0,0 +1,24 @@
+-- ===============================================
+-- rate_candle 表：由 rate_history 降采样得到的 OHLC K 线
+-- ===============================================
+-- interval_type 取值：1h / 1d / 1w
+-- bucket_start 为该根 K 线的起始时间（Unix 秒，按服务器时区对齐）
+-- first_ts / last_ts 记录参与聚合的最早、最晚采样时间，
+-- 用于增量合并时正确维护开盘价与收盘价（支持乱序回补）
+
+CREATE TABLE IF NOT EXISTS `rate_candle` (
+    `id`            BIGINT         NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `symbol`        VARCHAR(20)    NOT NULL                COMMENT '代币标识',
+    `interval_type` VARCHAR(4)     NOT NULL                COMMENT 'K 线周期 (1h, 1d, 1w)',
+    `bucket_start`  BIGINT         NOT NULL                COMMENT '周期起始时间戳 (Unix 秒)',
+    `open`          DECIMAL(24, 8) NOT NULL                COMMENT '开盘价',
+    `high`          DECIMAL(24, 8) NOT NULL                COMMENT '最高价',
+    `low`           DECIMAL(24, 8) NOT NULL                COMMENT '最低价',
+    `close`         DECIMAL(24, 8) NOT NULL                COMMENT '收盘价',
+    `first_ts`      BIGINT         NOT NULL                COMMENT '周期内最早采样时间戳',
+    `last_ts`       BIGINT         NOT NULL                COMMENT '周期内最晚采样时间戳',
+    `sample_count`  INT            NOT NULL DEFAULT 0      COMMENT '参与聚合的采样点数',
+    `updated_at`    DATETIME       NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_symbol_interval_bucket` (`symbol`, `interval_type`, `bucket_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='汇率 OHLC K 线表';
@@ -0,0 +1,21 @@
+-- ===============================================
+-- symbol_catalog 表：系统支持的币种目录
+-- ===============================================
+-- 由写入 rate_history 的同步 / 回补流程维护：某个币种第一次写入数据时登记一行，
+-- 币种列表接口与启动时的币种字典都读取此表，不再对 rate_history 执行 SELECT DISTINCT
+-- 表为空时应用启动会自动执行下方的初始化语句，也可以手动执行
+
+CREATE TABLE IF NOT EXISTS `symbol_catalog` (
+    `id`         BIGINT      NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `symbol`     VARCHAR(20) NOT NULL                COMMENT '币种代码（大写）',
+    `first_seen` BIGINT      NOT NULL                COMMENT '首个数据点的时间戳（秒）',
+    `created_at` DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '登记时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_symbol` (`symbol`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='币种目录表';
+
+-- 从已有的 rate_history 初始化（可重复执行）
+INSERT IGNORE INTO `symbol_catalog` (`symbol`, `first_seen`)
+SELECT `symbol`, MIN(`timestamp`)
+FROM `rate_history`
+GROUP BY `symbol`;
@@ -186,6 +186,9 @@ export const statsAPI = {
 export const assetAPI = {
   getAssets: () => request(`${API_CONFIG.BASE_URL_V1}/assets`),
 
+  // 服务端按最新汇率计算的持仓估值与组合汇总
+  getPortfolio: () => request(`${API_CONFIG.BASE_URL_V1}/assets/portfolio`),
+
   saveAsset: (asset) => request(`${API_CONFIG.BASE_URL_V1}/assets`, {
     method: 'POST',
     body: asset,
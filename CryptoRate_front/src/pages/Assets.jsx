@@ -5,9 +5,10 @@ import '../home.css';
 
 export default function Assets() {
     const context = useOutletContext() || {};
-    const { user, setShowLoginPage, latestRates, error, setError } = context;
+    const { user, setShowLoginPage, error, setError } = context;
 
     const [assets, setAssets] = useState([]);
+    const [summary, setSummary] = useState(null);
     const [isLoading, setIsLoading] = useState(false);
 
     // 模态框状态
@@ -20,9 +21,10 @@ export default function Assets() {
         if (!user) return;
         setIsLoading(true);
         try {
-            const res = await assetAPI.getAssets();
+            const res = await assetAPI.getPortfolio();
             if (res && res.data) {
-                setAssets(res.data);
+                setAssets(res.data.assets || []);
+                setSummary(res.data);
             }
         } catch (err) {
             console.error('获取资产失败:', err);
@@ -36,33 +38,22 @@ export default function Assets() {
             fetchAssets();
         } else {
             setAssets([]);
+            setSummary(null);
         }
     }, [user]);
 
-    // 计算总资产
-    let totalValue = 0;
-    let totalCost = 0;
-
-    const processedAssets = assets.map(asset => {
-        const rate = latestRates && latestRates[asset.symbol] ? latestRates[asset.symbol] : 0;
-        const currentValue = rate * asset.amount;
-        const profit = currentValue - asset.cost;
-        const roi = asset.cost > 0 ? (profit / asset.cost) * 100 : 0;
-
-        totalValue += currentValue;
-        totalCost += asset.cost;
-
-        return {
-            ...asset,
-            currentValue,
-            profit,
-            roi,
-            currentPrice: rate
-        };
-    });
-
-    const totalProfit = totalValue - totalCost;
-    const totalRoi = totalCost > 0 ? (totalProfit / totalCost) * 100 : 0;
+    // 估值由服务端按最新汇率计算，暂无行情的币种按 0 展示
+    const processedAssets = assets.map(asset => ({
+        ...asset,
+        currentValue: Number(asset.totalValue ?? 0),
+        profit: Number(asset.profitLoss ?? 0),
+        roi: Number(asset.profitLossPercent ?? 0),
+        currentPrice: Number(asset.currentPrice ?? 0)
+    }));
+
+    const totalValue = Number(summary?.totalValue ?? 0);
+    const totalProfit = Number(summary?.profitLoss ?? 0);
+    const totalRoi = Number(summary?.profitLossPercent ?? 0);
 
     const handleSubmit = async (e) => {
         e.preventDefault();